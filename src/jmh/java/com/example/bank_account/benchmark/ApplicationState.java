@@ -0,0 +1,46 @@
+package com.example.bank_account.benchmark;
+
+import com.example.bank_account.BankAccountApplication;
+import com.example.bank_account.dto.AccountDto;
+import com.example.bank_account.service.AccountService;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 벤치마크용 애플리케이션 (H2 + embedded Redis, 웹 서버 없이)
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+    static final Long USER_ID = 1L;
+
+    ConfigurableApplicationContext context;
+    String accountNumber;
+
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(BankAccountApplication.class)
+                .web(WebApplicationType.NONE)
+                // application.yml 보다 우선하도록 command line 인자로 전달
+                .run("--spring.jpa.properties.hibernate.show_sql=false",
+                        "--logging.level.root=WARN",
+                        // 같은 계좌를 계속 사용하므로 하루 한도에 걸리지 않도록
+                        "--account.daily-spend.limit=0");
+        AccountDto account = getBean(AccountService.class)
+                .createAccount(USER_ID, Long.MAX_VALUE / 2);
+        accountNumber = account.getAccountNumber();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bank_account.benchmark;
+
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.AccountStatus;
+import com.example.bank_account.domain.AccountUser;
+import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transaction -> TransactionDto -> UseBalance.Response 변환, 거래 아이디 생성
+ */
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(AccountUser.builder().id(1L).name("Kevin").build())
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .build();
+        transaction = Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .account(account)
+                .amount(1000L)
+                .balanceSnapShot(9000L)
+                .transactionId(Transaction.newTransactionId())
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public UseBalance.Response transactionToResponse() {
+        return UseBalance.Response.from(TransactionDto.fromEntity(transaction));
+    }
+
+    @Benchmark
+    public String newTransactionId() {
+        return Transaction.newTransactionId();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bank_account.benchmark;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.Exception.GlobalExceptionHandler;
+import com.example.bank_account.dto.ErrorResponse;
+import com.example.bank_account.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 업무 거절 한 건의 예외 생성 + 응답 body 비용 (gc profiler 의 gc.alloc.rate.norm 비교)
+ * - stackTraceAndSerialize: 예외마다 stack trace 를 만들고 ErrorResponse 를 직렬화 (이전 방식)
+ * - preallocatedRejection: 공유 예외 + GlobalExceptionHandler 의 미리 직렬화한 응답
+ */
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+    private static final ErrorCode ERROR_CODE = ErrorCode.AMOUNT_EXCEED_BALANCE;
+
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        globalExceptionHandler = new GlobalExceptionHandler(
+                new SimpleMeterRegistry(), objectMapper, Long.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    public byte[] stackTraceAndSerialize() throws JsonProcessingException {
+        try {
+            throw new AccountException(ERROR_CODE);
+        } catch (AccountException e) {
+            return objectMapper.writeValueAsBytes(
+                    new ErrorResponse(e.getErrorCode(), e.getErrorMessage()));
+        }
+    }
+
+    @Benchmark
+    public byte[] preallocatedRejection() throws JsonProcessingException {
+        try {
+            throw AccountException.rejected(ERROR_CODE);
+        } catch (AccountException e) {
+            return globalExceptionHandler.handleAccountException(e).getBody();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bank_account.benchmark;
+
+import com.example.bank_account.aop.AccountLock;
+import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.service.BalanceMirrorService;
+import com.example.bank_account.service.LockAopAspect;
+import com.example.bank_account.service.LockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * LockAopAspect 자체의 비용 (Redis 호출을 뺀 프록시/포인트컷/인자 바인딩)
+ */
+@State(Scope.Benchmark)
+public class LockAopAspectBenchmark {
+
+    public static class Target {
+        @AccountLock
+        public String use(UseBalance.Request request) {
+            return request.getAccountNumber();
+        }
+    }
+
+    static class NoOpLockService extends LockService {
+        NoOpLockService() {
+            super(null, null, null);
+        }
+
+        @Override
+        public void lock(String accountNumber) {
+        }
+
+        @Override
+        public void unlock(String accountNumber) {
+        }
+    }
+
+    static class DisabledBalanceMirrorService extends BalanceMirrorService {
+        DisabledBalanceMirrorService() {
+            super(null, null, null, null, false, 60);
+        }
+    }
+
+    private Target direct;
+    private Target proxied;
+    private UseBalance.Request request;
+
+    @Setup
+    public void setUp() {
+        direct = new Target();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Target());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LockAopAspect(
+                new NoOpLockService(), new DisabledBalanceMirrorService()));
+        proxied = proxyFactory.getProxy();
+        request = new UseBalance.Request(1L, "1000000000", 1000L);
+    }
+
+    @Benchmark
+    public String direct() {
+        return direct.use(request);
+    }
+
+    @Benchmark
+    public String withAspect() {
+        return proxied.use(request);
+    }
+}
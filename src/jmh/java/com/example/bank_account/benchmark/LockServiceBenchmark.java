@@ -0,0 +1,35 @@
+package com.example.bank_account.benchmark;
+
+import com.example.bank_account.service.LockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LockService lock/unlock (embedded Redis)
+ */
+public class LockServiceBenchmark {
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class LockKey {
+        String accountNumber;
+        LockService lockService;
+
+        @Setup
+        public void setUp(ApplicationState application) {
+            // 스레드마다 다른 계좌번호로 경합 없이 측정
+            accountNumber = String.valueOf(2_000_000_000L + THREAD_SEQUENCE.incrementAndGet());
+            lockService = application.getBean(LockService.class);
+        }
+    }
+
+    @Benchmark
+    public void lockAndUnlock(LockKey key) {
+        key.lockService.lock(key.accountNumber);
+        key.lockService.unlock(key.accountNumber);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bank_account.benchmark;
+
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TransactionService 잔액 사용/취소 (H2)
+ */
+public class TransactionServiceBenchmark {
+    private static final Long AMOUNT = 100L;
+
+    @State(Scope.Thread)
+    public static class CancelTarget {
+        String transactionId;
+
+        @Setup(Level.Invocation)
+        public void use(ApplicationState application) {
+            transactionId = application.getBean(TransactionService.class)
+                    .useBalance(ApplicationState.USER_ID, application.accountNumber, AMOUNT)
+                    .getTransactionId();
+        }
+    }
+
+    @Benchmark
+    public TransactionDto useBalance(ApplicationState application) {
+        return application.getBean(TransactionService.class)
+                .useBalance(ApplicationState.USER_ID, application.accountNumber, AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionDto cancelBalance(ApplicationState application, CancelTarget target) {
+        return application.getBean(TransactionService.class)
+                .cancelBalance(target.transactionId, application.accountNumber, AMOUNT);
+    }
+}
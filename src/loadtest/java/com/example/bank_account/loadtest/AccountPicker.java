@@ -0,0 +1,44 @@
+package com.example.bank_account.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf 분포로 계좌를 선택 (앞쪽 계좌일수록 자주 선택되는 hot account)
+ */
+class AccountPicker {
+    private final List<SeededAccount> accounts;
+    private final double[] cumulative;
+
+    AccountPicker(List<SeededAccount> accounts, double skew) {
+        this.accounts = accounts;
+        this.cumulative = new double[accounts.size()];
+        double sum = 0;
+        for (int i = 0; i < accounts.size(); i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    SeededAccount next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return accounts.get(Math.min(index, accounts.size() - 1));
+    }
+
+    static class SeededAccount {
+        final Long userId;
+        final String accountNumber;
+
+        SeededAccount(Long userId, String accountNumber) {
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+        }
+    }
+}
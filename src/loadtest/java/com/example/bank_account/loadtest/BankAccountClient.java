@@ -0,0 +1,94 @@
+package com.example.bank_account.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * REST API 호출
+ * 실패 시에도 200 과 함께 ErrorResponse 를 응답하므로 errorCode 로 결과를 구분한다
+ */
+class BankAccountClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    BankAccountClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    Result useBalance(Long userId, String accountNumber, long amount)
+            throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("userId", userId)
+                .put("accountNumber", accountNumber)
+                .put("amount", amount);
+        return post("/transaction/use", body);
+    }
+
+    Result cancelBalance(String transactionId, String accountNumber, long amount)
+            throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("transactionId", transactionId)
+                .put("accountNumber", accountNumber)
+                .put("amount", amount);
+        return post("/transaction/cancel", body);
+    }
+
+    Result queryTransaction(String transactionId) throws IOException, InterruptedException {
+        return send(request("/transaction/" + transactionId).GET().build());
+    }
+
+    Result getAccounts(Long userId) throws IOException, InterruptedException {
+        return send(request("/account?user_id=" + userId).GET().build());
+    }
+
+    private Result post(String path, JsonNode body) throws IOException, InterruptedException {
+        return send(request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+    }
+
+    private Result send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return new Result("HTTP_" + response.statusCode(), null);
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        JsonNode errorCode = body.get("errorCode");
+        return errorCode != null && !errorCode.isNull()
+                ? new Result(errorCode.asText(), body)
+                : new Result(LatencyReport.SUCCESS, body);
+    }
+
+    static class Result {
+        final String outcome;
+        final JsonNode body;
+
+        Result(String outcome, JsonNode body) {
+            this.outcome = outcome;
+            this.body = body;
+        }
+
+        boolean isSuccess() {
+            return LatencyReport.SUCCESS.equals(outcome);
+        }
+    }
+}
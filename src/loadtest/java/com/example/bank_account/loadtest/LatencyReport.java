@@ -0,0 +1,69 @@
+package com.example.bank_account.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * endpoint 와 결과(SUCCESS 또는 ErrorCode)별 지연 시간 기록
+ */
+class LatencyReport {
+    static final String SUCCESS = "SUCCESS";
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final ConcurrentHashMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    void record(String endpoint, String outcome, long latencyNanos) {
+        recorders.computeIfAbsent(endpoint + " " + outcome,
+                        key -> new Recorder(HIGHEST_TRACKABLE_NANOS, 3))
+                .recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    /**
+     * 워밍업 동안의 기록을 버린다
+     */
+    void reset() {
+        recorders.values().forEach(Recorder::reset);
+    }
+
+    Map<String, Histogram> snapshot() {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        recorders.forEach((key, recorder) -> histograms.put(key, recorder.getIntervalHistogram()));
+        return histograms;
+    }
+
+    static void print(Map<String, Histogram> histograms, double elapsedSeconds, PrintStream out) {
+        out.printf("%-50s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint / outcome", "count", "ops/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        histograms.forEach((key, histogram) -> out.printf(
+                "%-50s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                key,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / elapsedSeconds,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI));
+    }
+
+    static void write(Map<String, Histogram> histograms, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Path file = directory.resolve(entry.getKey()
+                    .replaceAll("[^A-Za-z0-9_]+", "_") + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.bank_account.loadtest;
+
+import com.example.bank_account.BankAccountApplication;
+import com.example.bank_account.loadtest.AccountPicker.SeededAccount;
+import com.example.bank_account.service.AccountService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 애플리케이션을 embedded Redis, H2 로 띄우고 REST API 에 동시 부하를 준다
+ *
+ * ./gradlew loadTest -Dloadtest.model=open -Dloadtest.rate=500 -Dloadtest.skew=1.1
+ */
+public class LoadTest {
+    private static final long SEED_USER_ID_START = 100_000L;
+    private static final int RECENT_TRANSACTIONS = 4096;
+    private static final int CANCEL_CANDIDATES = 10_000;
+    // 진행 중인 요청이 응답 timeout 까지 걸릴 수 있음
+    private static final long WORKER_STOP_TIMEOUT_MILLIS = 35_000L;
+
+    private static final String USE = "POST /transaction/use";
+    private static final String CANCEL = "POST /transaction/cancel";
+    private static final String QUERY = "GET /transaction/{id}";
+    private static final String ACCOUNT = "GET /account";
+
+    private final LoadTestOptions options;
+    private final BankAccountClient client;
+    private final AccountPicker accountPicker;
+    private final LatencyReport report = new LatencyReport();
+
+    // 거래 확인 대상
+    private final AtomicReferenceArray<String> recentTransactionIds
+            = new AtomicReferenceArray<>(RECENT_TRANSACTIONS);
+    private final AtomicLong recentCursor = new AtomicLong();
+    // 거래 취소 대상 (한 번만 취소)
+    private final BlockingQueue<UsedTransaction> cancelCandidates
+            = new LinkedBlockingQueue<>(CANCEL_CANDIDATES);
+
+    private volatile boolean running = true;
+
+    LoadTest(LoadTestOptions options, BankAccountClient client, AccountPicker accountPicker) {
+        this.options = options;
+        this.client = client;
+        this.accountPicker = accountPicker;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions();
+        System.out.println("Load test: " + options);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BankAccountApplication.class)
+                // application.yml 보다 우선하도록 command line 인자로 전달
+                .run("--server.port=0",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--logging.level.root=WARN");
+        try {
+            List<SeededAccount> accounts = seed(context, options);
+            String baseUrl = "http://localhost:"
+                    + context.getEnvironment().getProperty("local.server.port");
+            new LoadTest(options, new BankAccountClient(baseUrl),
+                    new AccountPicker(accounts, options.skew)).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<SeededAccount> seed(
+            ConfigurableApplicationContext context, LoadTestOptions options) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        AccountService accountService = context.getBean(AccountService.class);
+        List<SeededAccount> accounts = new ArrayList<>();
+        for (long userId = SEED_USER_ID_START; userId < SEED_USER_ID_START + options.users; userId++) {
+            // data.sql 과 같은 방식으로 id 를 지정 (hibernate sequence 와 겹치지 않는 범위)
+            jdbcTemplate.update("insert into account_user(id, name, account_count, created_at, updated_at)"
+                    + " values (?, ?, 0, now(), now())", userId, "load-" + userId);
+            for (int i = 0; i < options.accountsPerUser; i++) {
+                accounts.add(new SeededAccount(userId, accountService
+                        .createAccount(userId, options.initialBalance).getAccountNumber()));
+            }
+        }
+        // hot account 가 한 사용자에게 몰리지 않도록
+        Collections.shuffle(accounts, new Random(0));
+        System.out.printf("Seeded %d users, %d accounts%n", options.users, accounts.size());
+        return accounts;
+    }
+
+    void run() throws InterruptedException, IOException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.threads; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> work(index), "load-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        Thread.sleep(options.warmup.toMillis());
+        report.reset();
+        long startNanos = System.nanoTime();
+        Thread.sleep(options.duration.toMillis());
+        Map<String, Histogram> histograms = report.snapshot();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(WORKER_STOP_TIMEOUT_MILLIS);
+        }
+
+        LatencyReport.print(histograms, elapsedSeconds, System.out);
+        if (options.outputDir != null) {
+            LatencyReport.write(histograms, Paths.get(options.outputDir));
+            System.out.println("Histograms written to " + options.outputDir);
+        }
+    }
+
+    private void work(int index) {
+        if (options.model == LoadTestOptions.Model.CLOSED) {
+            while (running) {
+                execute(System.nanoTime());
+            }
+            return;
+        }
+        // 스레드마다 전체 속도를 나눠 맡고, 요청 간격을 어긋나게 시작
+        long intervalNanos = (long) (options.threads * 1e9 / options.rate);
+        long next = System.nanoTime() + intervalNanos * index / options.threads;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            // 밀린 요청도 예정 시각부터 측정 (coordinated omission 보정)
+            execute(next);
+            next += intervalNanos;
+        }
+    }
+
+    private void execute(long intendedStartNanos) {
+        int pick = ThreadLocalRandom.current().nextInt(options.useWeight
+                + options.cancelWeight + options.queryWeight + options.accountWeight);
+        String endpoint = USE;
+        String outcome;
+        try {
+            if ((pick -= options.useWeight) < 0) {
+                outcome = useBalance();
+            } else if ((pick -= options.cancelWeight) < 0) {
+                UsedTransaction used = cancelCandidates.poll();
+                if (used != null) {
+                    endpoint = CANCEL;
+                    outcome = client.cancelBalance(used.transactionId,
+                            used.accountNumber, options.amount).outcome;
+                } else {
+                    outcome = useBalance();
+                }
+            } else if ((pick -= options.queryWeight) < 0) {
+                String transactionId = recentTransactionId();
+                if (transactionId != null) {
+                    endpoint = QUERY;
+                    outcome = client.queryTransaction(transactionId).outcome;
+                } else {
+                    outcome = useBalance();
+                }
+            } else {
+                endpoint = ACCOUNT;
+                outcome = client.getAccounts(accountPicker.next().userId).outcome;
+            }
+        } catch (IOException e) {
+            outcome = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return;
+        }
+        report.record(endpoint, outcome, System.nanoTime() - intendedStartNanos);
+    }
+
+    private String recentTransactionId() {
+        int recorded = (int) Math.min(recentCursor.get(), RECENT_TRANSACTIONS);
+        return recorded == 0 ? null : recentTransactionIds.get(
+                ThreadLocalRandom.current().nextInt(recorded));
+    }
+
+    private String useBalance() throws IOException, InterruptedException {
+        SeededAccount account = accountPicker.next();
+        BankAccountClient.Result result = client.useBalance(
+                account.userId, account.accountNumber, options.amount);
+        if (result.isSuccess()) {
+            String transactionId = result.body.get("transactionId").asText();
+            recentTransactionIds.set((int) (recentCursor.getAndIncrement() % RECENT_TRANSACTIONS),
+                    transactionId);
+            cancelCandidates.offer(new UsedTransaction(transactionId, account.accountNumber));
+        }
+        return result.outcome;
+    }
+
+    private static class UsedTransaction {
+        final String transactionId;
+        final String accountNumber;
+
+        UsedTransaction(String transactionId, String accountNumber) {
+            this.transactionId = transactionId;
+            this.accountNumber = accountNumber;
+        }
+    }
+}
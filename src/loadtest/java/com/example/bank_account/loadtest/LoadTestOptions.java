@@ -0,0 +1,61 @@
+package com.example.bank_account.loadtest;
+
+import java.time.Duration;
+
+/**
+ * 부하 테스트 설정 (-Dloadtest.xxx 시스템 프로퍼티)
+ */
+public class LoadTestOptions {
+    public enum Model {
+        // 스레드마다 응답을 받으면 바로 다음 요청 (동시 요청 수 고정)
+        CLOSED,
+        // 응답 시간과 상관없이 정해진 속도로 요청 (지연은 예정 시각부터 측정)
+        OPEN
+    }
+
+    final int users = intOption("users", 100);
+    final int accountsPerUser = intOption("accounts-per-user", 3);
+    final long initialBalance = longOption("initial-balance", 1_000_000_000L);
+    final long amount = longOption("amount", 100L);
+
+    final Model model = Model.valueOf(option("model", "closed").toUpperCase());
+    final int threads = intOption("threads", 16);
+    // OPEN 모델의 전체 요청 속도 (초당)
+    final int rate = intOption("rate", 200);
+    final Duration warmup = Duration.ofSeconds(longOption("warmup-seconds", 10));
+    final Duration duration = Duration.ofSeconds(longOption("duration-seconds", 60));
+
+    // 계좌 선택 분포의 Zipf 지수 (0 이면 균등, 클수록 일부 계좌에 요청이 몰림)
+    final double skew = Double.parseDouble(option("skew", "0.0"));
+
+    // 요청 비율
+    final int useWeight = intOption("mix.use", 50);
+    final int cancelWeight = intOption("mix.cancel", 10);
+    final int queryWeight = intOption("mix.query", 30);
+    final int accountWeight = intOption("mix.account", 10);
+
+    // 지정하면 endpoint/결과별 HdrHistogram 분포(.hgrm)를 저장
+    final String outputDir = option("output-dir", null);
+
+    private static String option(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+    }
+
+    private static long longOption(String name, long defaultValue) {
+        return Long.parseLong(option(name, String.valueOf(defaultValue)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "users=%d, accountsPerUser=%d, model=%s, threads=%d, rate=%d/s, "
+                        + "warmup=%ds, duration=%ds, skew=%.2f, mix(use/cancel/query/account)=%d/%d/%d/%d",
+                users, accountsPerUser, model, threads, rate,
+                warmup.getSeconds(), duration.getSeconds(), skew,
+                useWeight, cancelWeight, queryWeight, accountWeight);
+    }
+}
@@ -1,19 +1,51 @@
 package com.example.bank_account.Exception;
 
+import com.example.bank_account.jfr.AccountExceptionEvent;
 import com.example.bank_account.type.ErrorCode;
 import lombok.*;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @Getter
-@Setter
-@AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class AccountException extends RuntimeException{
+    // 예상된 업무 거절은 stack trace 없이 미리 만들어 둔 인스턴스를 재사용
+    private static final Map<ErrorCode, AccountException> REJECTIONS = new EnumMap<>(ErrorCode.class);
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            REJECTIONS.put(errorCode,
+                    new AccountException(errorCode, errorCode.getDescription(), false));
+        }
+    }
+
     private ErrorCode errorCode;
     private String errorMessage;
 
+    public AccountException(ErrorCode errorCode, String errorMessage) {
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+        AccountExceptionEvent.emit(errorCode, errorMessage);
+    }
+
     public AccountException(ErrorCode errorCode) {
+        this(errorCode, errorCode.getDescription());
+    }
+
+    private AccountException(ErrorCode errorCode, String errorMessage, boolean writableStackTrace) {
+        super(errorMessage, null, false, writableStackTrace);
         this.errorCode = errorCode;
-        this.errorMessage = errorCode.getDescription();
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * 잔액 부족, lock 사용중 같은 예상된 업무 거절
+     * stack trace 가 없는 공유 인스턴스이므로 발생 위치는 JFR 이벤트로 확인
+     */
+    public static AccountException rejected(ErrorCode errorCode) {
+        AccountExceptionEvent.emit(errorCode, errorCode.getDescription());
+        return REJECTIONS.get(errorCode);
     }
 }
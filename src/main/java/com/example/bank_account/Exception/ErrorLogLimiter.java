@@ -0,0 +1,51 @@
+package com.example.bank_account.Exception;
+
+import com.example.bank_account.type.ErrorCode;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ErrorCode 별로 일정 간격에 한 번만 로그를 남기도록 제한
+ * (거절이 몰릴 때 로그 자체가 병목이 되지 않도록)
+ */
+class ErrorLogLimiter {
+    static final long SKIP = -1;
+
+    private final long minIntervalNanos;
+    private final Map<ErrorCode, State> states = new EnumMap<>(ErrorCode.class);
+
+    ErrorLogLimiter(long minIntervalMillis) {
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        // 처음 발생한 거절은 바로 로그를 남기도록
+        long initial = System.nanoTime() - minIntervalNanos;
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            states.put(errorCode, new State(initial));
+        }
+    }
+
+    /**
+     * 로그를 남겨야 하면 지난 로그 이후 생략된 건수, 아니면 SKIP
+     */
+    long tryAcquire(ErrorCode errorCode) {
+        State state = states.get(errorCode);
+        long now = System.nanoTime();
+        long last = state.lastLoggedAt.get();
+        if (now - last < minIntervalNanos || !state.lastLoggedAt.compareAndSet(last, now)) {
+            state.suppressed.incrementAndGet();
+            return SKIP;
+        }
+        return state.suppressed.getAndSet(0);
+    }
+
+    private static class State {
+        private final AtomicLong lastLoggedAt;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private State(long lastLoggedAt) {
+            this.lastLoggedAt = new AtomicLong(lastLoggedAt);
+        }
+    }
+}
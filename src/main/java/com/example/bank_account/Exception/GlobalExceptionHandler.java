@@ -2,40 +2,96 @@ package com.example.bank_account.Exception;
 
 import com.example.bank_account.dto.ErrorResponse;
 import com.example.bank_account.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 기본 메시지의 ErrorResponse 는 미리 직렬화한 응답을 재사용하고
+ * 업무 거절 로그는 ErrorCode 별로 간격을 두고 남긴다
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    static final String ERROR_METRIC = "account.errors";
+
+    private final ObjectMapper objectMapper;
+    private final ErrorLogLimiter errorLogLimiter;
+    private final Map<ErrorCode, Counter> errorCounters = new EnumMap<>(ErrorCode.class);
+    private final Map<ErrorCode, ResponseEntity<byte[]>> errorResponses = new EnumMap<>(ErrorCode.class);
+
+    public GlobalExceptionHandler(
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${error-log.min-interval-millis:1000}") long minLogIntervalMillis
+    ) throws JsonProcessingException {
+        this.objectMapper = objectMapper;
+        this.errorLogLimiter = new ErrorLogLimiter(minLogIntervalMillis);
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            errorCounters.put(errorCode,
+                    meterRegistry.counter(ERROR_METRIC, "errorCode", errorCode.name()));
+            errorResponses.put(errorCode,
+                    serialize(new ErrorResponse(errorCode, errorCode.getDescription())));
+        }
+    }
 
     @ExceptionHandler(AccountException.class)
-    public ErrorResponse handleAccountException (AccountException e) {
-        log.error("{} is occurred.", e.getErrorCode());
-        return new ErrorResponse(e.getErrorCode(), e.getErrorMessage());
+    public ResponseEntity<byte[]> handleAccountException (AccountException e) throws JsonProcessingException {
+        long suppressed = errorLogLimiter.tryAcquire(e.getErrorCode());
+        if (suppressed != ErrorLogLimiter.SKIP) {
+            log.error("{} is occurred. (suppressed : {})", e.getErrorCode(), suppressed);
+        }
+        return errorResponse(e.getErrorCode(), e.getErrorMessage());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ErrorResponse handleMethodArgumentNotValidException (MethodArgumentNotValidException e) {
-        log.error("MethodArgumentNotValidException is occurred.", e);
-        return new ErrorResponse(ErrorCode.INVALID_REQUEST,
+    public ResponseEntity<byte[]> handleMethodArgumentNotValidException (MethodArgumentNotValidException e) throws JsonProcessingException {
+        long suppressed = errorLogLimiter.tryAcquire(ErrorCode.INVALID_REQUEST);
+        if (suppressed != ErrorLogLimiter.SKIP) {
+            log.error("MethodArgumentNotValidException is occurred. (suppressed : {})", suppressed, e);
+        }
+        return errorResponse(ErrorCode.INVALID_REQUEST,
                 ErrorCode.INVALID_REQUEST.getDescription());
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
-    public ErrorResponse handleDataIntegrityViolationException (DataIntegrityViolationException e){
+    public ResponseEntity<byte[]> handleDataIntegrityViolationException (DataIntegrityViolationException e) throws JsonProcessingException {
         log.error("DataIntegrityViolationException is occurred.", e);
-        return new ErrorResponse(ErrorCode.INVALID_REQUEST,
+        return errorResponse(ErrorCode.INVALID_REQUEST,
                 ErrorCode.INVALID_REQUEST.getDescription());
     }
 
     @ExceptionHandler(Exception.class)
-    public ErrorResponse handleException (Exception e) {
+    public ResponseEntity<byte[]> handleException (Exception e) throws JsonProcessingException {
         log.error("Exception is occurred.", e);
-        return new ErrorResponse(ErrorCode.INTERNAL_SERVER_ERROR,
+        return errorResponse(ErrorCode.INTERNAL_SERVER_ERROR,
                 ErrorCode.INTERNAL_SERVER_ERROR.getDescription());
     }
+
+    private ResponseEntity<byte[]> errorResponse(ErrorCode errorCode, String errorMessage)
+            throws JsonProcessingException {
+        errorCounters.get(errorCode).increment();
+        if (errorCode.getDescription().equals(errorMessage)) {
+            return errorResponses.get(errorCode);
+        }
+        return serialize(new ErrorResponse(errorCode, errorMessage));
+    }
+
+    private ResponseEntity<byte[]> serialize(ErrorResponse errorResponse) throws JsonProcessingException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(objectMapper.writeValueAsBytes(errorResponse));
+    }
 }
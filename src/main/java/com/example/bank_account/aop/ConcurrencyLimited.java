@@ -0,0 +1,16 @@
+package com.example.bank_account.aop;
+
+import com.example.bank_account.type.RequestType;
+
+import java.lang.annotation.*;
+
+/**
+ * 조회(READ)/변경(WRITE) 별 동시 처리 한도를 넘으면 바로 거절
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface ConcurrencyLimited {
+    RequestType value();
+}
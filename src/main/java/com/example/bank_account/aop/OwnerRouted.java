@@ -0,0 +1,14 @@
+package com.example.bank_account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * cluster 모드에서 요청 body 의 accountNumber 담당 서버(owner)로 전달해서 처리
+ * (담당 서버 안의 lock 만으로 계좌 변경을 직렬화)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface OwnerRouted {
+}
@@ -0,0 +1,14 @@
+package com.example.bank_account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * rate-limit.endpoints.{value} 설정으로 사용자/계좌별 요청 수 제한
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface RateLimited {
+    String value();
+}
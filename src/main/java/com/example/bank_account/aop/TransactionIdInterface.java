@@ -0,0 +1,5 @@
+package com.example.bank_account.aop;
+
+public interface TransactionIdInterface {
+    String getTransactionId();
+}
@@ -0,0 +1,14 @@
+package com.example.bank_account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * velocity 설정으로 계좌/사용자별 최근 거래 건수와 금액 확인
+ * (UserIdInterface, AccountLockIdInterface, AmountInterface 인자 사용)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface VelocityChecked {
+}
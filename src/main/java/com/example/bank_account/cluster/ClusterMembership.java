@@ -0,0 +1,205 @@
+package com.example.bank_account.cluster;
+
+import com.example.bank_account.config.ClusterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 클러스터 구성원 관리와 계좌 담당 서버(owner) 계산
+ * 각 서버는 Redis hash 에 주소와 heartbeat 시각을 남기고, 살아있는 서버로 ring 을 만든다
+ * ring 이 바뀌면 새로 맡은 계좌는 rebalance-grace 동안 처리하지 않는다 (isSettled)
+ * 자기 heartbeat 가 node-timeout 넘게 실패하면 다른 서버가 이미 ring 에서 뺐을 수 있으므로
+ * 어떤 계좌도 처리하지 않고, 다시 성공하면 새로 들어온 것처럼 grace 를 기다린다 (lease)
+ * cluster.enabled 가 false 이면 모든 계좌를 이 서버가 맡는다
+ */
+@Slf4j
+@Component
+public class ClusterMembership {
+    static final String NODES_KEY = "CLUSTER_NODES";
+    private static final String DELIMITER = " ";
+
+    private final ClusterProperties properties;
+    private final RedissonClient redissonClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LongSupplier clock;
+
+    private volatile View view = new View(ConsistentHashRing.EMPTY, ConsistentHashRing.EMPTY,
+            Long.MIN_VALUE, new HashMap<>());
+    private boolean settledPublished = true;
+    // 마지막으로 성공한 자기 heartbeat 시각
+    private volatile long leaseStartedAt = Long.MIN_VALUE;
+    private ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public ClusterMembership(
+            ClusterProperties properties,
+            RedissonClient redissonClient,
+            ApplicationEventPublisher eventPublisher) {
+        this(properties, redissonClient, eventPublisher, System::currentTimeMillis);
+    }
+
+    ClusterMembership(
+            ClusterProperties properties,
+            RedissonClient redissonClient,
+            ApplicationEventPublisher eventPublisher,
+            LongSupplier clock) {
+        this.properties = properties;
+        this.redissonClient = redissonClient;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String getNodeId() {
+        return properties.getNodeId();
+    }
+
+    @PostConstruct
+    public void join() {
+        if (!isEnabled()) {
+            return;
+        }
+        refresh();
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 종료 시 바로 ring 에서 빠져 다른 서버가 timeout 을 기다리지 않도록
+     */
+    @PreDestroy
+    public void leave() {
+        if (heartbeat == null) {
+            return;
+        }
+        heartbeat.shutdownNow();
+        nodes().fastRemove(getNodeId());
+    }
+
+    public boolean isLocal(String accountNumber) {
+        return !isEnabled() || getNodeId().equals(view.ring.ownerOf(accountNumber));
+    }
+
+    /**
+     * 계좌를 지금 처리해도 되는지 - lease 가 유효하고,
+     * ring 변경 전부터 맡고 있었거나 grace 가 지났으면 true
+     */
+    public boolean isSettled(String accountNumber) {
+        if (!isEnabled()) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        if (!hasLease(now)) {
+            return false;
+        }
+        View current = view;
+        return current.isSettled(now, properties.getRebalanceGrace().toMillis())
+                || getNodeId().equals(current.stableRing.ownerOf(accountNumber));
+    }
+
+    private boolean hasLease(long now) {
+        return leaseStartedAt != Long.MIN_VALUE
+                && now - leaseStartedAt <= properties.getNodeTimeout().toMillis();
+    }
+
+    public String ownerOf(String accountNumber) {
+        return view.ring.ownerOf(accountNumber);
+    }
+
+    public String urlOf(String nodeId) {
+        return view.urls.get(nodeId);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Cluster heartbeat failed", e);
+        }
+    }
+
+    synchronized void refresh() {
+        long now = clock.getAsLong();
+        RMap<String, String> nodes = nodes();
+        nodes.fastPut(getNodeId(), properties.getAdvertiseUrl() + DELIMITER + now);
+        // lease 가 끊긴 동안 다른 서버가 계좌를 맡았을 수 있다
+        boolean rejoined = !hasLease(now);
+        leaseStartedAt = now;
+
+        Map<String, String> urls = new HashMap<>();
+        for (Map.Entry<String, String> node : nodes.readAllMap().entrySet()) {
+            int index = node.getValue().lastIndexOf(DELIMITER);
+            long lastHeartbeat = Long.parseLong(node.getValue().substring(index + 1));
+            if (now - lastHeartbeat <= properties.getNodeTimeout().toMillis()) {
+                urls.put(node.getKey(), node.getValue().substring(0, index));
+            } else {
+                // 그 사이 heartbeat 가 갱신되었으면 지우지 않음
+                nodes.remove(node.getKey(), node.getValue());
+            }
+        }
+
+        View current = view;
+        long grace = properties.getRebalanceGrace().toMillis();
+        if (rejoined || !Objects.equals(urls.keySet(), current.ring.getNodeIds())) {
+            ConsistentHashRing ring = ConsistentHashRing.of(urls.keySet(), properties.getVirtualNodes());
+            // 연달아 바뀌면 마지막으로 grace 를 채운 ring 을 기준으로 판단
+            ConsistentHashRing stableRing = rejoined ? ConsistentHashRing.EMPTY
+                    : current.isSettled(now, grace) ? current.ring : current.stableRing;
+            view = new View(ring, stableRing, now, urls);
+            settledPublished = false;
+            log.info("Cluster membership changed {} -> {}", current.ring.getNodeIds(), ring.getNodeIds());
+        } else {
+            view = new View(current.ring, current.stableRing, current.changedAt, urls);
+        }
+
+        if (!settledPublished && view.isSettled(now, grace)) {
+            settledPublished = true;
+            eventPublisher.publishEvent(new OwnershipSettledEvent(view.ring.getNodeIds()));
+        }
+    }
+
+    private RMap<String, String> nodes() {
+        return redissonClient.getMap(NODES_KEY);
+    }
+
+    private static class View {
+        private final ConsistentHashRing ring;
+        private final ConsistentHashRing stableRing;
+        private final long changedAt;
+        private final Map<String, String> urls;
+
+        private View(ConsistentHashRing ring, ConsistentHashRing stableRing,
+                     long changedAt, Map<String, String> urls) {
+            this.ring = ring;
+            this.stableRing = stableRing;
+            this.changedAt = changedAt;
+            this.urls = urls;
+        }
+
+        private boolean isSettled(long now, long grace) {
+            return changedAt == Long.MIN_VALUE || now - changedAt >= grace;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.bank_account.cluster;
+
+import com.example.bank_account.aop.OwnerRouted;
+import com.example.bank_account.dto.ErrorResponse;
+import com.example.bank_account.type.ErrorCode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * cluster 모드에서 @OwnerRouted 요청을 계좌 담당 서버로 전달
+ * 담당 서버가 아니면 요청을 그대로 전달하고 응답(상태, body, 주요 header)을 돌려준다
+ * 전달받은 요청은 다시 전달하지 않고, ring 변경이 퍼지는 중이면 ACCOUNT_REBALANCING 으로 재시도를 요청
+ */
+@Slf4j
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+    static final String FORWARDED_BY_HEADER = "X-Cluster-Forwarded-By";
+    static final String NODE_HEADER = "X-Cluster-Node";
+    private static final String ACCOUNT_NUMBER_FIELD = "accountNumber";
+    private static final List<String> REQUEST_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, "Prefer");
+    private static final List<String> RESPONSE_HEADERS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION, "Server-Timing", NODE_HEADER);
+
+    private final ClusterMembership clusterMembership;
+    private final HandlerMapping handlerMapping;
+    private final ObjectMapper objectMapper;
+    private final Duration forwardTimeout;
+    private final HttpClient httpClient;
+
+    public ClusterRoutingFilter(
+            ClusterMembership clusterMembership,
+            HandlerMapping handlerMapping,
+            ObjectMapper objectMapper,
+            Duration forwardTimeout) {
+        this.clusterMembership = clusterMembership;
+        this.handlerMapping = handlerMapping;
+        this.objectMapper = objectMapper;
+        this.forwardTimeout = forwardTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(forwardTimeout)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!isOwnerRouted(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String accountNumber = getAccountNumber(cachedRequest.body);
+        if (accountNumber == null) {
+            // 검증 실패 응답은 이 서버에서
+            filterChain.doFilter(cachedRequest, response);
+        } else if (clusterMembership.isLocal(accountNumber)) {
+            if (!clusterMembership.isSettled(accountNumber)) {
+                writeError(response, ErrorCode.ACCOUNT_REBALANCING);
+                return;
+            }
+            response.setHeader(NODE_HEADER, clusterMembership.getNodeId());
+            filterChain.doFilter(cachedRequest, response);
+        } else if (request.getHeader(FORWARDED_BY_HEADER) != null) {
+            writeError(response, ErrorCode.ACCOUNT_REBALANCING);
+        } else {
+            forward(cachedRequest, response, clusterMembership.ownerOf(accountNumber));
+        }
+    }
+
+    private boolean isOwnerRouted(HttpServletRequest request) {
+        try {
+            // DispatcherServlet 밖에서 handler 를 찾으려면 path 를 먼저 parse 해야 함
+            if (!ServletRequestPathUtils.hasParsedRequestPath(request)) {
+                ServletRequestPathUtils.parseAndCache(request);
+            }
+            HandlerExecutionChain chain = handlerMapping.getHandler(request);
+            return chain != null
+                    && chain.getHandler() instanceof HandlerMethod
+                    && ((HandlerMethod) chain.getHandler()).hasMethodAnnotation(OwnerRouted.class);
+        } catch (Exception e) {
+            log.warn("Failed to find handler for {}", request.getRequestURI(), e);
+            return false;
+        }
+    }
+
+    private String getAccountNumber(byte[] body) {
+        try {
+            JsonNode accountNumber = objectMapper.readTree(body).get(ACCOUNT_NUMBER_FIELD);
+            return accountNumber != null && accountNumber.isTextual() ? accountNumber.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void forward(CachedBodyRequest request, HttpServletResponse response, String ownerId)
+            throws IOException {
+        String ownerUrl = ownerId != null ? clusterMembership.urlOf(ownerId) : null;
+        if (ownerUrl == null) {
+            writeError(response, ErrorCode.ACCOUNT_OWNER_UNAVAILABLE);
+            return;
+        }
+        String query = request.getQueryString();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                        URI.create(ownerUrl + request.getRequestURI() + (query != null ? "?" + query : "")))
+                .timeout(forwardTimeout)
+                .method(request.getMethod(), HttpRequest.BodyPublishers.ofByteArray(request.body))
+                .header(FORWARDED_BY_HEADER, clusterMembership.getNodeId());
+        for (String header : REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+
+        HttpResponse<byte[]> ownerResponse;
+        try {
+            ownerResponse = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            log.error("Failed to forward {} to {}", request.getRequestURI(), ownerId, e);
+            writeError(response, ErrorCode.ACCOUNT_OWNER_UNAVAILABLE);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, ErrorCode.ACCOUNT_OWNER_UNAVAILABLE);
+            return;
+        }
+        response.setStatus(ownerResponse.statusCode());
+        for (String header : RESPONSE_HEADERS) {
+            ownerResponse.headers().firstValue(header)
+                    .ifPresent(value -> response.setHeader(header, value));
+        }
+        response.getOutputStream().write(ownerResponse.body());
+    }
+
+    /**
+     * GlobalExceptionHandler 와 같은 형식 (HTTP 200 + ErrorResponse)
+     */
+    private void writeError(HttpServletResponse response, ErrorCode errorCode) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(errorCode, errorCode.getDescription()));
+    }
+
+    /**
+     * accountNumber 를 읽은 뒤에도 controller 가 body 를 다시 읽을 수 있도록
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bank_account.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 계좌번호 -> 담당 서버 consistent hash ring
+ * 서버마다 virtualNodes 개의 점을 ring 에 두어 고르게 나누고,
+ * 서버가 추가/제거될 때는 그 서버의 구간에 속한 계좌만 옮겨간다
+ */
+public class ConsistentHashRing {
+    public static final ConsistentHashRing EMPTY = new ConsistentHashRing(new TreeMap<>(), Collections.emptySet());
+
+    private final NavigableMap<Long, String> ring;
+    private final Set<String> nodeIds;
+
+    private ConsistentHashRing(NavigableMap<Long, String> ring, Set<String> nodeIds) {
+        this.ring = ring;
+        this.nodeIds = nodeIds;
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodeIds, int virtualNodes) {
+        NavigableMap<Long, String> ring = new TreeMap<>();
+        for (String nodeId : new TreeSet<>(nodeIds)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // 점이 겹치면 id 가 작은 서버가 가진다 (모든 서버가 같은 ring 을 만들도록)
+                ring.putIfAbsent(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        return new ConsistentHashRing(ring, Collections.unmodifiableSet(new TreeSet<>(nodeIds)));
+    }
+
+    /**
+     * 서버가 없으면 null
+     */
+    public String ownerOf(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public Set<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * FNV-1a 64bit 에 MurmurHash3 finalizer 를 더해 비슷한 문자열도 ring 에 고르게 퍼지도록
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
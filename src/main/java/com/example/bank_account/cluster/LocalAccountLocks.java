@@ -0,0 +1,54 @@
+package com.example.bank_account.cluster;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 담당 서버 안에서만 쓰는 계좌별 lock
+ * 기다리거나 잡고 있는 thread 가 없으면 map 에서 지운다
+ */
+public class LocalAccountLocks {
+    private final ConcurrentHashMap<String, Entry> locks = new ConcurrentHashMap<>();
+
+    public boolean tryLock(String accountNumber, long timeout, TimeUnit unit) throws InterruptedException {
+        Entry entry = locks.compute(accountNumber, (key, value) -> {
+            Entry current = value == null ? new Entry() : value;
+            current.references++;
+            return current;
+        });
+        boolean locked = false;
+        try {
+            locked = entry.lock.tryLock(timeout, unit);
+            return locked;
+        } finally {
+            if (!locked) {
+                release(accountNumber);
+            }
+        }
+    }
+
+    public void unlock(String accountNumber) {
+        Entry entry = locks.get(accountNumber);
+        if (entry == null) {
+            throw new IllegalMonitorStateException("Not locked: " + accountNumber);
+        }
+        entry.lock.unlock();
+        release(accountNumber);
+    }
+
+    int size() {
+        return locks.size();
+    }
+
+    private void release(String accountNumber) {
+        locks.computeIfPresent(accountNumber,
+                (key, value) -> --value.references == 0 ? null : value);
+    }
+
+    private static class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        // compute 안에서만 변경
+        private int references;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.bank_account.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * ring 변경 후 rebalance-grace 가 지나 새로 맡은 계좌를 처리할 수 있게 되었을 때
+ */
+@Getter
+@AllArgsConstructor
+public class OwnershipSettledEvent {
+    private final Set<String> nodeIds;
+}
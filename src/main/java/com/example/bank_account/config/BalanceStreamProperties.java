@@ -0,0 +1,25 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 잔액 변경 SSE stream 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("balance-stream")
+public class BalanceStreamProperties {
+    private int maxSubscribers = 10000;
+    // 구독자별로 보내지 못하고 쌓아둘 수 있는 event 수 (넘으면 느린 구독자로 보고 연결을 끊는다)
+    private int bufferSize = 256;
+    // Last-Event-ID 로 다시 연결할 때 이어서 보낼 수 있도록 서버마다 기억하는 최근 거래 수
+    private int replaySize = 10000;
+    private int dispatchThreads = 4;
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    // 연결 최대 시간 (끊기면 client 가 Last-Event-ID 로 다시 연결)
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,28 @@
+package com.example.bank_account.config;
+
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.cluster.ClusterRoutingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+    public FilterRegistrationBean<ClusterRoutingFilter> clusterRoutingFilter(
+            ClusterMembership clusterMembership,
+            ClusterProperties properties,
+            ObjectMapper objectMapper,
+            @Qualifier("requestMappingHandlerMapping") HandlerMapping handlerMapping) {
+        return new FilterRegistrationBean<>(new ClusterRoutingFilter(
+                clusterMembership, handlerMapping, objectMapper, properties.getForwardTimeout()));
+    }
+}
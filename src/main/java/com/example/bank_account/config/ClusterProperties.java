@@ -0,0 +1,29 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * 계좌 담당 서버(owner) 라우팅 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("cluster")
+public class ClusterProperties {
+    private boolean enabled = false;
+    private String nodeId = UUID.randomUUID().toString();
+    // 다른 서버가 요청을 전달할 주소 (예: http://10.0.0.1:8080)
+    private String advertiseUrl;
+    private int virtualNodes = 128;
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+    // 이 시간 동안 heartbeat 가 없으면 ring 에서 뺀다
+    private Duration nodeTimeout = Duration.ofSeconds(5);
+    // ring 이 바뀐 뒤 새로 맡은 계좌를 처리하기 전까지 기다리는 시간
+    // (이전 담당 서버가 변경을 알아채고 처리 중인 요청을 끝낼 때까지)
+    private Duration rebalanceGrace = Duration.ofSeconds(15);
+    private Duration forwardTimeout = Duration.ofSeconds(15);
+}
@@ -0,0 +1,33 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 조회(read)/변경(write) 별 동시 처리 한도 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private Limit read = new Limit();
+    private Limit write = new Limit();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 100;
+        // 평소 지연의 몇 배까지를 정상으로 볼지
+        private double rttTolerance = 1.5;
+        // 평소 지연을 계산할 요청 수
+        private int longWindow = 600;
+        // 새 한도를 반영하는 비율
+        private double smoothing = 0.2;
+        // 과부하로 실패한 요청이 있을 때 한도를 줄이는 비율
+        private double backoffRatio = 0.9;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 계좌별 하루 사용 한도와 일별 합계 캐시 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("account.daily-spend")
+public class DailySpendProperties {
+    // 하루 사용(사용 - 취소) 한도, 0 이하이면 제한하지 않는다
+    private long limit = 0L;
+    private long maximumSize = 10000L;
+    // 다른 서버에서 갱신된 합계는 이 시간이 지나야 다시 읽는다
+    private Duration expireAfterWrite = Duration.ofSeconds(60);
+}
@@ -0,0 +1,9 @@
+package com.example.bank_account.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HoldProperties.class)
+public class HoldConfiguration {
+}
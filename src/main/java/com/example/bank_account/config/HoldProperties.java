@@ -0,0 +1,22 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 승인(authorize) 유효 시간과 만료 처리용 timer wheel 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("account.hold")
+public class HoldProperties {
+    private Duration ttl = Duration.ofMinutes(10);
+    // 만료 시각은 최대 tick 만큼 늦게 처리될 수 있다
+    private Duration tick = Duration.ofMillis(100);
+    private int wheelSize = 512;
+    // 만료 처리 실패 시 다시 시도할 때까지의 시간
+    private Duration retryDelay = Duration.ofSeconds(10);
+}
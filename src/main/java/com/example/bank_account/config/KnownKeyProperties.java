@@ -0,0 +1,21 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 존재하는 계좌번호/거래 아이디 Bloom filter 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("known-keys")
+public class KnownKeyProperties {
+    private boolean enabled = true;
+    // 예상 개수보다 많아지면 오답(없는 key 를 통과시키는 경우)이 늘어나므로 재시작 시 늘린다
+    private long expectedAccounts = 1_000_000L;
+    private long expectedTransactions = 10_000_000L;
+    private double falsePositiveRate = 0.01;
+    // 다른 서버에서 만든 key 를 Redis pub/sub 으로 받는다
+    private boolean broadcast = true;
+}
@@ -0,0 +1,20 @@
+package com.example.bank_account.config;
+
+import com.example.bank_account.eventlog.SegmentedEventLog;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public SegmentedEventLog transactionEventLog(OutboxProperties properties) throws IOException {
+        return new SegmentedEventLog(Paths.get(properties.getLogDirectory()),
+                properties.getSegmentSize().toBytes(), properties.getRetention());
+    }
+}
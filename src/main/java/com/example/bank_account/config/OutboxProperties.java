@@ -0,0 +1,28 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 거래 outbox 를 옮겨 담는 relay 와 로컬 event log 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties("outbox")
+public class OutboxProperties {
+    // 한 번에 읽어서 event log 에 기록할 최대 outbox 수
+    private int batchSize = 500;
+    // 옮길 outbox 가 없을 때 다시 확인하기까지의 시간
+    private Duration pollInterval = Duration.ofMillis(200);
+    private String logDirectory = "build/event-log";
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    // 마지막 기록 후 이 시간이 지난 segment 는 새 segment 로 넘어갈 때 지운다
+    private Duration retention = Duration.ofDays(7);
+    // cluster 모드에서 relay 할 서버 - 비어 있으면 ring 에서 RELAY_KEY 를 맡은 서버가 하므로
+    // 담당 서버가 바뀔 때마다 event log 가 서버별 디렉터리에 나뉘어 쌓인다
+    private String relayNodeId;
+}
@@ -0,0 +1,33 @@
+package com.example.bank_account.config;
+
+import com.example.bank_account.service.LocalRateLimiter;
+import com.example.bank_account.service.RateLimiter;
+import com.example.bank_account.service.RedisRateLimiter;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfiguration {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties, RedissonClient redissonClient) {
+        if (properties.getMode() == RateLimitProperties.Mode.REDIS) {
+            return new RedisRateLimiter(redissonClient);
+        }
+        // 쓰이지 않는 bucket 은 가득 찬 뒤에 버려도 결과가 같다
+        long millisToFull = properties.getEndpoints().values().stream()
+                .flatMap(endpoint -> Stream.of(endpoint.getUser(), endpoint.getAccount()))
+                .filter(Objects::nonNull)
+                .mapToLong(RateLimitProperties.Bucket::getMillisToFull)
+                .max().orElse(0L);
+        return new LocalRateLimiter(properties.getMaximumBuckets(),
+                Duration.ofMillis(Math.max(millisToFull, 1000L)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * endpoint 별 token bucket 설정
+ * 사용자(user), 계좌(account) bucket 중 설정된 것만 적용
+ */
+@Getter
+@Setter
+@ConfigurationProperties("rate-limit")
+public class RateLimitProperties {
+    public enum Mode {
+        // 서버마다 따로 bucket 을 둔다
+        LOCAL,
+        // 모든 서버가 Redis 의 bucket 을 공유
+        REDIS
+    }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.LOCAL;
+    private long maximumBuckets = 100_000;
+    private Map<String, Endpoint> endpoints = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private Bucket user;
+        private Bucket account;
+    }
+
+    @Getter
+    @Setter
+    public static class Bucket {
+        private long capacity;
+        private double refillPerSecond;
+
+        /**
+         * 비어있는 bucket 이 가득 찰 때까지 걸리는 시간
+         */
+        public long getMillisToFull() {
+            return (long) Math.ceil(capacity * 1000 / refillPerSecond);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.bank_account.config;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,8 +16,12 @@ public class RedisRepositoryConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
+    /**
+     * embedded Redis (local-redis.enabled) 가 있으면 먼저 띄운 뒤 연결
+     */
     @Bean
-    public RedissonClient redissonClient () {
+    public RedissonClient redissonClient (ObjectProvider<LocalRedisConfig> localRedisConfig) {
+        localRedisConfig.ifAvailable(config -> { });
         Config config = new Config();
         config.useSingleServer().setAddress("redis://"+redisHost+":"+redisPort);
         return Redisson.create(config);
@@ -0,0 +1,40 @@
+package com.example.bank_account.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * readOnly 트랜잭션은 replica 로, 나머지는 primary 로 보낸다
+ * LazyConnectionDataSourceProxy 로 감싸서 트랜잭션 속성이 정해진 뒤에 커넥션을 얻도록 한다
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY =
+            ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * readOnly 트랜잭션이라도 primary 에서 읽어야 할 때 (read-your-writes)
+     */
+    public static <T> T onPrimary(Supplier<T> reader) {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !FORCE_PRIMARY.get()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
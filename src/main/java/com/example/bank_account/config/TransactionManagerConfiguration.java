@@ -0,0 +1,25 @@
+package com.example.bank_account.config;
+
+import com.example.bank_account.timing.TimedJpaTransactionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Boot 기본 JpaTransactionManager 대신 commit 시간을 기록하는 transaction manager
+ */
+@Configuration
+public class TransactionManagerConfiguration {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new TimedJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(
+                customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bank_account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계좌(account), 사용자(user)별 최근 거래 건수/금액 한도
+ * 한도를 넘으면 action 에 따라 거절(reject)하거나 기록만(flag) 한다
+ */
+@Getter
+@Setter
+@ConfigurationProperties("velocity")
+public class VelocityProperties {
+    public enum Action {
+        REJECT,
+        FLAG
+    }
+
+    private boolean enabled = true;
+    private long maximumKeys = 100_000;
+    private List<Window> account = new ArrayList<>();
+    private List<Window> user = new ArrayList<>();
+
+    /**
+     * 가장 긴 window 동안 거래가 없던 key 는 메모리에서 지운다
+     */
+    public Duration getIdleTimeout() {
+        Duration idleTimeout = Duration.ofMinutes(1);
+        for (List<Window> windows : List.of(account, user)) {
+            for (Window window : windows) {
+                if (window.getSize().compareTo(idleTimeout) > 0) {
+                    idleTimeout = window.getSize();
+                }
+            }
+        }
+        return idleTimeout;
+    }
+
+    @Getter
+    @Setter
+    public static class Window {
+        private String name;
+        private Duration size = Duration.ofMinutes(1);
+        // window 를 나누는 시간 칸 수 (한도 판단 오차는 size / buckets 이내)
+        private int buckets = 12;
+        // 0 이하이면 보지 않는다
+        private long maxCount;
+        private long maxAmount;
+        private Action action = Action.REJECT;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.bank_account.config;
+
+import com.example.bank_account.timing.ServerTimingInterceptor;
+import com.example.bank_account.timing.TimedValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+    private final javax.validation.Validator validator;
+    private final long logThresholdMillis;
+
+    public WebMvcConfiguration(
+            javax.validation.Validator validator,
+            @Value("${server-timing.log-threshold-millis:-1}") long logThresholdMillis) {
+        this.validator = validator;
+        this.logThresholdMillis = logThresholdMillis;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ServerTimingInterceptor(logThresholdMillis));
+    }
+
+    @Override
+    public Validator getValidator() {
+        return new TimedValidator(validator);
+    }
+}
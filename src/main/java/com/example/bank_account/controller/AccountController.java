@@ -1,15 +1,30 @@
 package com.example.bank_account.controller;
 
+import com.example.bank_account.aop.ConcurrencyLimited;
+import com.example.bank_account.aop.RateLimited;
 import com.example.bank_account.dto.AccountInfo;
 import com.example.bank_account.domain.Account;
 import com.example.bank_account.dto.CreateAccount;
+import com.example.bank_account.dto.DailySpendDto;
 import com.example.bank_account.dto.DeleteAccount;
+import com.example.bank_account.dto.QueryAccounts;
+import com.example.bank_account.dto.QueryBalanceResponse;
 import com.example.bank_account.service.AccountService;
+import com.example.bank_account.service.BalanceHistoryService;
+import com.example.bank_account.service.BalanceStreamBroadcaster;
+import com.example.bank_account.service.DailySpendService;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.RequestType;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,14 +33,22 @@ import java.util.stream.Collectors;
  * 1. 계좌 생성
  * 2. 계좌 해지
  * 3. 계좌 확인
+ * 4. 잔액 변경 구독 (SSE)
+ * 5. 특정 시각의 잔액 조회
+ * 6. 일별 사용 합계 조회
  */
 
 @RestController
 @RequiredArgsConstructor
 public class AccountController {
     private final AccountService accountService;
+    private final BalanceStreamBroadcaster balanceStreamBroadcaster;
+    private final BalanceHistoryService balanceHistoryService;
+    private final DailySpendService dailySpendService;
 
     @PostMapping("/account")
+    @RateLimited("account-create")
+    @ConcurrencyLimited(RequestType.WRITE)
     public CreateAccount.Response createAccount (
             @RequestBody @Valid CreateAccount.Request request
             ) {
@@ -34,6 +57,8 @@ public class AccountController {
     }
 
     @DeleteMapping("/account")
+    @RateLimited("account-delete")
+    @ConcurrencyLimited(RequestType.WRITE)
     public DeleteAccount.Response deleteAccount (
             @RequestBody @Valid DeleteAccount.Request request
     ) {
@@ -43,6 +68,8 @@ public class AccountController {
     }
 
     @GetMapping("/account")
+    @RateLimited("account-get")
+    @ConcurrencyLimited(RequestType.READ)
     public List<AccountInfo> getAccountsByUserId (
             @RequestParam("user_id") Long userId
     ) {
@@ -53,12 +80,65 @@ public class AccountController {
                         .build()).collect(Collectors.toList());
     }
 
+    /**
+     * 여러 사용자의 계좌를 한 번에 확인 (사용자 수와 상관없이 IN 조회 몇 번)
+     * 없는 사용자는 실패 응답 대신 notFoundUserIds 로 돌려준다
+     */
+    @PostMapping("/account/batch")
+    @ConcurrencyLimited(RequestType.READ)
+    public QueryAccounts.Response getAccountsByUserIds (
+            @RequestBody @Valid QueryAccounts.Request request
+    ) {
+        return QueryAccounts.Response.from(request.getUserIds(),
+                accountService.getAccountsByUserIds(request.getUserIds()));
+    }
+
+    /**
+     * 사용자(user_id) 또는 계좌(account_number)의 거래와 잔액 변경을 SSE 로 받는다
+     * 다시 연결할 때 Last-Event-ID 를 보내면 그 이후 event 부터 이어서 받는다
+     */
+    @GetMapping(value = "/account/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance (
+            @RequestParam(value = "user_id", required = false) Long userId,
+            @RequestParam(value = "account_number", required = false) String accountNumber,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        if ((userId == null) == (accountNumber == null)) {
+            return balanceStreamBroadcaster.reject(ErrorCode.INVALID_REQUEST);
+        }
+        return balanceStreamBroadcaster.subscribe(userId, accountNumber, lastEventId);
+    }
+
     @GetMapping("/account/{id}")
+    @ConcurrencyLimited(RequestType.READ)
     public Account getAccount (
             @PathVariable Long id
     ) {
         return accountService.getAccount(id);
     }
 
+    /**
+     * at(ISO 형식, 예: 2022-09-01T12:00:00) 시각의 잔액
+     */
+    @GetMapping("/account/{accountNumber}/balance")
+    @ConcurrencyLimited(RequestType.READ)
+    public QueryBalanceResponse getBalanceAt (
+            @PathVariable String accountNumber,
+            @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
+    ) {
+        return balanceHistoryService.getBalanceAt(accountNumber, at);
+    }
 
+    /**
+     * date(예: 2022-09-01) 하루의 사용/취소 합계, date 가 없으면 오늘
+     */
+    @GetMapping("/account/{accountNumber}/daily-spend")
+    @ConcurrencyLimited(RequestType.READ)
+    public DailySpendDto getDailySpend (
+            @PathVariable String accountNumber,
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        return dailySpendService.getDailySpend(accountNumber, date != null ? date : LocalDate.now());
+    }
 }
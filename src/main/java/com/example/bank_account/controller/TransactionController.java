@@ -2,22 +2,32 @@ package com.example.bank_account.controller;
 
 import com.example.bank_account.Exception.AccountException;
 import com.example.bank_account.aop.AccountLock;
-import com.example.bank_account.dto.CancelBalance;
-import com.example.bank_account.dto.QueryTransactionResponse;
-import com.example.bank_account.dto.TransactionDto;
-import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.aop.ConcurrencyLimited;
+import com.example.bank_account.aop.OwnerRouted;
+import com.example.bank_account.aop.RateLimited;
+import com.example.bank_account.aop.VelocityChecked;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.dto.*;
+import com.example.bank_account.service.BalanceMirrorService;
+import com.example.bank_account.service.HoldExpiryScheduler;
+import com.example.bank_account.service.PendingUseProcessor;
 import com.example.bank_account.service.TransactionService;
+import com.example.bank_account.timing.RequestTiming;
+import com.example.bank_account.type.RequestType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.net.URI;
 
 /**
  * 잔액 관련 컨트롤러
- * 1. 잔액 사용
+ * 1. 잔액 사용 (Prefer: respond-async 이면 접수만 하고 202)
  * 2. 잔액 사용 취소
  * 3. 거래 확인
+ * 4. 잔액 승인 / 승인 확정 / 승인 취소 (2단계 사용)
  */
 @Slf4j
 @RestController
@@ -25,17 +35,28 @@ import javax.validation.Valid;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final BalanceMirrorService balanceMirrorService;
+    private final HoldExpiryScheduler holdExpiryScheduler;
+    private final PendingUseProcessor pendingUseProcessor;
 
     @PostMapping("/transaction/use")
+    @OwnerRouted
+    @RateLimited("transaction-use")
+    @ConcurrencyLimited(RequestType.WRITE)
+    @VelocityChecked
     @AccountLock
     public UseBalance.Response useBalance(
             @Valid @RequestBody UseBalance.Request request
             ) throws InterruptedException {
 
         try {
+            long delayStart = System.nanoTime();
             Thread.sleep(5000L);
-            return UseBalance.Response.from(
-                    transactionService.useBalance(request.getUserId(),
+            RequestTiming.record(RequestTiming.Phase.DELAY, delayStart);
+            return UseBalance.Response.from(balanceMirrorService.isEnabled()
+                    ? balanceMirrorService.useBalance(request.getUserId(),
+                            request.getAccountNumber(), request.getAmount())
+                    : transactionService.useBalance(request.getUserId(),
                             request.getAccountNumber(), request.getAmount()));
         } catch (AccountException e) {
             log.error("Failed to use balance.");
@@ -46,15 +67,44 @@ public class TransactionController {
             throw e;
         }
     }
+    /**
+     * 비동기 잔액 사용 - 거래 아이디를 먼저 돌려주고 처리 결과는 거래 확인으로 조회
+     * lock 대기는 worker 가 하므로 요청 thread 를 붙잡지 않는다
+     * (Redis 잔액 mirror 사용 시에는 lock 없이 바로 끝나므로 동기로 처리)
+     */
+    @PostMapping(value = "/transaction/use", headers = "Prefer=respond-async")
+    @OwnerRouted
+    @RateLimited("transaction-use")
+    @ConcurrencyLimited(RequestType.WRITE)
+    @VelocityChecked
+    public ResponseEntity<UseBalance.Response> submitUseBalance(
+            @Valid @RequestBody UseBalance.Request request
+    ) {
+        if (balanceMirrorService.isEnabled()) {
+            return ResponseEntity.ok(UseBalance.Response.from(balanceMirrorService.useBalance(
+                    request.getUserId(), request.getAccountNumber(), request.getAmount())));
+        }
+        TransactionDto transaction = transactionService.submitUseBalance(request.getUserId(),
+                request.getAccountNumber(), request.getAmount());
+        pendingUseProcessor.enqueue(transaction.getAccountNumber(), transaction.getTransactionId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/transaction/" + transaction.getTransactionId()))
+                .body(UseBalance.Response.from(transaction));
+    }
+
     @PostMapping("/transaction/cancel")
+    @OwnerRouted
+    @RateLimited("transaction-cancel")
+    @ConcurrencyLimited(RequestType.WRITE)
     @AccountLock
     public CancelBalance.Response cancelBalance(
             @Valid @RequestBody CancelBalance.Request request
     ) {
 
         try {
-            return CancelBalance.Response.from(
-                    transactionService.cancelBalance(request.getTransactionId(),
+            return CancelBalance.Response.from(balanceMirrorService.isEnabled()
+                    ? cancelMirroredBalance(request)
+                    : transactionService.cancelBalance(request.getTransactionId(),
                             request.getAccountNumber(), request.getAmount()));
         } catch (AccountException e) {
             log.error("Failed to cancel balance.");
@@ -65,7 +115,76 @@ public class TransactionController {
             throw e;
         }
     }
+
+    /**
+     * 잔액 mirror 사용 시 취소 - 원래 거래의 취소 상태를 먼저 commit 하고 Redis 잔액을 되돌린다
+     * (Redis 를 먼저 바꾸면 DB 가 rollback 되어도 잔액이 남는다)
+     * 아직 DB 에 반영되지 않은 거래는 반영될 때까지 기다린다
+     */
+    private TransactionDto cancelMirroredBalance(CancelBalance.Request request) {
+        balanceMirrorService.awaitFlushed(request.getTransactionId());
+        Account account = transactionService.markCancelled(request.getTransactionId(),
+                request.getAccountNumber(), request.getAmount());
+        try {
+            return balanceMirrorService.cancelBalance(
+                    account, request.getAmount(), request.getTransactionId());
+        } catch (RuntimeException e) {
+            transactionService.unmarkCancelled(request.getTransactionId());
+            throw e;
+        }
+    }
+
+    /**
+     * 승인은 조건부 update 한 번이라 lock 을 짧게 잡고,
+     * 가맹점의 느린 처리는 승인과 확정 사이에서 lock 없이 진행된다
+     */
+    @PostMapping("/transaction/authorize")
+    @OwnerRouted
+    @RateLimited("transaction-authorize")
+    @ConcurrencyLimited(RequestType.WRITE)
+    @VelocityChecked
+    @AccountLock
+    public AuthorizeBalance.Response authorizeBalance(
+            @Valid @RequestBody AuthorizeBalance.Request request
+    ) {
+        HoldDto hold = transactionService.authorizeBalance(request.getUserId(),
+                request.getAccountNumber(), request.getAmount());
+        holdExpiryScheduler.schedule(hold.getHoldId(), hold.getExpiresAt());
+        return AuthorizeBalance.Response.from(hold);
+    }
+
+    @PostMapping("/transaction/capture")
+    @OwnerRouted
+    @RateLimited("transaction-capture")
+    @ConcurrencyLimited(RequestType.WRITE)
+    @AccountLock
+    public CaptureBalance.Response captureBalance(
+            @Valid @RequestBody CaptureBalance.Request request
+    ) {
+        CaptureBalance.Response response = CaptureBalance.Response.from(
+                transactionService.captureBalance(request.getHoldId(),
+                        request.getAccountNumber(), request.getAmount()));
+        holdExpiryScheduler.cancel(request.getHoldId());
+        return response;
+    }
+
+    /**
+     * 승인 취소는 잡아둔 금액을 줄이기만 하므로 lock 없이 처리
+     */
+    @PostMapping("/transaction/void")
+    @RateLimited("transaction-void")
+    @ConcurrencyLimited(RequestType.WRITE)
+    public VoidBalance.Response voidBalance(
+            @Valid @RequestBody VoidBalance.Request request
+    ) {
+        VoidBalance.Response response = VoidBalance.Response.from(
+                transactionService.voidBalance(request.getHoldId(), request.getAccountNumber()));
+        holdExpiryScheduler.cancel(request.getHoldId());
+        return response;
+    }
+
     @GetMapping("/transaction/{transactionId}")
+    @ConcurrencyLimited(RequestType.READ)
     public QueryTransactionResponse queryTransaction (
             @PathVariable String transactionId
     ) {
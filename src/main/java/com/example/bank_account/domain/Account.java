@@ -1,8 +1,11 @@
 package com.example.bank_account.domain;
 
 import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.jfr.BalanceChangeEvent;
 import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionType;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,17 +20,22 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+// heldBalance 는 lock 없이 조건부 update 로 줄어들 수 있으므로 변경된 컬럼만 update
+@DynamicUpdate
 public class Account {
     @Id
     @GeneratedValue
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private AccountUser accountUser;
     private String accountNumber;
     @Enumerated(EnumType.STRING)
     private AccountStatus accountStatus;
     private Long balance;
+    // 승인(authorize) 후 확정/취소/만료되지 않은 금액
+    @Builder.Default
+    private Long heldBalance = 0L;
 
     private LocalDateTime registeredAt;
     private LocalDateTime unRegisteredAt;
@@ -37,16 +45,24 @@ public class Account {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    public Long getAvailableBalance() {
+        return balance - heldBalance;
+    }
+
     public void useBalance (Long amount) {
-        if(amount > balance) {
-            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        if(amount > getAvailableBalance()) {
+            throw AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
         balance -= amount;
+        BalanceChangeEvent.emit(accountNumber, TransactionType.USE,
+                amount, balance + amount, balance);
     }
     public void cancelBalance (Long amount) {
         if(amount < 0) {
-            throw new AccountException(ErrorCode.INVALID_REQUEST);
+            throw AccountException.rejected(ErrorCode.INVALID_REQUEST);
         }
         balance += amount;
+        BalanceChangeEvent.emit(accountNumber, TransactionType.CANCEL,
+                amount, balance - amount, balance);
     }
 }
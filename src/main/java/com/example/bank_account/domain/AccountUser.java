@@ -25,6 +25,9 @@ public class AccountUser {
 
     private String name;
 
+    @Builder.Default
+    private Integer accountCount = 0; // 해지되지 않은 계좌 수
+
     @CreatedDate
     private LocalDateTime createdAt;
     @LastModifiedDate
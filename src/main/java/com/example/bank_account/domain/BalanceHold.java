@@ -0,0 +1,41 @@
+package com.example.bank_account.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 승인(authorize)으로 잡아둔 잔액
+ * 확정(capture), 취소(void), 만료 중 먼저 상태를 바꾼 쪽만 잔액에 반영한다
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class BalanceHold {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account;
+    private String holdId;
+    private Long amount;
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    private LocalDateTime heldAt;
+    private LocalDateTime expiresAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
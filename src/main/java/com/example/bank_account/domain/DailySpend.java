@@ -0,0 +1,69 @@
+package com.example.bank_account.domain;
+
+import com.example.bank_account.type.TransactionType;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 계좌별 하루 사용 합계 (성공한 사용/취소의 금액과 건수)
+ * 거래를 저장할 때 같은 DB transaction 에서 함께 갱신한다
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_daily_spend_account_spend_date", columnNames = {"account_id", "spendDate"}))
+public class DailySpend {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account;
+    private LocalDate spendDate;
+
+    @Builder.Default
+    private Long useAmount = 0L;
+    @Builder.Default
+    private Long useCount = 0L;
+    @Builder.Default
+    private Long cancelAmount = 0L;
+    @Builder.Default
+    private Long cancelCount = 0L;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public void add(TransactionType transactionType, Long amount) {
+        if (transactionType == TransactionType.USE) {
+            useAmount += amount;
+            useCount++;
+        } else {
+            cancelAmount += amount;
+            cancelCount++;
+        }
+    }
+
+    /**
+     * 사용 - 취소 (한도는 이 금액으로 판단)
+     */
+    public long getNetAmount() {
+        return useAmount - cancelAmount;
+    }
+
+    public long getNetCount() {
+        return useCount - cancelCount;
+    }
+}
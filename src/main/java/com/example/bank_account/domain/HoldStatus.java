@@ -0,0 +1,8 @@
+package com.example.bank_account.domain;
+
+public enum HoldStatus {
+    HELD,
+    CAPTURED,
+    VOIDED,
+    EXPIRED
+}
@@ -0,0 +1,54 @@
+package com.example.bank_account.domain;
+
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 거래 저장과 같은 DB transaction 에서 남기는 outbox
+ * OutboxRelay 가 event log 로 옮긴 뒤 지운다
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String transactionId;
+    private String accountNumber;
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    @Enumerated(EnumType.STRING)
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long balanceSnapShot;
+    private LocalDateTime transactedAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    public static OutboxEvent of(Transaction transaction, String accountNumber, Long userId) {
+        return OutboxEvent.builder()
+                .transactionId(transaction.getTransactionId())
+                .accountNumber(accountNumber)
+                .userId(userId)
+                .transactionType(transaction.getTransactionType())
+                .transactionResultType(transaction.getTransactionResultType())
+                .amount(transaction.getAmount())
+                .balanceSnapShot(transaction.getBalanceSnapShot())
+                .transactedAt(transaction.getTransactedAt())
+                .build();
+    }
+}
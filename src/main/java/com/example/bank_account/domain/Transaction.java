@@ -9,6 +9,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -17,6 +18,15 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+// 특정 시각의 잔액 조회 - 계좌의 성공 거래를 시각순으로 바로 찾는다
+// 거래 아이디, 취소한 원래 거래 아이디는 unique index 로 바로 찾는다
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_result_transacted_at",
+                columnList = "account_id, transactionResultType, transactedAt DESC"),
+        @Index(name = "uk_transaction_transaction_id", columnList = "transactionId", unique = true),
+        @Index(name = "uk_transaction_cancelled_transaction_id",
+                columnList = "cancelledTransactionId", unique = true)
+})
 public class Transaction {
 
    @Id
@@ -30,7 +40,7 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
     private Long amount;
     private Long balanceSnapShot;
@@ -39,9 +49,17 @@ public class Transaction {
     private LocalDateTime transactedAt;
                                         // 실제 비즈니스에 쓰이는 부분
 
+    // 취소 거래: 취소한 원래 거래 아이디 (원래 거래 하나에 취소 거래는 하나만)
+    private String cancelledTransactionId;
+    // 원래 거래: 취소된 시각 (취소되지 않았으면 null)
+    private LocalDateTime cancelledAt;
+
    @CreatedDate
    private LocalDateTime createdAt;
    @LastModifiedDate
    private LocalDateTime updatedAt;
 
+    public static String newTransactionId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.bank_account.dto;
+
+import com.example.bank_account.domain.AccountStatus;
+import lombok.Getter;
+
+/**
+ * 계좌번호로 찾은 소유주 아이디, 계좌 아이디, 해지 여부 (AccountOwnerCache 에 보관)
+ * 소유주와 계좌 아이디는 바뀌지 않고, 해지 여부만 사용 중 -> 해지 한 방향으로 바뀐다
+ */
+@Getter
+public class AccountOwner {
+    private final long userId;
+    private final long accountId;
+    private final boolean unregistered;
+
+    public AccountOwner(Long userId, Long accountId, AccountStatus accountStatus) {
+        this.userId = userId;
+        this.accountId = accountId;
+        this.unregistered = accountStatus == AccountStatus.UNREGISTERED;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bank_account.dto;
+
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.AmountInterface;
+import com.example.bank_account.aop.UserIdInterface;
+import lombok.*;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+
+public class AuthorizeBalance {
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request implements UserIdInterface, AccountLockIdInterface, AmountInterface {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(1000_000_000)
+        private Long amount;
+    }
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private String holdId;
+        private Long amount;
+        private LocalDateTime heldAt;
+        private LocalDateTime expiresAt;
+
+        public static Response from(HoldDto holdDto) {
+            return Response.builder()
+                    .accountNumber(holdDto.getAccountNumber())
+                    .holdId(holdDto.getHoldId())
+                    .amount(holdDto.getAmount())
+                    .heldAt(holdDto.getHeldAt())
+                    .expiresAt(holdDto.getExpiresAt())
+                    .build();
+        }
+    }
+}
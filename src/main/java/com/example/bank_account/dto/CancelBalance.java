@@ -1,6 +1,7 @@
 package com.example.bank_account.dto;
 
 import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.TransactionIdInterface;
 import com.example.bank_account.type.TransactionResultType;
 import lombok.*;
 
@@ -12,7 +13,7 @@ public class CancelBalance {
     @Setter
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class Request implements AccountLockIdInterface {
+    public static class Request implements AccountLockIdInterface, TransactionIdInterface {
         @NotBlank
         private String transactionId;
 
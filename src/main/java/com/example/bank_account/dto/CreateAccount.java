@@ -1,5 +1,6 @@
 package com.example.bank_account.dto;
 
+import com.example.bank_account.aop.UserIdInterface;
 import lombok.*;
 
 import javax.validation.constraints.Min;
@@ -11,7 +12,7 @@ public class CreateAccount {
     @Setter
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class Request {
+    public static class Request implements UserIdInterface {
         @NotNull
         @Min(1)
         private Long userId;
@@ -0,0 +1,42 @@
+package com.example.bank_account.dto;
+
+import com.example.bank_account.domain.DailySpend;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * 계좌의 하루 사용 합계 (net 은 사용 - 취소)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySpendDto {
+    private String accountNumber;
+    private LocalDate spendDate;
+    private Long useAmount;
+    private Long useCount;
+    private Long cancelAmount;
+    private Long cancelCount;
+    private Long netAmount;
+    private Long netCount;
+
+    public static DailySpendDto fromEntity(String accountNumber, DailySpend dailySpend) {
+        return DailySpendDto.builder()
+                .accountNumber(accountNumber)
+                .spendDate(dailySpend.getSpendDate())
+                .useAmount(dailySpend.getUseAmount())
+                .useCount(dailySpend.getUseCount())
+                .cancelAmount(dailySpend.getCancelAmount())
+                .cancelCount(dailySpend.getCancelCount())
+                .netAmount(dailySpend.getNetAmount())
+                .netCount(dailySpend.getNetCount())
+                .build();
+    }
+
+    public static DailySpendDto empty(String accountNumber, LocalDate spendDate) {
+        return new DailySpendDto(accountNumber, spendDate, 0L, 0L, 0L, 0L, 0L, 0L);
+    }
+}
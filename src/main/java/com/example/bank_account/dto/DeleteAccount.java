@@ -1,5 +1,7 @@
 package com.example.bank_account.dto;
 
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.UserIdInterface;
 import lombok.*;
 
 import javax.validation.constraints.Min;
@@ -13,7 +15,7 @@ public class DeleteAccount {
     @Setter
     @AllArgsConstructor
     @NoArgsConstructor // 추가
-    public static class Request {
+    public static class Request implements UserIdInterface, AccountLockIdInterface {
         @NotNull
         @Min(1)
         private Long userId;
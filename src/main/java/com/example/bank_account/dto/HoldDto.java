@@ -0,0 +1,39 @@
+package com.example.bank_account.dto;
+
+import com.example.bank_account.domain.BalanceHold;
+import com.example.bank_account.domain.HoldStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HoldDto {
+    private String accountNumber;
+    private String holdId;
+    private Long amount;
+    private HoldStatus status;
+    private LocalDateTime heldAt;
+    private LocalDateTime expiresAt;
+
+    public static HoldDto fromEntity(BalanceHold hold) {
+        return fromEntity(hold, hold.getStatus());
+    }
+
+    /**
+     * 조건부 update 로 상태를 바꾼 경우 엔티티에는 이전 상태가 남아 있으므로 바뀐 상태를 넘겨받는다
+     */
+    public static HoldDto fromEntity(BalanceHold hold, HoldStatus status) {
+        return HoldDto.builder()
+                .accountNumber(hold.getAccount().getAccountNumber())
+                .holdId(hold.getHoldId())
+                .amount(hold.getAmount())
+                .status(status)
+                .heldAt(hold.getHeldAt())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+}
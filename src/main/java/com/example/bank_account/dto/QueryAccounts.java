@@ -0,0 +1,63 @@
+package com.example.bank_account.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 여러 사용자의 계좌 확인 (back office)
+ */
+public class QueryAccounts {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request {
+        @NotEmpty
+        @Size(max = 10000)
+        private List<@NotNull Long> userIds;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        // 요청한 순서대로 (중복 제외)
+        private List<UserAccounts> users;
+        private List<Long> notFoundUserIds;
+
+        public static Response from(List<Long> userIds, Map<Long, List<AccountDto>> accountsByUser) {
+            List<Long> distinctUserIds = userIds.stream().distinct().collect(Collectors.toList());
+            return Response.builder()
+                    .users(distinctUserIds.stream()
+                            .filter(accountsByUser::containsKey)
+                            .map(userId -> new UserAccounts(userId, accountsByUser.get(userId).stream()
+                                    .map(accountDto -> AccountInfo.builder()
+                                            .accountNumber(accountDto.getAccountNumber())
+                                            .balance(accountDto.getBalance())
+                                            .build())
+                                    .collect(Collectors.toList())))
+                            .collect(Collectors.toList()))
+                    .notFoundUserIds(distinctUserIds.stream()
+                            .filter(userId -> !accountsByUser.containsKey(userId))
+                            .collect(Collectors.toList()))
+                    .build();
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserAccounts {
+        private Long userId;
+        private List<AccountInfo> accounts;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bank_account.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 특정 시각의 잔액 (transactedAt 은 그 잔액을 만든 마지막 거래 시각, 거래 전이면 null)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueryBalanceResponse {
+    private String accountNumber;
+    private LocalDateTime at;
+    private Long balance;
+    private LocalDateTime transactedAt;
+}
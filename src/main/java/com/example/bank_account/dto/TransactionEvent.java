@@ -0,0 +1,41 @@
+package com.example.bank_account.dto;
+
+import com.example.bank_account.domain.OutboxEvent;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * event log 에 JSON 으로 남기는 거래 이벤트
+ * 같은 거래가 두 번 기록될 수 있으므로 (at-least-once) 소비하는 쪽은 transactionId 와 결과로 중복을 거른다
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionEvent {
+    private String transactionId;
+    private String accountNumber;
+    private Long userId;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long balanceSnapShot;
+    private LocalDateTime transactedAt;
+
+    public static TransactionEvent fromEntity(OutboxEvent outboxEvent) {
+        return TransactionEvent.builder()
+                .transactionId(outboxEvent.getTransactionId())
+                .accountNumber(outboxEvent.getAccountNumber())
+                .userId(outboxEvent.getUserId())
+                .transactionType(outboxEvent.getTransactionType())
+                .transactionResultType(outboxEvent.getTransactionResultType())
+                .amount(outboxEvent.getAmount())
+                .balanceSnapShot(outboxEvent.getBalanceSnapShot())
+                .transactedAt(outboxEvent.getTransactedAt())
+                .build();
+    }
+}
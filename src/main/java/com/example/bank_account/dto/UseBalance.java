@@ -1,6 +1,8 @@
 package com.example.bank_account.dto;
 
 import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.AmountInterface;
+import com.example.bank_account.aop.UserIdInterface;
 import com.example.bank_account.type.TransactionResultType;
 import lombok.*;
 
@@ -12,7 +14,7 @@ public class UseBalance {
     @Setter
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class Request implements AccountLockIdInterface {
+    public static class Request implements UserIdInterface, AccountLockIdInterface, AmountInterface {
         @NotNull
         @Min(1)
         private Long userId;
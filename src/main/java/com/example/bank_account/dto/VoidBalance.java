@@ -0,0 +1,43 @@
+package com.example.bank_account.dto;
+
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.domain.HoldStatus;
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+public class VoidBalance {
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request implements AccountLockIdInterface {
+        @NotBlank
+        private String holdId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+    }
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private String holdId;
+        private Long amount;
+        private HoldStatus holdStatus;
+
+        public static Response from(HoldDto holdDto) {
+            return Response.builder()
+                    .accountNumber(holdDto.getAccountNumber())
+                    .holdId(holdDto.getHoldId())
+                    .amount(holdDto.getAmount())
+                    .holdStatus(holdDto.getStatus())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bank_account.eventlog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LogRecord {
+    private final long offset;
+    private final byte[] payload;
+}
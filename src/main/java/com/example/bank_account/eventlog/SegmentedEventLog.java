@@ -0,0 +1,326 @@
+package com.example.bank_account.eventlog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 로컬 파일에 append 만 하는 event log
+ * 기록마다 offset 을 붙이고, 일정 크기마다 새 segment 파일(시작 offset 이 이름)로 넘어간다
+ * 기록 형식: [length 4][crc32 4][offset 8][payload] - 재시작 시 마지막 segment 의 잘린 기록은 잘라낸다
+ * 소비하는 쪽은 consumer 이름별로 처리한 offset 을 commit 해두고 이어서 읽는다
+ */
+@Slf4j
+public class SegmentedEventLog implements Closeable {
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OFFSETS_DIRECTORY = "offsets";
+    private static final Pattern CONSUMER_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final int HEADER_BYTES = 16;
+    // 이 간격(byte)마다 offset -> 파일 위치를 기억해두고 읽을 때 그 위치부터 찾는다
+    private static final int INDEX_INTERVAL_BYTES = 4096;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Duration retention;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment active;
+    private volatile long nextOffset;
+
+    public SegmentedEventLog(Path directory, long segmentBytes, Duration retention) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.retention = retention;
+        Files.createDirectories(directory.resolve(OFFSETS_DIRECTORY));
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(baseOffset, new Segment(path, baseOffset));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, new Segment(segmentPath(0L), 0L));
+        }
+        for (Segment segment : segments.values()) {
+            segment.recover(segment == segments.lastEntry().getValue());
+        }
+        active = segments.lastEntry().getValue();
+        nextOffset = active.nextOffset;
+        log.info("Event log opened at {} (segments: {}, next offset: {})",
+                directory, segments.size(), nextOffset);
+    }
+
+    /**
+     * 한 번에 기록하고 디스크에 반영(fsync)한 뒤 첫 기록의 offset 을 돌려준다
+     * offset 과 index 는 fsync 가 성공한 기록까지만 반영하므로, 실패하면 같은 offset 부터 다시 쓴다
+     */
+    public synchronized long append(List<byte[]> payloads) throws IOException {
+        long firstOffset = nextOffset;
+        long offset = nextOffset;
+        ByteBuffer buffer = null;
+        // buffer 에 쓴 기록의 (offset, 파일 위치) - flush 가 성공하면 index 에 넣는다
+        List<long[]> written = new ArrayList<>();
+        for (byte[] payload : payloads) {
+            int recordBytes = HEADER_BYTES + payload.length;
+            long buffered = buffer == null ? 0 : buffer.position();
+            if (active.size + buffered > 0 && active.size + buffered + recordBytes > segmentBytes) {
+                flush(buffer, written, offset);
+                buffer = null;
+                written.clear();
+                roll();
+            }
+            if (buffer == null || buffer.remaining() < recordBytes) {
+                buffer = grow(buffer, recordBytes);
+            }
+            written.add(new long[]{offset, active.size + buffer.position()});
+            writeRecord(buffer, offset, payload);
+            offset++;
+        }
+        flush(buffer, written, offset);
+        return firstOffset;
+    }
+
+    /**
+     * fromOffset 부터 최대 maxRecords 개
+     * 보관 기간이 지나 지워진 offset 이면 남아있는 가장 앞의 기록부터
+     */
+    public List<LogRecord> read(long fromOffset, int maxRecords) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        Map.Entry<Long, Segment> entry = segments.floorEntry(fromOffset);
+        if (entry == null) {
+            entry = segments.firstEntry();
+        }
+        while (entry != null && records.size() < maxRecords) {
+            entry.getValue().read(fromOffset, maxRecords, records);
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return records;
+    }
+
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * consumer 가 다음에 읽을 offset (commit 한 적이 없으면 0)
+     */
+    public long committedOffset(String consumer) throws IOException {
+        Path path = offsetPath(consumer);
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        return Long.parseLong(Files.readString(path, StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * 임시 파일에 쓰고 바꿔치기해서 중간에 죽어도 이전 값이나 새 값 중 하나가 남도록
+     */
+    public void commitOffset(String consumer, long offset) throws IOException {
+        Path path = offsetPath(consumer);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(offset), StandardCharsets.UTF_8);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    private Path offsetPath(String consumer) {
+        if (!CONSUMER_NAME.matcher(consumer).matches()) {
+            throw new IllegalArgumentException("Invalid consumer name: " + consumer);
+        }
+        return directory.resolve(OFFSETS_DIRECTORY).resolve(consumer);
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private void flush(ByteBuffer buffer, List<long[]> written, long offset) throws IOException {
+        if (buffer == null || buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        long position = active.size;
+        try {
+            while (buffer.hasRemaining()) {
+                position += active.channel.write(buffer, position);
+            }
+            active.channel.force(false);
+        } catch (IOException e) {
+            // 일부만 쓰였을 수 있으므로 마지막으로 반영된 위치까지 되돌린다 (다음 append 가 덮어쓴다)
+            try {
+                active.channel.truncate(active.size);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        // 읽는 쪽은 size 까지만 읽으므로 디스크에 반영된 뒤에 늘린다
+        for (long[] record : written) {
+            active.index(record[0], record[1]);
+        }
+        active.size = position;
+        active.nextOffset = offset;
+        nextOffset = offset;
+    }
+
+    /**
+     * 새 segment 로 넘어갈 때 보관 기간이 지난 segment 를 지운다
+     */
+    private void roll() throws IOException {
+        active = new Segment(segmentPath(nextOffset), nextOffset);
+        active.recover(true);
+        segments.put(active.baseOffset, active);
+
+        FileTime expiredBefore = FileTime.from(Instant.now().minus(retention));
+        for (Segment segment : segments.headMap(active.baseOffset).values()) {
+            if (Files.getLastModifiedTime(segment.path).compareTo(expiredBefore) >= 0) {
+                break;
+            }
+            segments.remove(segment.baseOffset);
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+            log.info("Deleted expired event log segment {}", segment.path.getFileName());
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int recordBytes) {
+        int written = buffer == null ? 0 : buffer.position();
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(INDEX_INTERVAL_BYTES, (written + recordBytes) * 2));
+        if (buffer != null) {
+            buffer.flip();
+            grown.put(buffer);
+        }
+        return grown;
+    }
+
+    private static void writeRecord(ByteBuffer buffer, long offset, byte[] payload) {
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(offset, payload));
+        buffer.putLong(offset);
+        buffer.put(payload);
+    }
+
+    private static int checksum(long offset, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+
+    private static class Segment {
+        private final Path path;
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final NavigableMap<Long, Long> index = new ConcurrentSkipListMap<>();
+        private long lastIndexedPosition = -INDEX_INTERVAL_BYTES;
+
+        private volatile long size;
+        private long nextOffset;
+
+        private Segment(Path path, long baseOffset) throws IOException {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.nextOffset = baseOffset;
+        }
+
+        private void index(long offset, long position) {
+            if (position - lastIndexedPosition >= INDEX_INTERVAL_BYTES) {
+                index.put(offset, position);
+                lastIndexedPosition = position;
+            }
+        }
+
+        /**
+         * 처음부터 읽으며 index 를 만들고, 잘리거나 깨진 기록을 만나면 거기까지만 유효한 것으로 본다
+         */
+        private void recover(boolean truncate) throws IOException {
+            long fileSize = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= fileSize) {
+                header.clear();
+                readFully(channel, header, position);
+                int length = header.getInt();
+                int crc = header.getInt();
+                long offset = header.getLong();
+                if (length < 0 || offset != nextOffset || position + HEADER_BYTES + length > fileSize) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, position + HEADER_BYTES);
+                if (checksum(offset, payload.array()) != crc) {
+                    break;
+                }
+                index(offset, position);
+                position += HEADER_BYTES + length;
+                nextOffset++;
+            }
+            if (position < fileSize) {
+                log.warn("Event log segment {} has {} invalid bytes after offset {}",
+                        path.getFileName(), fileSize - position, nextOffset);
+                if (truncate) {
+                    channel.truncate(position);
+                }
+            }
+            size = position;
+        }
+
+        private void read(long fromOffset, int maxRecords, List<LogRecord> records) throws IOException {
+            long limit = size;
+            Map.Entry<Long, Long> indexed = index.floorEntry(fromOffset);
+            long position = indexed == null ? 0 : indexed.getValue();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position < limit && records.size() < maxRecords) {
+                header.clear();
+                readFully(channel, header, position);
+                int length = header.getInt();
+                header.getInt();
+                long offset = header.getLong();
+                if (offset >= fromOffset) {
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(channel, payload, position + HEADER_BYTES);
+                    records.add(new LogRecord(offset, payload.array()));
+                }
+                position += HEADER_BYTES + length;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bank_account.jfr;
+
+import com.example.bank_account.type.ErrorCode;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.bank_account.AccountException")
+@Label("Account Exception")
+@Description("AccountException 발생 (stack trace 포함)")
+@Category({"Bank Account", "Error"})
+public class AccountExceptionEvent extends Event {
+    @Label("Error Code")
+    private String errorCode;
+
+    @Label("Error Message")
+    private String errorMessage;
+
+    public static void emit(ErrorCode errorCode, String errorMessage) {
+        AccountExceptionEvent event = new AccountExceptionEvent();
+        if (event.shouldCommit()) {
+            event.errorCode = errorCode == null ? null : errorCode.name();
+            event.errorMessage = errorMessage;
+            event.commit();
+        }
+    }
+}
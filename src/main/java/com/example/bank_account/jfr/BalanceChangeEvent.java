@@ -0,0 +1,44 @@
+package com.example.bank_account.jfr;
+
+import com.example.bank_account.type.TransactionType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.bank_account.BalanceChange")
+@Label("Balance Change")
+@Description("Account 엔티티의 잔액 사용/취소")
+@Category({"Bank Account", "Ledger"})
+@StackTrace(false)
+public class BalanceChangeEvent extends Event {
+    @Label("Account Number")
+    private String accountNumber;
+
+    @Label("Transaction Type")
+    private String transactionType;
+
+    @Label("Amount")
+    private long amount;
+
+    @Label("Balance Before")
+    private long balanceBefore;
+
+    @Label("Balance After")
+    private long balanceAfter;
+
+    public static void emit(String accountNumber, TransactionType transactionType,
+                            long amount, long balanceBefore, long balanceAfter) {
+        BalanceChangeEvent event = new BalanceChangeEvent();
+        if (event.shouldCommit()) {
+            event.accountNumber = accountNumber;
+            event.transactionType = transactionType.name();
+            event.amount = amount;
+            event.balanceBefore = balanceBefore;
+            event.balanceAfter = balanceAfter;
+            event.commit();
+        }
+    }
+}
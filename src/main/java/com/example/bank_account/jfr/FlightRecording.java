@@ -0,0 +1,86 @@
+package com.example.bank_account.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDK default 설정 + jfr/bank-account.jfc 로 상시 recording
+ * 최근 max-age 만큼만 디스크에 유지하고 종료 시 destination 에 저장
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jfr.recording.enabled", havingValue = "true")
+public class FlightRecording {
+    static final String SETTINGS = "jfr/bank-account.jfc";
+
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final String destination;
+
+    private Recording recording;
+
+    public FlightRecording(
+            @Value("${jfr.recording.max-age-minutes:360}") long maxAgeMinutes,
+            @Value("${jfr.recording.max-size-mb:256}") long maxSizeMb,
+            @Value("${jfr.recording.destination:bank-account.jfr}") String destination) {
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.destination = destination;
+    }
+
+    public static Map<String, String> settings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(
+                Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(
+                new ClassPathResource(SETTINGS).getInputStream(), StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.create(reader).getSettings());
+        }
+        return settings;
+    }
+
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        FlightRecorder.register(LockAcquireEvent.class);
+        FlightRecorder.register(LockReleaseEvent.class);
+        FlightRecorder.register(BalanceChangeEvent.class);
+        FlightRecorder.register(TransactionSaveEvent.class);
+        FlightRecorder.register(AccountExceptionEvent.class);
+
+        recording = new Recording(settings());
+        recording.setName("bank-account");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setDestination(Paths.get(destination));
+        recording.start();
+        log.info("Flight recording started, destination : {}", destination);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // stop 시 destination 에 기록된다 (JVM 종료 hook 에서 먼저 stop 되었을 수 있음)
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        recording.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bank_account.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.bank_account.LockRelease")
+@Label("Account Lock Release")
+@Description("계좌 lock 해제")
+@Category({"Bank Account", "Lock"})
+@StackTrace(false)
+public class LockReleaseEvent extends Event {
+    @Label("Account Number")
+    private String accountNumber;
+
+    @Label("Success")
+    private boolean success;
+
+    public void finish(String accountNumber, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.accountNumber = accountNumber;
+            this.success = success;
+            commit();
+        }
+    }
+}
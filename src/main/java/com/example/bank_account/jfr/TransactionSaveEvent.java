@@ -0,0 +1,43 @@
+package com.example.bank_account.jfr;
+
+import com.example.bank_account.domain.Transaction;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.bank_account.TransactionSave")
+@Label("Transaction Save")
+@Description("거래 저장 (duration 이 save 호출 시간)")
+@Category({"Bank Account", "Ledger"})
+@StackTrace(false)
+public class TransactionSaveEvent extends Event {
+    @Label("Transaction Id")
+    private String transactionId;
+
+    @Label("Account Number")
+    private String accountNumber;
+
+    @Label("Transaction Type")
+    private String transactionType;
+
+    @Label("Transaction Result")
+    private String transactionResultType;
+
+    @Label("Amount")
+    private long amount;
+
+    public void finish(Transaction transaction) {
+        end();
+        if (shouldCommit()) {
+            this.transactionId = transaction.getTransactionId();
+            this.accountNumber = transaction.getAccount().getAccountNumber();
+            this.transactionType = transaction.getTransactionType().name();
+            this.transactionResultType = transaction.getTransactionResultType().name();
+            this.amount = transaction.getAmount();
+            commit();
+        }
+    }
+}
@@ -1,19 +1,80 @@
 package com.example.bank_account.repository;
 
 import com.example.bank_account.domain.Account;
-import com.example.bank_account.domain.AccountUser;
+import com.example.bank_account.dto.AccountDto;
+import com.example.bank_account.dto.AccountOwner;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findFirstByOrderByIdDesc();
 
-    Integer countByAccountUser(AccountUser accountUser);
     Optional<Account> findByAccountNumber(String accountNumber);
 
-    List<Account> findByAccountUser(AccountUser accountUser);
+    boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * 소유주 확인용 - account 한 행에서 소유주 FK 만 읽는다 (account_user 는 join 하지 않음)
+     */
+    @Query("select new com.example.bank_account.dto.AccountOwner(" +
+            "a.accountUser.id, a.id, a.accountStatus) " +
+            "from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountOwner> findOwnerByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * 시작 시 Bloom filter 를 채울 때 (transaction 안에서 사용 후 close)
+     */
+    @Query("select a.accountNumber from Account a")
+    Stream<String> streamAllAccountNumbers();
+
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :delta where a.id = :accountId")
+    int changeBalance(@Param("accountId") Long accountId, @Param("delta") Long delta);
+
+    /**
+     * 가용 잔액(잔액 - 승인 금액)이 충분할 때만 승인 금액을 늘린다
+     */
+    @Modifying
+    @Query("update Account a set a.heldBalance = a.heldBalance + :amount " +
+            "where a.id = :accountId and a.balance - a.heldBalance >= :amount")
+    int hold(@Param("accountId") Long accountId, @Param("amount") Long amount);
+
+    /**
+     * 승인 금액을 풀고 그 중 captured 만큼 잔액에서 차감 (취소/만료는 captured = 0)
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :captured, " +
+            "a.heldBalance = a.heldBalance - :held where a.id = :accountId")
+    int settleHold(@Param("accountId") Long accountId,
+                   @Param("held") Long held,
+                   @Param("captured") Long captured);
+
+    @EntityGraph(attributePaths = "accountUser")
+    Optional<Account> findWithAccountUserById(Long id);
+
+    /**
+     * 조회 전용 projection - 엔티티를 만들지 않고 필요한 컬럼만 읽는다
+     */
+    @Query("select new com.example.bank_account.dto.AccountDto(" +
+            "a.accountUser.id, a.accountNumber, a.balance, a.registeredAt, a.unRegisteredAt) " +
+            "from Account a where a.accountUser.id = :userId order by a.id")
+    List<AccountDto> findDtosByAccountUserId(@Param("userId") Long userId);
+
+    /**
+     * 여러 사용자의 계좌를 IN 조회 한 번으로 (사용자별로 나누는 것은 호출하는 쪽에서)
+     */
+    @Query("select new com.example.bank_account.dto.AccountDto(" +
+            "a.accountUser.id, a.accountNumber, a.balance, a.registeredAt, a.unRegisteredAt) " +
+            "from Account a where a.accountUser.id in :userIds order by a.id")
+    List<AccountDto> findDtosByAccountUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -2,7 +2,33 @@ package com.example.bank_account.repository;
 
 import com.example.bank_account.domain.AccountUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface AccountUserRepository extends JpaRepository<AccountUser, Long> {
 
+    /**
+     * 보유 계좌 수가 최대치 미만일 때만 1 증가 (조건부 단일 행 갱신)
+     * @return 갱신된 행 수 (0 이면 최대 계좌 수에 도달)
+     */
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = u.accountCount + 1 " +
+            "where u.id = :userId and u.accountCount < :maxCount")
+    int increaseAccountCount(@Param("userId") Long userId,
+                             @Param("maxCount") int maxCount);
+
+    /**
+     * userIds 중 있는 사용자 아이디만 (IN 조회 한 번)
+     */
+    @Query("select u.id from AccountUser u where u.id in :userIds")
+    List<Long> findExistingIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = u.accountCount - 1 " +
+            "where u.id = :userId and u.accountCount > 0")
+    int decreaseAccountCount(@Param("userId") Long userId);
 }
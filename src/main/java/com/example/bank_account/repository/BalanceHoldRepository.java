@@ -0,0 +1,35 @@
+package com.example.bank_account.repository;
+
+import com.example.bank_account.domain.BalanceHold;
+import com.example.bank_account.domain.HoldStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceHoldRepository extends JpaRepository<BalanceHold, Long> {
+    Optional<BalanceHold> findByHoldId(String holdId);
+
+    List<BalanceHold> findByStatus(HoldStatus status);
+
+    /**
+     * 담당 계좌를 판단하기 위해 계좌 번호까지 한 번에 읽는다
+     */
+    @EntityGraph(attributePaths = "account")
+    List<BalanceHold> findWithAccountByStatus(HoldStatus status);
+
+    /**
+     * 현재 상태가 from 일 때만 바꾼다 (확정/취소/만료가 겹쳐도 한 번만 반영)
+     */
+    @Modifying
+    @Query("update BalanceHold h set h.status = :to where h.id = :id and h.status = :from")
+    int changeStatus(@Param("id") Long id,
+                     @Param("from") HoldStatus from,
+                     @Param("to") HoldStatus to);
+}
@@ -0,0 +1,13 @@
+package com.example.bank_account.repository;
+
+import com.example.bank_account.domain.DailySpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface DailySpendRepository extends JpaRepository<DailySpend, Long> {
+    Optional<DailySpend> findByAccountIdAndSpendDate(Long accountId, LocalDate spendDate);
+}
@@ -0,0 +1,13 @@
+package com.example.bank_account.repository;
+
+import com.example.bank_account.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+}
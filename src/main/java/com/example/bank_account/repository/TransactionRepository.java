@@ -1,12 +1,105 @@
 package com.example.bank_account.repository;
 
 import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.type.TransactionResultType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction,Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    boolean existsByTransactionId(String transactionId);
+
+    List<Transaction> findByTransactionIdIn(List<String> transactionIds);
+
+    /**
+     * 이미 저장된 거래 아이디만 (write-behind 를 다시 반영할 때 중복 저장 방지)
+     */
+    @Query("select t.transactionId from Transaction t where t.transactionId in :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    /**
+     * 시작 시 Bloom filter 를 채울 때 (transaction 안에서 사용 후 close)
+     */
+    @Query("select t.transactionId from Transaction t")
+    Stream<String> streamAllTransactionIds();
+
+    /**
+     * 아직 취소되지 않은 성공한 사용 거래만 취소 상태로 바꾼다 (같은 거래를 두 번 취소하지 않도록)
+     */
+    @Modifying
+    @Query("update Transaction t set t.cancelledAt = :cancelledAt " +
+            "where t.id = :id and t.cancelledAt is null " +
+            "and t.transactionType = com.example.bank_account.type.TransactionType.USE " +
+            "and t.transactionResultType = com.example.bank_account.type.TransactionResultType.S")
+    int markCancelled(@Param("id") Long id, @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    /**
+     * 취소 상태로 바꾼 뒤 잔액을 되돌리지 못했을 때 다시 취소할 수 있도록 되돌린다
+     */
+    @Modifying
+    @Query("update Transaction t set t.cancelledAt = null where t.transactionId = :transactionId")
+    int unmarkCancelled(@Param("transactionId") String transactionId);
+
+    /**
+     * 조회 전용 projection - 거래와 계좌번호만 한 번의 join 으로 읽는다
+     */
+    @Query("select new com.example.bank_account.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapShot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a where t.transactionId = :transactionId")
+    Optional<TransactionDto> findDtoByTransactionId(@Param("transactionId") String transactionId);
+
+    /**
+     * 재시작 시 다시 처리할 비동기 요청 (요청 순서대로)
+     */
+    @Query("select new com.example.bank_account.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapShot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a " +
+            "where t.transactionResultType = :resultType order by t.id")
+    List<TransactionDto> findDtosByTransactionResultType(
+            @Param("resultType") TransactionResultType resultType);
+
+    /**
+     * at 이전(포함) 마지막 거래 - Pageable 로 한 건만 읽는다
+     */
+    @Query("select new com.example.bank_account.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapShot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a " +
+            "where t.account.id = :accountId and t.transactionResultType = :resultType " +
+            "and t.transactedAt <= :at order by t.transactedAt desc")
+    List<TransactionDto> findDtosTransactedAtOrBefore(
+            @Param("accountId") Long accountId,
+            @Param("resultType") TransactionResultType resultType,
+            @Param("at") LocalDateTime at,
+            Pageable pageable);
+
+    /**
+     * at 이후 첫 거래 - Pageable 로 한 건만 읽는다
+     */
+    @Query("select new com.example.bank_account.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapShot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a " +
+            "where t.account.id = :accountId and t.transactionResultType = :resultType " +
+            "and t.transactedAt > :at order by t.transactedAt asc")
+    List<TransactionDto> findDtosTransactedAfter(
+            @Param("accountId") Long accountId,
+            @Param("resultType") TransactionResultType resultType,
+            @Param("at") LocalDateTime at,
+            Pageable pageable);
 }
@@ -0,0 +1,137 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.dto.AccountDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 사용자별 계좌 목록 캐시
+ * 계좌 생성/해지, 잔액 변경 시 무효화하고
+ * 다른 서버에는 Redis pub/sub 으로 무효화를 전파한다
+ * replica 에서 읽은 목록은 replica 지연 시간(max-staleness-millis)까지만 둔다
+ * (무효화 직후 아직 반영되지 않은 replica 값을 전체 expire 시간 동안 캐시하지 않도록)
+ */
+@Slf4j
+@Service
+public class AccountCacheService {
+    private static final String EVICT_TOPIC = "ACCOUNT_CACHE_EVICT";
+    private static final String DELIMITER = ":";
+
+    // 자기가 보낸 무효화 메시지는 무시하기 위한 서버 식별자
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RedissonClient redissonClient;
+    private final Cache<Long, CachedAccounts> accountsByUser;
+    private RTopic evictTopic;
+
+    public AccountCacheService(
+            RedissonClient redissonClient,
+            @Value("${account.cache.maximum-size:10000}") long maximumSize,
+            @Value("${account.cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds,
+            @Value("${datasource.replica.max-staleness-millis:1000}") long replicaMaxStalenessMillis) {
+        this.redissonClient = redissonClient;
+        long primaryTtlNanos = TimeUnit.SECONDS.toNanos(expireAfterWriteSeconds);
+        long replicaTtlNanos = Math.min(primaryTtlNanos,
+                TimeUnit.MILLISECONDS.toNanos(replicaMaxStalenessMillis));
+        this.accountsByUser = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, CachedAccounts>() {
+                    @Override
+                    public long expireAfterCreate(Long key, CachedAccounts value, long currentTime) {
+                        return value.fromPrimary ? primaryTtlNanos : replicaTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, CachedAccounts value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, CachedAccounts value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        evictTopic = redissonClient.getTopic(EVICT_TOPIC);
+        evictTopic.addListener(String.class, (channel, message) -> {
+            int index = message.lastIndexOf(DELIMITER);
+            if (!nodeId.equals(message.substring(0, index))) {
+                accountsByUser.invalidate(Long.valueOf(message.substring(index + 1)));
+            }
+        });
+    }
+
+    /**
+     * @param fromPrimary loader 가 primary 에서 읽는지 (replica 에서 읽으면 짧게 캐시)
+     */
+    public List<AccountDto> getAccounts(Long userId, boolean fromPrimary,
+                                        Supplier<List<AccountDto>> loader) {
+        return accountsByUser.get(userId,
+                key -> new CachedAccounts(Collections.unmodifiableList(loader.get()), fromPrimary))
+                .accounts;
+    }
+
+    /**
+     * 캐시에 없으면 null (여러 사용자 조회에서 캐시에 없는 사용자만 DB 에서 읽을 때)
+     */
+    public List<AccountDto> getIfPresent(Long userId) {
+        CachedAccounts cached = accountsByUser.getIfPresent(userId);
+        return cached == null ? null : cached.accounts;
+    }
+
+    /**
+     * 트랜잭션 안에서 호출되면 commit 이후에 무효화한다
+     * (commit 전에 지우면 다른 요청이 이전 값을 다시 캐시할 수 있음)
+     */
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            evictNow(userId);
+                        }
+                    });
+        } else {
+            evictNow(userId);
+        }
+    }
+
+    private void evictNow(Long userId) {
+        accountsByUser.invalidate(userId);
+        if (evictTopic != null) {
+            evictTopic.publishAsync(nodeId + DELIMITER + userId);
+        }
+    }
+
+    private static class CachedAccounts {
+        private final List<AccountDto> accounts;
+        private final boolean fromPrimary;
+
+        private CachedAccounts(List<AccountDto> accounts, boolean fromPrimary) {
+            this.accounts = accounts;
+            this.fromPrimary = fromPrimary;
+        }
+    }
+}
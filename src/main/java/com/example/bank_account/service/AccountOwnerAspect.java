@@ -0,0 +1,34 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.UserIdInterface;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사용자 아이디가 있는 요청은 lock 을 잡기 전에 캐시된 소유주/해지 여부로 먼저 거절
+ * (LockAopAspect 바깥에서 실행)
+ */
+@Aspect
+@Component
+@Order(4)
+@RequiredArgsConstructor
+public class AccountOwnerAspect {
+    private final AccountOwnerCache accountOwnerCache;
+
+    @Around("@annotation(com.example.bank_account.aop.AccountLock) && args(request)")
+    public Object aroundMethod(
+            ProceedingJoinPoint proceedingJoinPoint,
+            AccountLockIdInterface request
+    ) throws Throwable {
+        if (request instanceof UserIdInterface) {
+            accountOwnerCache.checkOwner(((UserIdInterface) request).getUserId(),
+                    request.getAccountNumber());
+        }
+        return proceedingJoinPoint.proceed();
+    }
+}
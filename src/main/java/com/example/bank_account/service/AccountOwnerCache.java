@@ -0,0 +1,142 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.dto.AccountOwner;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.AccountUserRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Objects;
+
+/**
+ * 계좌번호 -> (소유주 아이디, 계좌 아이디, 해지 여부) 캐시
+ * lock 을 잡기 전에 소유주/해지 여부를 확인해서, 남의 계좌나 해지 계좌 요청은 lock 없이 거절한다
+ * 처음 조회할 때 채우고 해지 시 무효화한다 (다른 서버에는 Redis pub/sub 으로 전파)
+ * 다른 서버의 해지가 늦게 반영되어도 실제 거래에서 계좌 행으로 다시 확인한다
+ */
+@Service
+public class AccountOwnerCache {
+    private static final String EVICT_TOPIC = "ACCOUNT_OWNER_EVICT";
+    private static final int MAX_NUMERIC_LENGTH = 18;
+
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final RedissonClient redissonClient;
+    // 계좌번호는 숫자이므로 문자열 대신 long 으로 보관한다
+    private final Cache<Long, AccountOwner> owners;
+    private RTopic evictTopic;
+
+    public AccountOwnerCache(
+            AccountRepository accountRepository,
+            AccountUserRepository accountUserRepository,
+            RedissonClient redissonClient,
+            @Value("${account.owner-cache.maximum-size:100000}") long maximumSize) {
+        this.accountRepository = accountRepository;
+        this.accountUserRepository = accountUserRepository;
+        this.redissonClient = redissonClient;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        evictTopic = redissonClient.getTopic(EVICT_TOPIC, StringCodec.INSTANCE);
+        evictTopic.addListener(String.class, (channel, accountNumber) -> invalidate(accountNumber));
+    }
+
+    /**
+     * 없는 계좌는 캐시하지 않는다 (null)
+     */
+    public AccountOwner get(String accountNumber) {
+        long key = toKey(accountNumber);
+        if (key < 0) {
+            return accountRepository.findOwnerByAccountNumber(accountNumber).orElse(null);
+        }
+        return owners.get(key, ignored ->
+                accountRepository.findOwnerByAccountNumber(accountNumber).orElse(null));
+    }
+
+    /**
+     * 사용자가 없는지는 실패할 때만 확인한다
+     */
+    public void checkOwner(Long userId, String accountNumber) {
+        AccountOwner owner = get(accountNumber);
+        if (owner == null) {
+            throw AccountException.rejected(userOrAccountNotFound(userId));
+        }
+        if (!Objects.equals(owner.getUserId(), userId)) {
+            throw AccountException.rejected(accountUserRepository.existsById(userId)
+                    ? ErrorCode.USER_ACCOUNT_UN_MATCH : ErrorCode.USER_NOT_FOUND);
+        }
+        if (owner.isUnregistered()) {
+            throw AccountException.rejected(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+    }
+
+    public ErrorCode userOrAccountNotFound(Long userId) {
+        return accountUserRepository.existsById(userId)
+                ? ErrorCode.ACCOUNT_NOT_FOUND : ErrorCode.USER_NOT_FOUND;
+    }
+
+    /**
+     * 해지 commit 이후에 무효화한다 (commit 전에 지우면 해지 전 상태를 다시 캐시할 수 있음)
+     */
+    public void evict(String accountNumber) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            evictNow(accountNumber);
+                        }
+                    });
+        } else {
+            evictNow(accountNumber);
+        }
+    }
+
+    private void evictNow(String accountNumber) {
+        invalidate(accountNumber);
+        if (evictTopic != null) {
+            evictTopic.publishAsync(accountNumber);
+        }
+    }
+
+    private void invalidate(String accountNumber) {
+        long key = toKey(accountNumber);
+        if (key >= 0) {
+            owners.invalidate(key);
+        }
+    }
+
+    /**
+     * 숫자로만 된 계좌번호는 long 으로, 아니면 -1 (캐시하지 않음)
+     * 앞의 0 을 잃지 않도록 0 으로 시작하는 번호도 캐시하지 않는다
+     */
+    static long toKey(String accountNumber) {
+        if (accountNumber == null || accountNumber.isEmpty()
+                || accountNumber.length() > MAX_NUMERIC_LENGTH || accountNumber.charAt(0) == '0') {
+            return -1L;
+        }
+        long key = 0L;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1L;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+}
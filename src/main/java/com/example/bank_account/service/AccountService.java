@@ -1,6 +1,7 @@
 package com.example.bank_account.service;
 
 import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.ReplicationRoutingDataSource;
 import com.example.bank_account.domain.Account;
 import com.example.bank_account.domain.AccountStatus;
 import com.example.bank_account.domain.AccountUser;
@@ -10,21 +11,34 @@ import com.example.bank_account.repository.AccountUserRepository;
 import com.example.bank_account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-
-import javax.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static com.example.bank_account.domain.AccountStatus.IN_USE;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
+    private static final int MAX_ACCOUNT_PER_USER = 10;
+    // IN 목록이 너무 길어지지 않도록 나눠서 조회
+    static final int BATCH_CHUNK_SIZE = 1000;
+
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final AccountCacheService accountCacheService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final BalanceMirrorService balanceMirrorService;
+    private final KnownKeyFilter knownKeyFilter;
+    private final AccountOwnerCache accountOwnerCache;
 
     /** 계좌 생성
      * 사용자가 있는지 조회
@@ -36,6 +50,7 @@ public class AccountService {
      * 계좌 생성 시 정책
      * 사용자 없는 경우 실패 응답
      * 계좌가 10개(사용자당 최대 보유 가능 계좌 수)인 경우 실패 응답
+     * 보유 계좌 수는 AccountUser.accountCount 에 유지하고 조건부 update 로 증가시킨다
      */
     @Transactional
     public AccountDto createAccount(Long userId, Long initialBalance) {
@@ -47,76 +62,144 @@ public class AccountService {
                 .map(account -> (Integer.parseInt(account.getAccountNumber()) + 1 + ""))
                 .orElse("1000000000");
 
-        return AccountDto.fromEntity(accountRepository.save(
+        Account account = accountRepository.save(
                 Account.builder().accountUser(accountUser)
                         .accountStatus(IN_USE)
                         .accountNumber(newAccountNumber)
                         .balance(initialBalance)
                         .registeredAt(LocalDateTime.now())
-                        .build()));
+                        .build());
+        knownKeyFilter.addAccount(newAccountNumber);
+        readYourWritesGuard.markWrite(accountUser.getId());
+        accountCacheService.evict(accountUser.getId());
+
+        return AccountDto.fromEntity(account);
     }
     private void validateCreateAccount(AccountUser accountUser) {
-        if(accountRepository.countByAccountUser(accountUser) == 10) {
-            throw new AccountException(ErrorCode.MAX_ACCOUNT_PER_USER_10);
+        if(accountUserRepository.increaseAccountCount(
+                accountUser.getId(), MAX_ACCOUNT_PER_USER) == 0) {
+            throw AccountException.rejected(ErrorCode.MAX_ACCOUNT_PER_USER_10);
         }
     }
 
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Account getAccount(Long id) {
         if(id < 0) {
             throw new RuntimeException("Minus");
         }
-        return accountRepository.findById(id).get();
+        return accountRepository.findWithAccountUserById(id).get();
     }
 
     /** 계좌 삭제 시 정책
      * 사용자 또는 계좌가 없는 경우 실패 응답
      * 사용자 아이디와 계좌 소유주가 다른 경우 실패 응답
      * 계좌가 이미 해지 상태인 경우, 잔액이 있는 경우 실패 응답
+     * 사용자 행은 읽지 않고 계좌 한 행만 읽는다 (사용자가 없는지는 실패할 때만 확인)
      */
     @Transactional
     public AccountDto deleteAccount(Long userId, String accountNumber) {
-        AccountUser accountUser = getAccountUser(userId);
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(()-> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(()-> AccountException.rejected(accountUserRepository.existsById(userId)
+                        ? ErrorCode.ACCOUNT_NOT_FOUND : ErrorCode.USER_NOT_FOUND));
 
-        validateDeleteAccount(accountUser, account);
+        validateDeleteAccount(userId, account);
+        balanceMirrorService.unregister(accountNumber);
 
         account.setAccountStatus(AccountStatus.UNREGISTERED);
         account.setUnRegisteredAt(LocalDateTime.now());
 
         accountRepository.save(account); // 안 써도 되지만 test 편의를 위해
+        accountUserRepository.decreaseAccountCount(userId);
+        readYourWritesGuard.markWrite(userId);
+        accountCacheService.evict(userId);
+        accountOwnerCache.evict(accountNumber);
 
         return AccountDto.fromEntity(account);
     }
-    private void validateDeleteAccount(AccountUser accountUser, Account account) {
-        if(!Objects.equals(accountUser.getId(), account.getAccountUser().getId())) {
-            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+    private void validateDeleteAccount(Long userId, Account account) {
+        if(!Objects.equals(userId, account.getAccountUser().getId())) {
+            throw AccountException.rejected(accountUserRepository.existsById(userId)
+                    ? ErrorCode.USER_ACCOUNT_UN_MATCH : ErrorCode.USER_NOT_FOUND);
         }
         if(account.getAccountStatus() == AccountStatus.UNREGISTERED) {
-            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            throw AccountException.rejected(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
         if(account.getBalance() > 0) {
-            throw new AccountException(ErrorCode.BALANCE_NOT_EMPTY);
+            throw AccountException.rejected(ErrorCode.BALANCE_NOT_EMPTY);
         }
     }
     /** 계좌 확인 시 정책
      * 사용자 없는 경우 실패 응답
+     * 엔티티 대신 AccountDto projection 으로 바로 조회
+     * 조회 결과는 AccountCacheService 에 캐시 (계좌/잔액 변경 시 무효화)
+     * replica 에서 읽되, 방금 변경한 사용자는 primary 에서 읽는다
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public List<AccountDto> getAccountByUserId(Long userId) {
-        AccountUser accountUser = getAccountUser(userId);
-        List<Account> accounts = accountRepository
-                .findByAccountUser(accountUser);
-        return accounts.stream()
-                .map(AccountDto :: fromEntity)
-                .collect(Collectors.toList());
+        boolean onPrimary = readYourWritesGuard.recentlyWrote(userId);
+        return accountCacheService.getAccounts(userId, onPrimary, () -> onPrimary
+                ? ReplicationRoutingDataSource.onPrimary(() -> findAccounts(userId))
+                : findAccounts(userId));
+    }
+
+    /** 여러 사용자의 계좌 확인 (back office)
+     * 캐시에 있는 사용자는 캐시에서, 나머지는 BATCH_CHUNK_SIZE 명씩
+     * 사용자 존재 확인과 계좌 조회를 IN 조회로 한 번씩 하고 메모리에서 사용자별로 나눈다
+     * 없는 사용자는 실패 응답 대신 결과에서 빠진다
+     * 방금 변경한 사용자가 섞여 있으면 모두 primary 에서 읽는다
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<AccountDto>> getAccountsByUserIds(Collection<Long> userIds) {
+        Map<Long, List<AccountDto>> accountsByUser = new LinkedHashMap<>();
+        List<Long> missed = new ArrayList<>();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            List<AccountDto> cached = accountCacheService.getIfPresent(userId);
+            if (cached != null) {
+                accountsByUser.put(userId, cached);
+            } else {
+                missed.add(userId);
+            }
+        }
+        if (missed.isEmpty()) {
+            return accountsByUser;
+        }
+        Map<Long, List<AccountDto>> found = missed.stream().anyMatch(readYourWritesGuard::recentlyWrote)
+                ? ReplicationRoutingDataSource.onPrimary(() -> findAccounts(missed))
+                : findAccounts(missed);
+        for (Long userId : missed) {
+            List<AccountDto> accounts = found.get(userId);
+            if (accounts != null) {
+                accountsByUser.put(userId, accounts);
+            }
+        }
+        return accountsByUser;
+    }
+
+    private Map<Long, List<AccountDto>> findAccounts(List<Long> userIds) {
+        Map<Long, List<AccountDto>> accountsByUser = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += BATCH_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, userIds.size()));
+            for (Long userId : accountUserRepository.findExistingIds(chunk)) {
+                accountsByUser.put(userId, new ArrayList<>());
+            }
+            for (AccountDto accountDto : accountRepository.findDtosByAccountUserIdIn(chunk)) {
+                accountsByUser.computeIfAbsent(accountDto.getUserId(), key -> new ArrayList<>()).add(accountDto);
+            }
+        }
+        return accountsByUser;
+    }
+
+    private List<AccountDto> findAccounts(Long userId) {
+        if(!accountUserRepository.existsById(userId)) {
+            throw AccountException.rejected(ErrorCode.USER_NOT_FOUND);
+        }
+        return accountRepository.findDtosByAccountUserId(userId);
     }
 
     private AccountUser getAccountUser(Long userId) {
         AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.USER_NOT_FOUND));
         return accountUser;
     }
 }
@@ -0,0 +1,147 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.dto.QueryBalanceResponse;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.TransactionRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 특정 시각의 잔액 조회
+ * 그 시각 이전 마지막 성공 거래의 balanceSnapShot 을 index 로 한 건만 찾는다
+ * (첫 거래 이전이면 첫 거래의 snapshot 에서 금액을 되돌린다)
+ * 다음 거래까지의 구간은 바뀌지 않으므로 계좌별로 최근 구간을 기억해두고,
+ * 마지막 거래 이후의 열린 구간은 새 거래가 생길 수 있어 기억하지 않는다
+ * 잔액 mirror 사용 중에는 거래가 원래 시각으로 나중에(write-behind) 저장되어
+ * 이미 본 구간 사이에도 거래가 생길 수 있으므로 구간을 기억하지 않는다
+ */
+@Service
+public class BalanceHistoryService {
+    private static final PageRequest FIRST = PageRequest.of(0, 1);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final Cache<String, AccountHistory> histories;
+    private final int checkpointsPerAccount;
+    private final boolean cacheable;
+
+    public BalanceHistoryService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            @Value("${account.balance-history.cached-accounts:10000}") long cachedAccounts,
+            @Value("${account.balance-history.checkpoints-per-account:64}") int checkpointsPerAccount,
+            @Value("${account.balance-mirror.enabled:false}") boolean balanceMirrorEnabled) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.histories = Caffeine.newBuilder()
+                .maximumSize(cachedAccounts)
+                .build();
+        this.checkpointsPerAccount = checkpointsPerAccount;
+        this.cacheable = !balanceMirrorEnabled;
+    }
+
+    @Transactional(readOnly = true)
+    public QueryBalanceResponse getBalanceAt(String accountNumber, LocalDateTime at) {
+        AccountHistory history = histories.getIfPresent(accountNumber);
+        if (history == null) {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+            history = new AccountHistory(account.getId(), account.getRegisteredAt(),
+                    new ConcurrentSkipListMap<>());
+        }
+        if (history.registeredAt != null && at.isBefore(history.registeredAt)) {
+            throw AccountException.rejected(ErrorCode.BALANCE_BEFORE_REGISTRATION);
+        }
+
+        Map.Entry<LocalDateTime, Checkpoint> cached = history.checkpoints.floorEntry(at);
+        if (cached != null && at.isBefore(cached.getValue().until)) {
+            return response(accountNumber, at, cached.getValue());
+        }
+
+        List<TransactionDto> before = transactionRepository.findDtosTransactedAtOrBefore(
+                history.accountId, TransactionResultType.S, at, FIRST);
+        List<TransactionDto> after = transactionRepository.findDtosTransactedAfter(
+                history.accountId, TransactionResultType.S, at, FIRST);
+        LocalDateTime until = after.isEmpty() ? null : after.get(0).getTransactedAt();
+
+        Checkpoint checkpoint;
+        if (!before.isEmpty()) {
+            TransactionDto last = before.get(0);
+            checkpoint = new Checkpoint(last.getBalanceSnapShot(), last.getTransactedAt(), until);
+        } else if (until != null) {
+            checkpoint = new Checkpoint(balanceBefore(after.get(0)), null, until);
+        } else {
+            // 성공한 거래가 한 번도 없으면 개설 시 잔액 그대로
+            Account account = accountRepository.findById(history.accountId)
+                    .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+            checkpoint = new Checkpoint(account.getBalance(), null, null);
+        }
+
+        if (until != null && cacheable) {
+            remember(accountNumber, history, checkpoint);
+        }
+        return response(accountNumber, at, checkpoint);
+    }
+
+    private void remember(String accountNumber, AccountHistory history, Checkpoint checkpoint) {
+        LocalDateTime from = checkpoint.transactedAt != null ? checkpoint.transactedAt
+                : history.registeredAt != null ? history.registeredAt : LocalDateTime.MIN;
+        history.checkpoints.put(from, checkpoint);
+        while (history.checkpoints.size() > checkpointsPerAccount) {
+            history.checkpoints.pollFirstEntry();
+        }
+        histories.asMap().putIfAbsent(accountNumber, history);
+    }
+
+    /**
+     * 거래 직전 잔액 - 사용은 snapshot 에 금액을 더하고 취소는 뺀다
+     */
+    private static long balanceBefore(TransactionDto transaction) {
+        return transaction.getTransactionType() == TransactionType.CANCEL
+                ? transaction.getBalanceSnapShot() - transaction.getAmount()
+                : transaction.getBalanceSnapShot() + transaction.getAmount();
+    }
+
+    private static QueryBalanceResponse response(String accountNumber, LocalDateTime at, Checkpoint checkpoint) {
+        return QueryBalanceResponse.builder()
+                .accountNumber(accountNumber)
+                .at(at)
+                .balance(checkpoint.balance)
+                .transactedAt(checkpoint.transactedAt)
+                .build();
+    }
+
+    @AllArgsConstructor
+    private static class AccountHistory {
+        private final Long accountId;
+        private final LocalDateTime registeredAt;
+        // 구간 시작 시각 -> 그 구간의 잔액
+        private final ConcurrentSkipListMap<LocalDateTime, Checkpoint> checkpoints;
+    }
+
+    /**
+     * [transactedAt, until) 동안의 잔액 (transactedAt 이 없으면 첫 거래 이전 구간)
+     */
+    @AllArgsConstructor
+    private static class Checkpoint {
+        private final Long balance;
+        private final LocalDateTime transactedAt;
+        private final LocalDateTime until;
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.DailySpendProperties;
+import com.example.bank_account.config.ReplicationRoutingDataSource;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 계좌 잔액/상태를 Redis hash 에 두고 Lua 스크립트로 원자적으로 검증 + 차감
+ * (lock 취득 + 조회 + 갱신 + lock 해제 대신 Redis 호출 1번)
+ * 같은 스크립트가 변경을 write-behind queue 에 넣고 계좌 hash 의 반영 대기 건수(pending)를 늘린다
+ * DB 반영은 BalanceWriteBehind 가 모아서 처리하고,
+ * 시작 시 warm-up, 주기적인 reconcile 로 DB 와 맞춘다
+ */
+@Slf4j
+@Service
+public class BalanceMirrorService {
+    private static final String KEY_PREFIX = "ACBL";
+    private static final int PAGE_SIZE = 1000;
+    private static final Set<String> RECONCILE_FIELDS =
+            new HashSet<>(Arrays.asList("version", "pending", "status", "balance"));
+
+    static final long NOT_MIRRORED = -1L;
+    static final long USER_UN_MATCH = -2L;
+    static final long ALREADY_UNREGISTERED = -3L;
+    static final long EXCEED_BALANCE = -4L;
+    static final long BALANCE_NOT_EMPTY = -5L;
+
+    // 변경을 write-behind queue 에 넣고 반영 대기 건수를 늘린다 (잔액 변경과 같은 스크립트 안에서)
+    private static final String ENQUEUE =
+            "redis.call('HINCRBY', KEYS[1], 'pending', 1) " +
+            "redis.call('LPUSH', KEYS[2], ARGV[3] .. '|' .. accountId .. '|' .. balance) " +
+            "redis.call('HSET', KEYS[3], ARGV[4], '1') ";
+
+    // KEYS = hash, write-behind queue, 거래 아이디 hash
+    // ARGV = userId, amount, queue 항목 앞부분, 거래 아이디 / 결과 = {잔액 또는 오류 코드, accountId}
+    private static final String DEBIT_SCRIPT =
+            "local h = redis.call('HMGET', KEYS[1], 'userId', 'status', 'balance', 'accountId') " +
+            "if not h[1] then return {-1} end " +
+            "if h[1] ~= ARGV[1] then return {-2} end " +
+            "if h[2] ~= 'IN_USE' then return {-3} end " +
+            "if tonumber(h[3]) < tonumber(ARGV[2]) then return {-4} end " +
+            "redis.call('HINCRBY', KEYS[1], 'version', 1) " +
+            "local accountId = h[4] " +
+            "local balance = redis.call('HINCRBY', KEYS[1], 'balance', -tonumber(ARGV[2])) " +
+            ENQUEUE +
+            "return {balance, accountId}";
+
+    // KEYS = hash, write-behind queue, 거래 아이디 hash
+    // ARGV = (사용하지 않음), amount, queue 항목 앞부분, 거래 아이디
+    private static final String CREDIT_SCRIPT =
+            "local accountId = redis.call('HGET', KEYS[1], 'accountId') " +
+            "if not accountId then return -1 end " +
+            "redis.call('HINCRBY', KEYS[1], 'version', 1) " +
+            "local balance = redis.call('HINCRBY', KEYS[1], 'balance', tonumber(ARGV[2])) " +
+            ENQUEUE +
+            "return balance";
+
+    // KEYS[1] = hash
+    private static final String UNREGISTER_SCRIPT =
+            "local h = redis.call('HMGET', KEYS[1], 'status', 'balance') " +
+            "if not h[1] then return -1 end " +
+            "if h[1] ~= 'IN_USE' then return -3 end " +
+            "if tonumber(h[2]) > 0 then return -5 end " +
+            "redis.call('HSET', KEYS[1], 'status', 'UNREGISTERED') " +
+            "redis.call('HINCRBY', KEYS[1], 'version', 1) " +
+            "return 0";
+
+    // KEYS[1] = hash / 해지를 DB 가 rollback 했을 때 되돌린다
+    private static final String REREGISTER_SCRIPT =
+            "if redis.call('HGET', KEYS[1], 'status') ~= 'UNREGISTERED' then return -1 end " +
+            "redis.call('HSET', KEYS[1], 'status', 'IN_USE') " +
+            "redis.call('HINCRBY', KEYS[1], 'version', 1) " +
+            "return 0";
+
+    // KEYS[1] = hash, ARGV = accountId, userId, status, balance, overwrite(1/0)
+    private static final String LOAD_SCRIPT =
+            "if ARGV[5] == '0' and redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('HMSET', KEYS[1], 'accountId', ARGV[1], 'userId', ARGV[2], " +
+            "'status', ARGV[3], 'balance', ARGV[4]) " +
+            "redis.call('HINCRBY', KEYS[1], 'version', 1) " +
+            "return 1";
+
+    // KEYS[1] = hash, ARGV = expected version, status, balance
+    // 어느 서버든 DB 반영 전 변경이 남아 있으면 DB 값이 Redis 보다 뒤처져 있으므로 맞추지 않는다
+    private static final String RECONCILE_SCRIPT =
+            "local h = redis.call('HMGET', KEYS[1], 'version', 'pending') " +
+            "if h[1] ~= ARGV[1] then return -6 end " +
+            "if tonumber(h[2] or '0') > 0 then return -7 end " +
+            "redis.call('HMSET', KEYS[1], 'status', ARGV[2], 'balance', ARGV[3]) " +
+            "return 0";
+
+    private final RedissonClient redissonClient;
+    private final AccountRepository accountRepository;
+    private final BalanceWriteBehind balanceWriteBehind;
+    private final boolean enabled;
+    private final long reconcileIntervalSeconds;
+
+    private ScheduledExecutorService reconciler;
+
+    public BalanceMirrorService(
+            RedissonClient redissonClient,
+            AccountRepository accountRepository,
+            BalanceWriteBehind balanceWriteBehind,
+            DailySpendProperties dailySpendProperties,
+            @Value("${account.balance-mirror.enabled:false}") boolean enabled,
+            @Value("${account.balance-mirror.reconcile-interval-seconds:60}") long reconcileIntervalSeconds) {
+        // Redis 에서 차감하는 동안 일별 합계는 write-behind 로 늦게 반영되어 한도를 지킬 수 없다
+        if (enabled && dailySpendProperties.getLimit() > 0) {
+            throw new IllegalStateException(
+                    "account.daily-spend.limit must be 0 when account.balance-mirror.enabled is true");
+        }
+        this.redissonClient = redissonClient;
+        this.accountRepository = accountRepository;
+        this.balanceWriteBehind = balanceWriteBehind;
+        this.enabled = enabled;
+        this.reconcileIntervalSeconds = reconcileIntervalSeconds;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        // 이미 있는 값은 덮어쓰지 않는다 - 다른 서버의 반영 대기 중인 차감이 DB 에 아직 없을 수 있고,
+        // DB 와 다른 값은 reconcile 이 반영 대기 건이 없을 때 맞춘다
+        int loaded = forEachAccount(account -> load(account, false));
+        log.info("Balance mirror warmed up with {} new accounts", loaded);
+
+        balanceWriteBehind.start();
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-mirror-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcile,
+                reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+
+    /**
+     * 잔액 사용 (Redis 원자 차감 후 DB 는 write-behind)
+     * 사용자가 계좌 소유주가 아니면 (없는 사용자 포함) USER_ACCOUNT_UN_MATCH
+     */
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        BalanceWriteBehind.PendingTransaction pending = newPending(BalanceWriteBehind.PendingTransaction.builder()
+                .userId(userId)
+                .accountNumber(accountNumber)
+                .transactionType(TransactionType.USE)
+                .amount(amount));
+        List<Object> result = evalMulti(DEBIT_SCRIPT, queueKeys(accountNumber), userId, amount,
+                pending.encodePrefix(), pending.getTransactionId());
+        if (code(result) == NOT_MIRRORED) {
+            loadFromDb(accountNumber);
+            result = evalMulti(DEBIT_SCRIPT, queueKeys(accountNumber), userId, amount,
+                    pending.encodePrefix(), pending.getTransactionId());
+        }
+        throwIfRejected(code(result));
+        return enqueued(pending, code(result));
+    }
+
+    /**
+     * 잔액 사용 취소 (검증과 원래 거래의 취소 표시는 TransactionService 에서 끝난 상태)
+     */
+    public TransactionDto cancelBalance(Account account, Long amount, String cancelledTransactionId) {
+        String accountNumber = account.getAccountNumber();
+        BalanceWriteBehind.PendingTransaction pending = newPending(BalanceWriteBehind.PendingTransaction.builder()
+                .userId(account.getAccountUser().getId())
+                .accountNumber(accountNumber)
+                .transactionType(TransactionType.CANCEL)
+                .amount(amount)
+                .cancelledTransactionId(cancelledTransactionId));
+        long result = eval(CREDIT_SCRIPT, queueKeys(accountNumber), "", amount,
+                pending.encodePrefix(), pending.getTransactionId());
+        if (result == NOT_MIRRORED) {
+            loadFromDb(accountNumber);
+            result = eval(CREDIT_SCRIPT, queueKeys(accountNumber), "", amount,
+                    pending.encodePrefix(), pending.getTransactionId());
+        }
+        throwIfRejected(result);
+        return enqueued(pending, result);
+    }
+
+    /**
+     * 취소할 거래가 아직 write-behind queue 에 있으면 DB 에 반영될 때까지 기다린다
+     */
+    public void awaitFlushed(String transactionId) {
+        balanceWriteBehind.awaitFlushed(transactionId);
+    }
+
+    /**
+     * 계좌 해지 - Redis 에 남은 잔액까지 확인하고 해지 상태로 바꾼다
+     * 잔액 확인과 상태 변경이 원자적이어야 하므로 commit 전에 바꾸고, DB 가 rollback 되면 되돌린다
+     */
+    public void unregister(String accountNumber) {
+        if (!enabled) {
+            return;
+        }
+        long result = eval(UNREGISTER_SCRIPT, accountKey(accountNumber));
+        if (result == NOT_MIRRORED) {
+            return;
+        }
+        throwIfRejected(result);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) {
+                                reregister(accountNumber);
+                            }
+                        }
+                    });
+        }
+    }
+
+    private void reregister(String accountNumber) {
+        try {
+            eval(REREGISTER_SCRIPT, accountKey(accountNumber));
+        } catch (Exception e) {
+            // 남은 차이는 reconcile 이 DB 기준으로 맞춘다
+            log.error("Balance mirror reregister failed: {}", accountNumber, e);
+        }
+    }
+
+    /**
+     * 거래 아이디와 시각은 Lua 스크립트가 queue 에 넣을 수 있도록 미리 정한다
+     */
+    private static BalanceWriteBehind.PendingTransaction newPending(
+            BalanceWriteBehind.PendingTransaction.PendingTransactionBuilder builder) {
+        return builder
+                .transactionId(Transaction.newTransactionId())
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private TransactionDto enqueued(BalanceWriteBehind.PendingTransaction pending, long balanceSnapShot) {
+        balanceWriteBehind.enqueued(pending.getTransactionId());
+
+        return TransactionDto.builder()
+                .accountNumber(pending.getAccountNumber())
+                .transactionType(pending.getTransactionType())
+                .transactionResultType(TransactionResultType.S)
+                .amount(pending.getAmount())
+                .balanceSnapShot(balanceSnapShot)
+                .transactionId(pending.getTransactionId())
+                .transactedAt(pending.getTransactedAt())
+                .build();
+    }
+
+    private void throwIfRejected(long result) {
+        if (result >= 0) {
+            return;
+        }
+        if (result == NOT_MIRRORED) {
+            throw AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND);
+        }
+        if (result == USER_UN_MATCH) {
+            throw AccountException.rejected(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+        if (result == ALREADY_UNREGISTERED) {
+            throw AccountException.rejected(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        if (result == EXCEED_BALANCE) {
+            throw AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+        if (result == BALANCE_NOT_EMPTY) {
+            throw AccountException.rejected(ErrorCode.BALANCE_NOT_EMPTY);
+        }
+        throw AccountException.rejected(ErrorCode.INTERNAL_SERVER_ERROR);
+    }
+
+    private void loadFromDb(String accountNumber) {
+        Account account = ReplicationRoutingDataSource.onPrimary(
+                () -> accountRepository.findByAccountNumber(accountNumber))
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+        load(account, false);
+    }
+
+    private boolean load(Account account, boolean overwrite) {
+        return eval(LOAD_SCRIPT, accountKey(account.getAccountNumber()),
+                account.getId(), account.getAccountUser().getId(),
+                account.getAccountStatus(), account.getBalance(), overwrite ? 1 : 0) == 1;
+    }
+
+    /**
+     * DB 와 Redis 의 잔액/상태가 다른 계좌를 DB 기준으로 맞춘다
+     * 어느 서버든 반영 대기 중인 변경(pending)이 있는 계좌는 건너뛰고, 검사 중 Redis 값이 바뀌면 (version) 포기한다
+     * (DB 반영이 끝나면 pending 을 줄이면서 version 도 올리므로 반영 전 DB 값으로 덮어쓰지 않는다)
+     */
+    void reconcile() {
+        try {
+            int repaired = forEachAccount(this::reconcileAccount);
+            if (repaired > 0) {
+                log.warn("Balance mirror reconciled {} accounts", repaired);
+            }
+        } catch (Exception e) {
+            log.error("Balance mirror reconcile failed", e);
+        }
+    }
+
+    private boolean reconcileAccount(Account account) {
+        String accountNumber = account.getAccountNumber();
+        Map<String, String> mirrored = redissonClient
+                .<String, String>getMap(getKey(accountNumber), StringCodec.INSTANCE)
+                .getAll(RECONCILE_FIELDS);
+        String version = mirrored.get("version");
+        if (version == null || Long.parseLong(mirrored.getOrDefault("pending", "0")) > 0) {
+            return false;
+        }
+        if (Objects.equals(mirrored.get("status"), account.getAccountStatus().name())
+                && Objects.equals(mirrored.get("balance"), String.valueOf(account.getBalance()))) {
+            return false;
+        }
+        // version 을 읽은 뒤 DB 를 다시 읽어야 그 사이에 반영된 변경을 놓치지 않는다
+        Account fresh = ReplicationRoutingDataSource.onPrimary(
+                () -> accountRepository.findById(account.getId())).orElse(null);
+        if (fresh == null) {
+            return false;
+        }
+        return eval(RECONCILE_SCRIPT, accountKey(accountNumber), version,
+                fresh.getAccountStatus(), fresh.getBalance()) == 0;
+    }
+
+    private int forEachAccount(Predicate<Account> action) {
+        int count = 0;
+        Page<Account> page;
+        int pageNumber = 0;
+        do {
+            PageRequest pageRequest = PageRequest.of(pageNumber++, PAGE_SIZE, Sort.by("id"));
+            page = ReplicationRoutingDataSource.onPrimary(() -> accountRepository.findAll(pageRequest));
+            for (Account account : page) {
+                if (action.test(account)) {
+                    count++;
+                }
+            }
+        } while (page.hasNext());
+        return count;
+    }
+
+    private long eval(String script, List<Object> keys, Object... args) {
+        Long result = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER,
+                keys, toValues(args));
+        return result == null ? NOT_MIRRORED : result;
+    }
+
+    private List<Object> evalMulti(String script, List<Object> keys, Object... args) {
+        return redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE, script, RScript.ReturnType.MULTI,
+                keys, toValues(args));
+    }
+
+    private static List<Object> accountKey(String accountNumber) {
+        return Collections.singletonList(getKey(accountNumber));
+    }
+
+    private static List<Object> queueKeys(String accountNumber) {
+        return Arrays.asList(getKey(accountNumber),
+                BalanceWriteBehind.QUEUE_KEY, BalanceWriteBehind.QUEUED_IDS_KEY);
+    }
+
+    private static long code(List<Object> result) {
+        return (Long) result.get(0);
+    }
+
+    private static Object[] toValues(Object... args) {
+        Object[] values = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+        }
+        return values;
+    }
+
+    static String getKey(String accountNumber) {
+        return KEY_PREFIX + accountNumber;
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.BalanceStreamProperties;
+import com.example.bank_account.dto.AccountInfo;
+import com.example.bank_account.dto.ErrorResponse;
+import com.example.bank_account.dto.TransactionEvent;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * 거래 event 를 SSE 구독자에게 전달
+ * OutboxRelay 가 event log 에 기록한 묶음을 Redis pub/sub 으로 모든 서버에 보내고,
+ * 각 서버는 자기 구독자 중 사용자/계좌가 맞는 구독자에게 보낸다
+ * 구독자마다 buffer 를 두고 별도 thread 에서 보내며, buffer 가 차면 느린 구독자로 보고 끊는다
+ * event id 는 Redis 에서 발급한 순번이고, 최근 replaySize 개는 기억해두었다가 Last-Event-ID 이후부터 다시 보낸다
+ * (기억하는 범위를 벗어나면 reset event 를 보내 client 가 잔액을 다시 조회하도록)
+ */
+@Slf4j
+@Component
+public class BalanceStreamBroadcaster {
+    static final String TOPIC = "TRANSACTION_EVENTS";
+    static final String SEQUENCE_KEY = "TRANSACTION_EVENT_ID";
+    static final String TRANSACTION_EVENT = "transaction";
+    static final String BALANCE_EVENT = "balance";
+    static final String RESET_EVENT = "reset";
+    static final String ERROR_EVENT = "error";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final BalanceStreamProperties properties;
+    private final Counter evicted;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // 아래 두 값은 this 로 보호 (받은 순서대로 replay 에 넣고 구독자에게 보낸다)
+    private final Deque<StreamedEvent> replay = new ArrayDeque<>();
+    private long lastEventId;
+
+    private RTopic topic;
+    private int listenerId;
+    private ExecutorService dispatcher;
+    private ScheduledExecutorService heartbeat;
+
+    public BalanceStreamBroadcaster(
+            RedissonClient redissonClient,
+            ObjectMapper objectMapper,
+            BalanceStreamProperties properties,
+            MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.evicted = meterRegistry.counter("balance.stream.evicted");
+        Gauge.builder("balance.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newFixedThreadPool(properties.getDispatchThreads(), daemon("balance-stream"));
+        heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("balance-stream-heartbeat"));
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    @PreDestroy
+    public void stop() {
+        topic.removeListener(listenerId);
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * userId 또는 accountNumber 중 하나로 구독
+     */
+    public SseEmitter subscribe(Long userId, String accountNumber, Long lastEventId) {
+        return subscribe(userId, accountNumber, lastEventId, new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(Long userId, String accountNumber, Long lastEventId, SseEmitter emitter) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            return reject(emitter, ErrorCode.SERVICE_OVERLOADED);
+        }
+        Predicate<TransactionEvent> filter = userId != null
+                ? event -> userId.equals(event.getUserId())
+                : event -> accountNumber.equals(event.getAccountNumber());
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (this) {
+            if (lastEventId != null && lastEventId < this.lastEventId) {
+                if (replay.isEmpty() || replay.peekFirst().getEventId() > lastEventId + 1) {
+                    subscriber.offer(SseEmitter.event().name(RESET_EVENT).id(String.valueOf(this.lastEventId)).data(""));
+                } else {
+                    replay.stream()
+                            .filter(streamed -> streamed.getEventId() > lastEventId)
+                            .filter(streamed -> filter.test(streamed.getEvent()))
+                            .forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * SSE 응답이라 JSON 오류 응답 대신 error event 를 보내고 끊는다
+     */
+    public SseEmitter reject(ErrorCode errorCode) {
+        return reject(new SseEmitter(), errorCode);
+    }
+
+    private SseEmitter reject(SseEmitter emitter, ErrorCode errorCode) {
+        try {
+            emitter.send(SseEmitter.event().name(ERROR_EVENT)
+                    .data(new ErrorResponse(errorCode, errorCode.getDescription()), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * OutboxRelay 가 event log 에 기록한 뒤 호출 - 묶음 하나를 메시지 하나로 모든 서버에 보낸다
+     */
+    public void publish(List<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long last = redissonClient.getAtomicLong(SEQUENCE_KEY).addAndGet(events.size());
+        topic.publish(write(new StreamedBatch(last - events.size() + 1, events)));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    void onMessage(String message) {
+        StreamedBatch batch;
+        try {
+            batch = objectMapper.readValue(message, StreamedBatch.class);
+        } catch (JsonProcessingException e) {
+            log.error("Invalid balance stream message", e);
+            return;
+        }
+        synchronized (this) {
+            long eventId = batch.getFirstEventId();
+            for (TransactionEvent event : batch.getEvents()) {
+                dispatch(new StreamedEvent(eventId++, event));
+            }
+        }
+    }
+
+    private void dispatch(StreamedEvent streamed) {
+        long eventId = streamed.getEventId();
+        if (eventId <= lastEventId) {
+            return;
+        }
+        if (lastEventId > 0 && eventId > lastEventId + 1) {
+            // pub/sub 메시지를 놓쳤으면 그 사이 event 는 다시 보낼 수 없다
+            log.warn("Balance stream missed events {}..{}", lastEventId + 1, eventId - 1);
+            replay.clear();
+            subscribers.forEach(subscriber -> subscriber.offer(
+                    SseEmitter.event().name(RESET_EVENT).id(String.valueOf(eventId - 1)).data("")));
+        }
+        lastEventId = eventId;
+        replay.addLast(streamed);
+        while (replay.size() > properties.getReplaySize()) {
+            replay.pollFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.test(streamed.getEvent())) {
+                subscriber.offer(streamed);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat")));
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Predicate<TransactionEvent> filter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer =
+                new ArrayBlockingQueue<>(properties.getBufferSize());
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Predicate<TransactionEvent> filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        private void offer(StreamedEvent streamed) {
+            TransactionEvent event = streamed.getEvent();
+            String id = String.valueOf(streamed.getEventId());
+            if (event.getTransactionResultType() == TransactionResultType.S) {
+                offer(SseEmitter.event().name(BALANCE_EVENT).id(id)
+                        .data(new AccountInfo(event.getAccountNumber(), event.getBalanceSnapShot()),
+                                MediaType.APPLICATION_JSON));
+            }
+            offer(SseEmitter.event().name(TRANSACTION_EVENT).id(id).data(event, MediaType.APPLICATION_JSON));
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!buffer.offer(event)) {
+                evict();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * 구독자마다 한 thread 만 보낸다 (scheduled)
+         */
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 연결이 끊긴 구독자
+                subscribers.remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (!buffer.isEmpty() && subscribers.contains(this) && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        /**
+         * 끊긴 client 는 Last-Event-ID 로 다시 연결해서 이어받는다
+         */
+        private void evict() {
+            if (subscribers.remove(this)) {
+                evicted.increment();
+                log.warn("Evicted slow balance stream subscriber ({} buffered events)", buffer.size());
+                buffer.clear();
+                emitter.complete();
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class StreamedEvent {
+        private long eventId;
+        private TransactionEvent event;
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class StreamedBatch {
+        private long firstEventId;
+        private List<TransactionEvent> events;
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.OutboxEvent;
+import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.OutboxEventRepository;
+import com.example.bank_account.repository.TransactionRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBlockingQueue;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Redis 에서 처리된 잔액 변경을 모아서 DB 에 반영 (write-behind)
+ * 잔액은 delta 로 반영하므로 사용/취소의 반영 순서와 상관없이 결과가 같다
+ * 변경은 잔액을 바꾸는 Lua 스크립트가 Redis list(QUEUE_KEY)에 같이 넣으므로 응답한 변경은 서버가 죽어도 남는다
+ * 서버마다 queue 에서 처리 중 list 로 옮겨 DB 에 반영하고, 반영이 끝난 뒤에 처리 중 list 와
+ * 계좌 hash 의 반영 대기 건수(pending)에서 뺀다 (시작 시 자기 처리 중 list 는 queue 로 되돌린다)
+ * batch 가 max-attempts 번 연속 실패하면 한 건씩 반영하고, 혼자서도 실패하는 건은 dead-letter list 로 옮긴다
+ * (옮긴 건은 pending 에 남아 계좌의 reconcile 을 막으므로 Redis 잔액은 그대로 유지되고,
+ *  원인을 고친 뒤 queue 로 되돌리면 다시 반영된다)
+ */
+@Slf4j
+@Component
+public class BalanceWriteBehind {
+    static final String QUEUE_KEY = "ACBL_WRITE_BEHIND";
+    // 반영 대기 중인 거래 아이디 (반영 전에 취소하려는 거래 확인용)
+    static final String QUEUED_IDS_KEY = "ACBL_WRITE_BEHIND_IDS";
+    private static final String PROCESSING_KEY_PREFIX = QUEUE_KEY + ":processing:";
+    static final String DEAD_LETTER_KEY = QUEUE_KEY + ":dead";
+    private static final long POLL_SECONDS = 1L;
+    private static final long RETRY_BACKOFF_MILLIS = 1000L;
+    private static final long FLUSH_CHECK_MILLIS = 50L;
+
+    // KEYS[1] = 처리 중 list, KEYS[2] = 거래 아이디 hash, KEYS[i + 2] = ARGV[i] 의 계좌 hash
+    // 처리 중 list 에서 지운 건만 반영 대기 건수에서 뺀다 (두 번 호출되어도 한 번만)
+    private static final String FLUSHED_SCRIPT =
+            "for i = 1, #ARGV do " +
+            "  if redis.call('LREM', KEYS[1], 1, ARGV[i]) == 1 then " +
+            "    redis.call('HDEL', KEYS[2], string.match(ARGV[i], '^[^|]+')) " +
+            "    if redis.call('EXISTS', KEYS[i + 2]) == 1 then " +
+            "      redis.call('HINCRBY', KEYS[i + 2], 'pending', -1) " +
+            "      redis.call('HINCRBY', KEYS[i + 2], 'version', 1) " +
+            "    end " +
+            "  end " +
+            "end " +
+            "return 0";
+
+    // KEYS[1] = 처리 중 list, KEYS[2] = dead-letter list
+    private static final String DEAD_LETTER_SCRIPT =
+            "if redis.call('LREM', KEYS[1], 1, ARGV[1]) == 1 then " +
+            "  redis.call('LPUSH', KEYS[2], ARGV[1]) " +
+            "end " +
+            "return 0";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final AccountCacheService accountCacheService;
+    private final DailySpendService dailySpendService;
+    private final KnownKeyFilter knownKeyFilter;
+    private final RedissonClient redissonClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushWaitMillis;
+    private final int maxAttempts;
+    private final String processingKey;
+    private final Counter deadLetters;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public BalanceWriteBehind(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            OutboxEventRepository outboxEventRepository,
+            AccountCacheService accountCacheService,
+            DailySpendService dailySpendService,
+            KnownKeyFilter knownKeyFilter,
+            RedissonClient redissonClient,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${account.balance-mirror.write-behind-batch-size:100}") int batchSize,
+            @Value("${account.balance-mirror.flush-wait-millis:3000}") long flushWaitMillis,
+            @Value("${account.balance-mirror.write-behind-max-attempts:5}") int maxAttempts,
+            @Value("${cluster.node-id:local}") String workerId) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.accountCacheService = accountCacheService;
+        this.dailySpendService = dailySpendService;
+        this.knownKeyFilter = knownKeyFilter;
+        this.redissonClient = redissonClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.flushWaitMillis = flushWaitMillis;
+        this.maxAttempts = maxAttempts;
+        this.processingKey = PROCESSING_KEY_PREFIX + workerId;
+        this.deadLetters = meterRegistry.counter("balance.write-behind.dead-letter");
+    }
+
+    /**
+     * 지난번에 반영하다 멈춘 변경을 queue 로 되돌리고 반영을 시작한다
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        int recovered = 0;
+        while (processingQueue().pollLastAndOfferFirstTo(QUEUE_KEY) != null) {
+            recovered++;
+        }
+        if (recovered > 0) {
+            log.warn("Write-behind recovered {} unfinished transactions", recovered);
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "balance-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 처리 중인 batch 까지만 반영하고 멈춘다 (queue 에 남은 변경은 Redis 에 그대로 남는다)
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.join();
+    }
+
+    /**
+     * Lua 스크립트가 queue 에 넣은 뒤 호출
+     * 거래 아이디는 DB 반영 전에 응답으로 나가므로 여기서 Bloom filter 에 추가
+     */
+    public void enqueued(String transactionId) {
+        knownKeyFilter.addTransaction(transactionId);
+    }
+
+    /**
+     * 아직 DB 에 반영되지 않은 거래면 반영될 때까지 기다린다 (반영 전에 취소하려는 거래)
+     * 기다려도 반영되지 않으면 다시 시도하도록 실패 응답
+     */
+    public void awaitFlushed(String transactionId) {
+        RMap<String, String> queuedIds = redissonClient.getMap(QUEUED_IDS_KEY, StringCodec.INSTANCE);
+        long deadline = System.currentTimeMillis() + flushWaitMillis;
+        while (queuedIds.containsKey(transactionId)) {
+            if (System.currentTimeMillis() >= deadline) {
+                throw AccountException.rejected(ErrorCode.TRANSACTION_NOT_FLUSHED);
+            }
+            try {
+                Thread.sleep(FLUSH_CHECK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw AccountException.rejected(ErrorCode.TRANSACTION_NOT_FLUSHED);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        RBlockingQueue<String> queue = queue();
+        List<String> batch = new ArrayList<>(batchSize);
+        int failures = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    String first = queue.pollLastAndOfferFirstTo(processingKey, POLL_SECONDS, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    String next;
+                    while (batch.size() < batchSize
+                            && (next = queue.pollLastAndOfferFirstTo(processingKey)) != null) {
+                        batch.add(next);
+                    }
+                }
+                // 실패하면 같은 batch 를 다시 반영한다 (처리 중 list 에 남아 있음)
+                if (failures < maxAttempts) {
+                    flush(batch);
+                } else {
+                    flushEach(batch);
+                }
+                batch.clear();
+                failures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failures++;
+                log.error("Write-behind flush failed ({}/{}), retrying {} transactions",
+                        failures, maxAttempts, batch.size(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * 한 건씩 반영하고, 혼자서도 실패하는 건은 dead-letter list 로 옮긴다
+     * DB 연결 실패처럼 모든 건이 실패할 오류는 옮기지 않고 남은 건을 다시 시도한다 (처리한 건은 entries 에서 뺀다)
+     */
+    void flushEach(List<String> entries) {
+        for (Iterator<String> iterator = entries.iterator(); iterator.hasNext(); ) {
+            String entry = iterator.next();
+            try {
+                flush(List.of(entry));
+            } catch (TransientDataAccessException | CannotCreateTransactionException e) {
+                throw e;
+            } catch (Exception e) {
+                deadLetter(entry, e);
+            }
+            iterator.remove();
+        }
+    }
+
+    private void deadLetter(String entry, Exception cause) {
+        redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                DEAD_LETTER_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(processingKey, DEAD_LETTER_KEY), entry);
+        deadLetters.increment();
+        log.error("Write-behind moved transaction to {}: {}", DEAD_LETTER_KEY, entry, cause);
+    }
+
+    void flush(List<String> entries) {
+        List<PendingTransaction> batch = entries.stream()
+                .map(PendingTransaction::decode)
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            // DB 반영 후 Redis 정리 전에 멈췄던 변경은 다시 반영하지 않는다
+            Set<String> saved = new HashSet<>(transactionRepository.findExistingTransactionIds(
+                    batch.stream().map(PendingTransaction::getTransactionId).collect(Collectors.toList())));
+            // 취소는 원래 사용 거래의 날짜에 반영 (원래 거래는 취소 전에 이미 반영되어 있다)
+            Map<String, LocalDateTime> spentAt = transactionRepository.findByTransactionIdIn(
+                    batch.stream()
+                            .map(PendingTransaction::getCancelledTransactionId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(Transaction::getTransactionId, Transaction::getTransactedAt));
+            List<Transaction> transactions = new ArrayList<>(batch.size());
+            List<OutboxEvent> outboxEvents = new ArrayList<>(batch.size());
+            for (PendingTransaction pending : batch) {
+                if (saved.contains(pending.getTransactionId())) {
+                    continue;
+                }
+                accountRepository.changeBalance(pending.getAccountId(), pending.getDelta());
+                Account account = accountRepository.getReferenceById(pending.getAccountId());
+                Transaction transaction = pending.toTransaction(account);
+                transactions.add(transaction);
+                dailySpendService.record(account, pending.getAccountNumber(),
+                        pending.getTransactionType(), pending.getAmount(),
+                        pending.getCancelledTransactionId() == null ? pending.getTransactedAt()
+                                : spentAt.getOrDefault(pending.getCancelledTransactionId(),
+                                        pending.getTransactedAt()));
+                outboxEvents.add(OutboxEvent.of(
+                        transaction, pending.getAccountNumber(), pending.getUserId()));
+            }
+            transactionRepository.saveAll(transactions);
+            outboxEventRepository.saveAll(outboxEvents);
+        });
+
+        List<Object> keys = new ArrayList<>(entries.size() + 2);
+        keys.add(processingKey);
+        keys.add(QUEUED_IDS_KEY);
+        for (PendingTransaction pending : batch) {
+            keys.add(BalanceMirrorService.getKey(pending.getAccountNumber()));
+        }
+        redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                FLUSHED_SCRIPT, RScript.ReturnType.INTEGER, keys, entries.toArray());
+        for (PendingTransaction pending : batch) {
+            accountCacheService.evict(pending.getUserId());
+        }
+    }
+
+    private RBlockingQueue<String> queue() {
+        return redissonClient.getBlockingQueue(QUEUE_KEY, StringCodec.INSTANCE);
+    }
+
+    private RBlockingQueue<String> processingQueue() {
+        return redissonClient.getBlockingQueue(processingKey, StringCodec.INSTANCE);
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * queue 의 한 항목
+     * transactionId|transactedAt|userId|accountNumber|transactionType|amount|cancelledTransactionId
+     * 뒤에 Lua 스크립트가 |accountId|balanceSnapShot 을 붙인다
+     */
+    @Getter
+    @AllArgsConstructor
+    @Builder
+    public static class PendingTransaction {
+        private static final String DELIMITER = "|";
+
+        private Long accountId;
+        private Long userId;
+        private String accountNumber;
+        private TransactionType transactionType;
+        private Long amount;
+        private Long balanceSnapShot;
+        private String transactionId;
+        private LocalDateTime transactedAt;
+        // 취소 거래이면 원래 거래 아이디
+        private String cancelledTransactionId;
+
+        public long getDelta() {
+            return transactionType == TransactionType.USE ? -amount : amount;
+        }
+
+        /**
+         * Lua 스크립트에 넘기는 앞부분 (accountId, balanceSnapShot 은 스크립트가 붙인다)
+         */
+        String encodePrefix() {
+            return String.join(DELIMITER, transactionId, transactedAt.toString(),
+                    String.valueOf(userId), accountNumber, transactionType.name(),
+                    String.valueOf(amount), cancelledTransactionId == null ? "" : cancelledTransactionId);
+        }
+
+        static PendingTransaction decode(String entry) {
+            String[] fields = entry.split("\\|", -1);
+            return PendingTransaction.builder()
+                    .transactionId(fields[0])
+                    .transactedAt(LocalDateTime.parse(fields[1]))
+                    .userId(Long.valueOf(fields[2]))
+                    .accountNumber(fields[3])
+                    .transactionType(TransactionType.valueOf(fields[4]))
+                    .amount(Long.valueOf(fields[5]))
+                    .cancelledTransactionId(fields[6].isEmpty() ? null : fields[6])
+                    .accountId(Long.valueOf(fields[7]))
+                    .balanceSnapShot(Long.valueOf(fields[8]))
+                    .build();
+        }
+
+        Transaction toTransaction(Account account) {
+            return Transaction.builder()
+                    .transactionType(transactionType)
+                    .transactionResultType(TransactionResultType.S)
+                    .account(account)
+                    .amount(amount)
+                    .balanceSnapShot(balanceSnapShot)
+                    .transactionId(transactionId)
+                    .transactedAt(transactedAt)
+                    .cancelledTransactionId(cancelledTransactionId)
+                    .build();
+        }
+    }
+}
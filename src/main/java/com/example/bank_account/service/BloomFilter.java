@@ -0,0 +1,87 @@
+package com.example.bank_account.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 문자열 key 의 Bloom filter (lock 없이 추가/확인)
+ * 없다고 답하면 넣은 적이 없는 key 이고, 있다고 답해도 falsePositiveRate 확률로 없는 key 일 수 있다
+ * 크기는 처음에 정하므로 expectedInsertions 보다 많이 넣으면 오답률만 올라간다 (없는 key 를 있다고 하는 쪽으로)
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1L, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bits = (long) wordCount * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bits);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.accumulateAndGet(word, mask, (current, bit) -> current | bit);
+            }
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 넣은 횟수 (같은 key 를 여러 번 넣으면 여러 번 센다)
+     */
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    /**
+     * FNV-1a 후 murmur3 의 fmix64 로 섞은 64bit hash (상위/하위 32bit 를 두 hash 로 사용)
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
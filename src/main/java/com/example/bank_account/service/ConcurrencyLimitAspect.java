@@ -0,0 +1,73 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.aop.ConcurrencyLimited;
+import com.example.bank_account.config.ConcurrencyLimitProperties;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.RequestType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 동시 처리 한도를 넘는 요청은 lock, DB 를 기다리지 않고 SERVICE_OVERLOADED 로 바로 거절
+ * 요청 수 제한(RateLimitAspect) 다음, LockAopAspect 바깥에서 실행
+ */
+@Aspect
+@Component
+@Order(1)
+public class ConcurrencyLimitAspect {
+    private final boolean enabled;
+    private final Map<RequestType, ConcurrencyLimiter> limiters = new EnumMap<>(RequestType.class);
+
+    public ConcurrencyLimitAspect(
+            ConcurrencyLimitProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = properties.isEnabled();
+        limiters.put(RequestType.READ, new ConcurrencyLimiter(properties.getRead()));
+        limiters.put(RequestType.WRITE, new ConcurrencyLimiter(properties.getWrite()));
+        limiters.forEach((type, limiter) -> {
+            Gauge.builder("concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        });
+    }
+
+    @Around("@annotation(concurrencyLimited)")
+    public Object aroundMethod(
+            ProceedingJoinPoint proceedingJoinPoint,
+            ConcurrencyLimited concurrencyLimited
+    ) throws Throwable {
+        if (!enabled) {
+            return proceedingJoinPoint.proceed();
+        }
+        ConcurrencyLimiter limiter = limiters.get(concurrencyLimited.value());
+        if (!limiter.tryAcquire()) {
+            throw AccountException.rejected(ErrorCode.SERVICE_OVERLOADED);
+        }
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return proceedingJoinPoint.proceed();
+        } catch (AccountException e) {
+            // 업무 거절은 정상 응답으로 본다
+            throw e;
+        } catch (Throwable e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 지연 시간으로 조절하는 동시 처리 한도 (gradient)
+ * 평소 지연보다 최근 지연이 길어지면 한도를 줄이고, 한도 가까이 쓰이는데 지연이 그대로면 늘린다
+ * 한도를 넘는 요청은 기다리게 하지 않고 바로 거절한다
+ */
+public class ConcurrencyLimiter {
+    private final ConcurrencyLimitProperties.Limit config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // onSample 안에서만 사용
+    private double longRttNanos;
+    private long samples;
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties.Limit config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param dropped 과부하로 실패한 요청 (DB timeout 등)
+     */
+    public void release(long rttNanos, boolean dropped) {
+        onSample(rttNanos, inFlight.getAndDecrement(), dropped);
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightCount, boolean dropped) {
+        double rtt = Math.max(rttNanos, 1L);
+        // 평소 지연: 처음 longWindow 건은 평균, 이후에는 지수 이동 평균
+        samples++;
+        if (samples <= config.getLongWindow()) {
+            longRttNanos += (rtt - longRttNanos) / samples;
+        } else {
+            longRttNanos += (rtt - longRttNanos) * 2 / (config.getLongWindow() + 1);
+        }
+        // 부하가 빠진 뒤 늘어난 평소 지연에 계속 머물지 않도록
+        if (longRttNanos / rtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double newLimit;
+        if (dropped) {
+            newLimit = limit * config.getBackoffRatio();
+        } else if (inFlightCount * 2 < limit) {
+            // 한도의 절반도 쓰이지 않을 때의 지연으로는 한도를 판단하지 않음
+            return;
+        } else {
+            double gradient = Math.max(0.5,
+                    Math.min(1.0, config.getRttTolerance() * longRttNanos / rtt));
+            newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - config.getSmoothing()) + newLimit * config.getSmoothing();
+        }
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
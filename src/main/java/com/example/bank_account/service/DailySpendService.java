@@ -0,0 +1,118 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.DailySpendProperties;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.DailySpend;
+import com.example.bank_account.dto.DailySpendDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.DailySpendRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 계좌별 일별 사용 합계와 하루 사용 한도
+ * 성공한 사용/취소를 저장할 때 그 날의 합계 한 행만 갱신하므로
+ * 한도 검사와 조회 모두 그 날의 거래 수와 상관없이 한 행만 읽는다
+ * 조회용으로 commit 된 합계를 메모리에 두고, 다른 서버의 갱신은 expire-after-write 후 반영된다
+ */
+@Service
+public class DailySpendService {
+    private static final String DELIMITER = ":";
+
+    private final DailySpendRepository dailySpendRepository;
+    private final AccountRepository accountRepository;
+    private final DailySpendProperties properties;
+    private final Cache<String, DailySpendDto> dailySpends;
+
+    public DailySpendService(
+            DailySpendRepository dailySpendRepository,
+            AccountRepository accountRepository,
+            DailySpendProperties properties) {
+        this.dailySpendRepository = dailySpendRepository;
+        this.accountRepository = accountRepository;
+        this.properties = properties;
+        this.dailySpends = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+    }
+
+    /**
+     * 오늘 합계와 아직 확정/취소/만료되지 않은 승인 금액에 amount 를 더해도 한도 이내인지
+     * (승인은 확정할 때 합계에 반영되므로, 잡아둔 금액을 빼고 보면 승인을 여러 번 받아 한도를 넘길 수 있음)
+     * 갱신과 같은 행을 DB transaction 안에서 읽으므로 계좌 lock 아래에서는 정확하다
+     */
+    public void checkLimit(Account account, Long amount) {
+        if (properties.getLimit() <= 0) {
+            return;
+        }
+        long spent = dailySpendRepository.findByAccountIdAndSpendDate(account.getId(), LocalDate.now())
+                .map(DailySpend::getNetAmount)
+                .orElse(0L);
+        if (spent + account.getHeldBalance() + amount > properties.getLimit()) {
+            throw AccountException.rejected(ErrorCode.DAILY_LIMIT_EXCEEDED);
+        }
+    }
+
+    /**
+     * 성공한 거래를 그 날의 합계에 반영 (거래를 저장하는 DB transaction 안에서 호출)
+     * 취소는 취소한 날이 아니라 원래 사용 거래의 날짜(spentAt)에서 뺀다
+     */
+    public void record(Account account, String accountNumber,
+                       TransactionType transactionType, Long amount, LocalDateTime spentAt) {
+        LocalDate spendDate = spentAt.toLocalDate();
+        DailySpend dailySpend = dailySpendRepository
+                .findByAccountIdAndSpendDate(account.getId(), spendDate)
+                .orElseGet(() -> dailySpendRepository.save(DailySpend.builder()
+                        .account(account)
+                        .spendDate(spendDate)
+                        .build()));
+        dailySpend.add(transactionType, amount);
+
+        String key = key(accountNumber, spendDate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // commit 전에 넣으면 rollback 된 합계가 남을 수 있다
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            dailySpends.put(key, DailySpendDto.fromEntity(accountNumber, dailySpend));
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) {
+                                dailySpends.invalidate(key);
+                            }
+                        }
+                    });
+        } else {
+            dailySpends.invalidate(key);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public DailySpendDto getDailySpend(String accountNumber, LocalDate spendDate) {
+        return dailySpends.get(key(accountNumber, spendDate), key -> {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+            return dailySpendRepository.findByAccountIdAndSpendDate(account.getId(), spendDate)
+                    .map(dailySpend -> DailySpendDto.fromEntity(accountNumber, dailySpend))
+                    .orElseGet(() -> DailySpendDto.empty(accountNumber, spendDate));
+        });
+    }
+
+    private static String key(String accountNumber, LocalDate spendDate) {
+        return accountNumber + DELIMITER + spendDate;
+    }
+}
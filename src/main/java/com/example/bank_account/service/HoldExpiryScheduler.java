@@ -0,0 +1,93 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.cluster.OwnershipSettledEvent;
+import com.example.bank_account.config.HoldProperties;
+import com.example.bank_account.domain.BalanceHold;
+import com.example.bank_account.domain.HoldStatus;
+import com.example.bank_account.repository.BalanceHoldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 확정/취소되지 않은 승인을 만료 시각에 풀어준다
+ * 서버가 재시작되면 DB 의 HELD 승인을 다시 등록 (여러 서버가 같은 승인을 만료시켜도 한 번만 반영)
+ * cluster 에서는 담당이 바뀔 때 새로 맡은 계좌의 승인도 등록 (승인한 서버가 죽어도 풀리도록)
+ */
+@Slf4j
+@Component
+public class HoldExpiryScheduler {
+    private final TransactionService transactionService;
+    private final BalanceHoldRepository balanceHoldRepository;
+    private final HoldProperties holdProperties;
+    private final ClusterMembership clusterMembership;
+    private final TimerWheel<String> timerWheel;
+
+    public HoldExpiryScheduler(
+            TransactionService transactionService,
+            BalanceHoldRepository balanceHoldRepository,
+            HoldProperties holdProperties,
+            ClusterMembership clusterMembership) {
+        this.transactionService = transactionService;
+        this.balanceHoldRepository = balanceHoldRepository;
+        this.holdProperties = holdProperties;
+        this.clusterMembership = clusterMembership;
+        this.timerWheel = new TimerWheel<>("hold-expiry",
+                holdProperties.getTick().toNanos(), holdProperties.getWheelSize(), this::expire);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        timerWheel.start();
+        List<BalanceHold> holds = balanceHoldRepository.findByStatus(HoldStatus.HELD);
+        holds.forEach(hold -> schedule(hold.getHoldId(), hold.getExpiresAt()));
+        log.info("Hold expiry scheduler started with {} holds", holds.size());
+    }
+
+    /**
+     * 담당이 바뀐 뒤 grace 가 지나면 새로 맡은 계좌의 HELD 승인을 등록
+     * 이미 등록된 승인은 같은 만료 시각으로 다시 등록된다
+     */
+    @EventListener(OwnershipSettledEvent.class)
+    public void onOwnershipSettled() {
+        int count = 0;
+        for (BalanceHold hold : balanceHoldRepository.findWithAccountByStatus(HoldStatus.HELD)) {
+            if (clusterMembership.isLocal(hold.getAccount().getAccountNumber())) {
+                schedule(hold.getHoldId(), hold.getExpiresAt());
+                count++;
+            }
+        }
+        log.info("Ownership settled, scheduled {} holds", count);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        timerWheel.stop();
+    }
+
+    public void schedule(String holdId, LocalDateTime expiresAt) {
+        timerWheel.schedule(holdId,
+                Duration.between(LocalDateTime.now(), expiresAt).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void cancel(String holdId) {
+        timerWheel.cancel(holdId);
+    }
+
+    private void expire(String holdId) {
+        try {
+            transactionService.expireHold(holdId);
+        } catch (Exception e) {
+            log.error("Failed to expire hold {}, retrying in {}", holdId, holdProperties.getRetryDelay(), e);
+            timerWheel.schedule(holdId, holdProperties.getRetryDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
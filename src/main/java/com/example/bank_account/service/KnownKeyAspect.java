@@ -0,0 +1,51 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.TransactionIdInterface;
+import com.example.bank_account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 없는 계좌번호/거래 아이디 요청은 lock, 실패 거래 저장 없이 바로 거절
+ * (filter 에 없으면 그 key 만 DB 에서 한 번 확인)
+ * (LockAopAspect 바깥에서 실행)
+ */
+@Aspect
+@Component
+@Order(3)
+public class KnownKeyAspect {
+    private final KnownKeyFilter knownKeyFilter;
+    private final Counter unknownAccounts;
+    private final Counter unknownTransactions;
+
+    public KnownKeyAspect(KnownKeyFilter knownKeyFilter, MeterRegistry meterRegistry) {
+        this.knownKeyFilter = knownKeyFilter;
+        this.unknownAccounts = meterRegistry.counter("known.keys.rejected", "key", "account");
+        this.unknownTransactions = meterRegistry.counter("known.keys.rejected", "key", "transaction");
+    }
+
+    @Around("(@annotation(com.example.bank_account.aop.AccountLock) " +
+            "|| @annotation(com.example.bank_account.aop.OwnerRouted)) && args(request)")
+    public Object aroundMethod(
+            ProceedingJoinPoint proceedingJoinPoint,
+            AccountLockIdInterface request
+    ) throws Throwable {
+        if (knownKeyFilter.isUnknownAccount(request.getAccountNumber())) {
+            unknownAccounts.increment();
+            throw AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND);
+        }
+        if (request instanceof TransactionIdInterface
+                && knownKeyFilter.isUnknownTransaction(((TransactionIdInterface) request).getTransactionId())) {
+            unknownTransactions.increment();
+            throw AccountException.rejected(ErrorCode.TRANSACTION_NOT_FOUND);
+        }
+        return proceedingJoinPoint.proceed();
+    }
+}
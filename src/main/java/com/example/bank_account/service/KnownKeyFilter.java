@@ -0,0 +1,175 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.KnownKeyProperties;
+import com.example.bank_account.config.ReplicationRoutingDataSource;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.stream.Stream;
+
+/**
+ * 존재하는 계좌번호/거래 아이디의 Bloom filter
+ * 없는 key 로 들어온 요청을 lock, 실패 거래 저장 전에 거절한다
+ * 시작 시 DB 에서 다시 채우고(그 전에는 모두 통과), 계좌/거래를 만들 때마다 추가하며
+ * 다른 서버에서 만든 key 는 Redis pub/sub 으로 받는다
+ * pub/sub 은 늦거나 (연결이 끊기면) 유실될 수 있으므로 filter 에 없는 key 는
+ * primary DB (와 write-behind 대기 거래)에서 한 번 더 확인하고, 있으면 filter 에 넣는다
+ */
+@Slf4j
+@Component
+public class KnownKeyFilter {
+    static final String TOPIC = "KNOWN_KEYS";
+    static final String ACCOUNT_PREFIX = "A";
+    static final String TRANSACTION_PREFIX = "T";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final RedissonClient redissonClient;
+    private final TransactionTemplate transactionTemplate;
+    private final KnownKeyProperties properties;
+    private final BloomFilter accounts;
+    private final BloomFilter transactions;
+    // filter 에 없었지만 실제로 있던 key (다른 서버에서 만든 key 를 아직 받지 못한 경우)
+    private final Counter missedAccounts;
+    private final Counter missedTransactions;
+
+    private volatile boolean ready;
+    private RTopic topic;
+
+    public KnownKeyFilter(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            RedissonClient redissonClient,
+            PlatformTransactionManager transactionManager,
+            KnownKeyProperties properties,
+            MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.redissonClient = redissonClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.accounts = new BloomFilter(properties.getExpectedAccounts(), properties.getFalsePositiveRate());
+        this.transactions = new BloomFilter(
+                properties.getExpectedTransactions(), properties.getFalsePositiveRate());
+        this.missedAccounts = meterRegistry.counter("known.keys.missed", "key", "account");
+        this.missedTransactions = meterRegistry.counter("known.keys.missed", "key", "transaction");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!properties.isEnabled() || !properties.isBroadcast()) {
+            return;
+        }
+        topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    /**
+     * 시작 전 DB 에 있던 key 로 채운다 (채우는 중에 추가된 key 도 같은 filter 에 들어간다)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> accountNumbers = accountRepository.streamAllAccountNumbers()) {
+                accountNumbers.forEach(accounts::put);
+            }
+            try (Stream<String> transactionIds = transactionRepository.streamAllTransactionIds()) {
+                transactionIds.forEach(transactions::put);
+            }
+        });
+        ready = true;
+        log.info("Known key filter built in {} ms (accounts: {}, transactions: {})",
+                (System.nanoTime() - start) / 1_000_000,
+                accounts.getInsertions(), transactions.getInsertions());
+        warnIfSaturated(accounts, "accounts");
+        warnIfSaturated(transactions, "transactions");
+    }
+
+    /**
+     * true 이면 확실히 없는 계좌번호 (filter 를 채우기 전이나 꺼져 있으면 항상 false)
+     */
+    public boolean isUnknownAccount(String accountNumber) {
+        if (!ready || accounts.mightContain(accountNumber)) {
+            return false;
+        }
+        if (ReplicationRoutingDataSource.onPrimary(
+                () -> accountRepository.existsByAccountNumber(accountNumber))) {
+            missedAccounts.increment();
+            accounts.put(accountNumber);
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isUnknownTransaction(String transactionId) {
+        if (!ready || transactions.mightContain(transactionId)) {
+            return false;
+        }
+        if (isQueued(transactionId) || ReplicationRoutingDataSource.onPrimary(
+                () -> transactionRepository.existsByTransactionId(transactionId))) {
+            missedTransactions.increment();
+            transactions.put(transactionId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 잔액 mirror 사용 시 DB 반영 전 거래
+     */
+    private boolean isQueued(String transactionId) {
+        return redissonClient.getMap(BalanceWriteBehind.QUEUED_IDS_KEY, StringCodec.INSTANCE)
+                .containsKey(transactionId);
+    }
+
+    /**
+     * commit 전에 추가한다 - rollback 되어도 통과만 시킬 뿐이지만, 늦게 추가하면 만든 key 를 거절할 수 있다
+     */
+    public void addAccount(String accountNumber) {
+        accounts.put(accountNumber);
+        broadcast(ACCOUNT_PREFIX, accountNumber);
+    }
+
+    public void addTransaction(String transactionId) {
+        transactions.put(transactionId);
+        broadcast(TRANSACTION_PREFIX, transactionId);
+    }
+
+    void onMessage(String message) {
+        String key = message.substring(1);
+        if (message.startsWith(ACCOUNT_PREFIX)) {
+            accounts.put(key);
+        } else if (message.startsWith(TRANSACTION_PREFIX)) {
+            transactions.put(key);
+        }
+    }
+
+    private void broadcast(String prefix, String key) {
+        if (topic != null) {
+            topic.publishAsync(prefix + key);
+        }
+    }
+
+    private static void warnIfSaturated(BloomFilter filter, String name) {
+        if (filter.getInsertions() > filter.getExpectedInsertions()) {
+            log.warn("Known key filter for {} holds {} keys (expected {}), raise known-keys.expected-{}",
+                    name, filter.getInsertions(), filter.getExpectedInsertions(), name);
+        }
+    }
+}
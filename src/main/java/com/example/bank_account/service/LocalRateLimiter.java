@@ -0,0 +1,52 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * 서버 메모리의 token bucket (단일 서버용)
+ */
+public class LocalRateLimiter implements RateLimiter {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public LocalRateLimiter(long maximumBuckets, Duration expireAfterAccess) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimitProperties.Bucket bucket) {
+        return buckets.get(key, k -> new TokenBucket(bucket.getCapacity(), System.nanoTime()))
+                .tryAcquire(bucket, System.nanoTime());
+    }
+
+    static class TokenBucket {
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(long capacity, long now) {
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryAcquire(RateLimitProperties.Bucket bucket, long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(bucket.getCapacity(),
+                        tokens + (now - refilledAt) * bucket.getRefillPerSecond() / NANOS_PER_SECOND);
+                refilledAt = now;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
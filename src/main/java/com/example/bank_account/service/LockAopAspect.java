@@ -2,6 +2,7 @@ package com.example.bank_account.service;
 
 import com.example.bank_account.aop.AccountLockIdInterface;
 import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.timing.RequestTiming;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -16,19 +17,27 @@ import org.springframework.stereotype.Component;
 public class LockAopAspect {
 
     private final LockService lockService;
+    private final BalanceMirrorService balanceMirrorService;
 
     @Around("@annotation(com.example.bank_account.aop.AccountLock) && args(request)")
     public Object aroundMethod(
             ProceedingJoinPoint proceedingJoinPoint,
             AccountLockIdInterface request
     ) throws Throwable {
+        // Redis 잔액 mirror 사용 시에는 Lua 스크립트가 원자성을 보장
+        if (balanceMirrorService.isEnabled()) {
+            return proceedingJoinPoint.proceed();
+        }
         // lock 취득 시도
+        long lockStart = System.nanoTime();
         lockService.lock(request.getAccountNumber());
+        long holdStart = RequestTiming.record(RequestTiming.Phase.LOCK_WAIT, lockStart);
         try {
             return proceedingJoinPoint.proceed();
         } finally {
             // lock 해제
             lockService.unlock(request.getAccountNumber());
+            RequestTiming.record(RequestTiming.Phase.LOCK_HOLD, holdStart);
         }
     }
 }
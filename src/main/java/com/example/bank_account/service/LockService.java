@@ -1,42 +1,88 @@
 package com.example.bank_account.service;
 
 import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.cluster.LocalAccountLocks;
+import com.example.bank_account.jfr.LockAcquireEvent;
+import com.example.bank_account.jfr.LockReleaseEvent;
 import com.example.bank_account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * 계좌 lock - 기본은 Redis lock 이고,
+ * cluster 모드에서는 계좌 담당 서버에만 요청이 오므로 서버 안의 lock 으로 충분하다
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LockService {
+    static final String LOCK_WAIT_METRIC = "account.lock.wait";
+    static final String LOCK_HOLD_METRIC = "account.lock.hold";
+
     private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final ClusterMembership clusterMembership;
+    private final LocalAccountLocks localAccountLocks = new LocalAccountLocks();
+
+    // lock 을 잡고 있는 계좌별 hold 시간 측정 시작점
+    private final ConcurrentHashMap<String, Timer.Sample> holdSamples = new ConcurrentHashMap<>();
 
     public void lock(String accountNumber) {
-        RLock lock = redissonClient.getLock(getLockKey(accountNumber));
         log.debug("Trying lock for accountNumber : {}", accountNumber);
 
+        LockAcquireEvent event = new LockAcquireEvent();
+        event.begin();
+        Timer.Sample waitSample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
+            boolean isLock = clusterMembership.isEnabled()
+                    ? localAccountLocks.tryLock(accountNumber, 1, TimeUnit.SECONDS)
+                    : redissonClient.getLock(getLockKey(accountNumber)).tryLock(1, 15, TimeUnit.SECONDS);
             if(!isLock) {
+                outcome = "timeout";
                 log.error("======Lock acquisition failed======");
-                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                throw AccountException.rejected(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
             }
+            outcome = "acquired";
+            holdSamples.put(accountNumber, Timer.start(meterRegistry));
 
         } catch (AccountException e) {
             throw e;
         } catch (Exception e) {
             log.error("Redis lock failed");
+        } finally {
+            waitSample.stop(meterRegistry.timer(LOCK_WAIT_METRIC, "outcome", outcome));
+            event.finish(accountNumber, "acquired".equals(outcome));
         }
     }
 
     public void unlock(String accountNumber) {
         log.debug("Unlock for accountNumber : {}", accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
+        LockReleaseEvent event = new LockReleaseEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            if (clusterMembership.isEnabled()) {
+                localAccountLocks.unlock(accountNumber);
+            } else {
+                redissonClient.getLock(getLockKey(accountNumber)).unlock();
+            }
+            outcome = "released";
+        } finally {
+            event.finish(accountNumber, "released".equals(outcome));
+            Timer.Sample holdSample = holdSamples.remove(accountNumber);
+            if (holdSample != null) {
+                holdSample.stop(meterRegistry.timer(LOCK_HOLD_METRIC, "outcome", outcome));
+            }
+        }
     }
 
     private static String getLockKey(String accountNumber) {
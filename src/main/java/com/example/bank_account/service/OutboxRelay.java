@@ -0,0 +1,149 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.config.OutboxProperties;
+import com.example.bank_account.config.ReplicationRoutingDataSource;
+import com.example.bank_account.domain.OutboxEvent;
+import com.example.bank_account.dto.TransactionEvent;
+import com.example.bank_account.eventlog.SegmentedEventLog;
+import com.example.bank_account.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * outbox 를 id 순서로 읽어 event log 에 기록한 뒤 지운다
+ * 기록 후 지우기 전에 죽으면 다시 기록되므로 event log 는 at-least-once
+ * cluster 모드에서는 outbox.relay-node-id 로 정한 서버, 없으면 RELAY_KEY 를 맡은 서버 하나만 옮긴다
+ * (event log 는 서버 로컬 파일이므로 relay 서버가 바뀌면 서버마다 일부씩 나뉘어 남는다)
+ * 기록한 event 는 BalanceStreamBroadcaster 로 모든 서버의 SSE 구독자에게도 보낸다
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    static final String RELAY_KEY = "outbox-relay";
+    private static final long RETRY_BACKOFF_MILLIS = 1000L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final SegmentedEventLog transactionEventLog;
+    private final ObjectMapper objectMapper;
+    private final ClusterMembership clusterMembership;
+    private final BalanceStreamBroadcaster balanceStreamBroadcaster;
+    private final OutboxProperties properties;
+
+    private Thread relay;
+    private volatile boolean running;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            SegmentedEventLog transactionEventLog,
+            ObjectMapper objectMapper,
+            ClusterMembership clusterMembership,
+            BalanceStreamBroadcaster balanceStreamBroadcaster,
+            OutboxProperties properties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionEventLog = transactionEventLog;
+        this.objectMapper = objectMapper;
+        this.clusterMembership = clusterMembership;
+        this.balanceStreamBroadcaster = balanceStreamBroadcaster;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        relay = new Thread(this::relayLoop, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        relay.interrupt();
+        relay.join();
+    }
+
+    /**
+     * 한 묶음을 옮기고 옮긴 건수를 돌려준다
+     */
+    public int relayOnce() throws IOException {
+        List<OutboxEvent> events = ReplicationRoutingDataSource.onPrimary(() ->
+                outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, properties.getBatchSize())));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<TransactionEvent> transactionEvents = events.stream()
+                .map(TransactionEvent::fromEntity)
+                .collect(Collectors.toList());
+        List<byte[]> payloads = new ArrayList<>(events.size());
+        for (TransactionEvent event : transactionEvents) {
+            payloads.add(serialize(event));
+        }
+        transactionEventLog.append(payloads);
+        outboxEventRepository.deleteAllByIdInBatch(
+                events.stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+        try {
+            balanceStreamBroadcaster.publish(transactionEvents);
+        } catch (Exception e) {
+            // event log 에는 남았으므로 다시 옮기지 않는다 (SSE 구독자는 reset 후 다시 조회)
+            log.error("Failed to publish {} transaction events to balance stream", events.size(), e);
+        }
+        return events.size();
+    }
+
+    private byte[] serialize(TransactionEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    boolean isRelayNode() {
+        String relayNodeId = properties.getRelayNodeId();
+        if (clusterMembership.isEnabled() && relayNodeId != null && !relayNodeId.isEmpty()) {
+            return relayNodeId.equals(clusterMembership.getNodeId());
+        }
+        return clusterMembership.isLocal(RELAY_KEY) && clusterMembership.isSettled(RELAY_KEY);
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                // 가득 찬 묶음이면 밀려있는 것이므로 쉬지 않고 이어서
+                if (!isRelayNode() || relayOnce() < properties.getBatchSize()) {
+                    Thread.sleep(properties.getPollInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Outbox relay failed, retrying", e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
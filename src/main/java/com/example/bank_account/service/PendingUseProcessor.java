@@ -0,0 +1,201 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.cluster.OwnershipSettledEvent;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.TransactionRepository;
+import com.example.bank_account.type.TransactionResultType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비동기 잔액 사용(P 거래) 처리
+ * 계좌번호로 worker 를 나눠 같은 계좌의 요청은 한 worker 가 접수 순서대로 처리하고,
+ * 모인 요청은 계좌별로 lock 한 번, transaction 한 번에 반영한다
+ * 처리 전 요청은 DB 에 P 거래로 남아 있으므로 재시작 시 다시 읽어서 처리
+ * cluster 모드에서는 담당 계좌의 요청만 처리하고, 담당이 바뀌면 새로 맡은 계좌의 P 거래를 읽어온다
+ */
+@Slf4j
+@Component
+public class PendingUseProcessor {
+    private static final long RETRY_BACKOFF_MILLIS = 1000L;
+
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final LockService lockService;
+    private final ClusterMembership clusterMembership;
+    private final int batchSize;
+    private final List<BlockingQueue<PendingUse>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public PendingUseProcessor(
+            TransactionService transactionService,
+            TransactionRepository transactionRepository,
+            LockService lockService,
+            ClusterMembership clusterMembership,
+            @Value("${transaction.async-use.workers:4}") int workerCount,
+            @Value("${transaction.async-use.batch-size:50}") int batchSize) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.lockService = lockService;
+        this.clusterMembership = clusterMembership;
+        this.batchSize = batchSize;
+        for (int i = 0; i < workerCount; i++) {
+            queues.add(new LinkedBlockingQueue<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<PendingUse> queue = queues.get(i);
+            Thread worker = new Thread(() -> processLoop(queue), "pending-use-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Pending use processor started with {} pending transactions", enqueueOwnedPending());
+    }
+
+    /**
+     * 담당이 바뀐 뒤 grace 가 지나면 새로 맡은 계좌의 P 거래를 이어서 처리
+     * 이미 queue 에 있는 거래가 다시 들어가도 P 가 아니면 건너뛰므로 한 번만 반영된다
+     */
+    @EventListener(OwnershipSettledEvent.class)
+    public void onOwnershipSettled() {
+        log.info("Ownership settled, enqueued {} pending transactions", enqueueOwnedPending());
+    }
+
+    private int enqueueOwnedPending() {
+        int count = 0;
+        for (TransactionDto transaction
+                : transactionRepository.findDtosByTransactionResultType(TransactionResultType.P)) {
+            if (clusterMembership.isLocal(transaction.getAccountNumber())) {
+                enqueue(transaction.getAccountNumber(), transaction.getTransactionId());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 처리 중인 요청은 DB 에 P 거래로 남아 다음 시작 시 이어서 처리된다
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+            worker.join();
+        }
+        workers.clear();
+    }
+
+    /**
+     * P 거래가 commit 된 뒤에 호출
+     */
+    public void enqueue(String accountNumber, String transactionId) {
+        queues.get(Math.floorMod(accountNumber.hashCode(), queues.size()))
+                .add(new PendingUse(accountNumber, transactionId));
+    }
+
+    public int getQueuedCount() {
+        return queues.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void processLoop(BlockingQueue<PendingUse> queue) {
+        List<PendingUse> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingUse first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 실패하면 같은 계좌의 뒤 요청보다 먼저 처리되도록 그 자리에서 다시 시도
+     */
+    private void process(List<PendingUse> batch) throws InterruptedException {
+        Map<String, List<String>> byAccount = new LinkedHashMap<>();
+        for (PendingUse pendingUse : batch) {
+            byAccount.computeIfAbsent(pendingUse.getAccountNumber(), key -> new ArrayList<>())
+                    .add(pendingUse.getTransactionId());
+        }
+        for (Map.Entry<String, List<String>> entry : byAccount.entrySet()) {
+            if (!isOwned(entry.getKey())) {
+                // 담당 서버가 OwnershipSettledEvent 에서 다시 읽어서 처리
+                log.info("Skipped {} pending uses of {}, not owned by this node",
+                        entry.getValue().size(), entry.getKey());
+                continue;
+            }
+            while (running) {
+                try {
+                    complete(entry.getKey(), entry.getValue());
+                    break;
+                } catch (Exception e) {
+                    log.error("Failed to complete {} pending uses of {}, retrying",
+                            entry.getValue().size(), entry.getKey(), e);
+                    Thread.sleep(RETRY_BACKOFF_MILLIS);
+                }
+            }
+        }
+    }
+
+    private boolean isOwned(String accountNumber) {
+        return clusterMembership.isLocal(accountNumber) && clusterMembership.isSettled(accountNumber);
+    }
+
+    private void complete(String accountNumber, List<String> transactionIds) {
+        lockService.lock(accountNumber);
+        try {
+            transactionService.completePendingUses(accountNumber, transactionIds);
+        } catch (AccountException e) {
+            // 계좌가 없으면 다시 시도해도 같으므로 버린다 (접수 시 확인하므로 일어나지 않아야 함)
+            log.error("Dropped {} pending uses of {}: {}",
+                    transactionIds.size(), accountNumber, e.getErrorCode());
+        } finally {
+            lockService.unlock(accountNumber);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingUse {
+        private String accountNumber;
+        private String transactionId;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.RateLimited;
+import com.example.bank_account.aop.UserIdInterface;
+import com.example.bank_account.config.RateLimitProperties;
+import com.example.bank_account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청 수 제한 (lock, DB 보다 먼저 거절하도록 LockAopAspect 바깥에서 실행)
+ * 사용자: UserIdInterface 인자 또는 userId 파라미터, 계좌: AccountLockIdInterface 인자
+ */
+@Aspect
+@Component
+// HIGHEST_PRECEDENCE 는 ExposeInvocationInterceptor 보다 앞서서 annotation 을 binding 할 수 없음
+@Order(0)
+@RequiredArgsConstructor
+public class RateLimitAspect {
+    private static final String USER_ID_PARAMETER = "userId";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    @Around("@annotation(rateLimited)")
+    public Object aroundMethod(
+            ProceedingJoinPoint proceedingJoinPoint,
+            RateLimited rateLimited
+    ) throws Throwable {
+        RateLimitProperties.Endpoint endpoint = properties.getEndpoints().get(rateLimited.value());
+        if (properties.isEnabled() && endpoint != null) {
+            String[] parameterNames =
+                    ((MethodSignature) proceedingJoinPoint.getSignature()).getParameterNames();
+            Object[] args = proceedingJoinPoint.getArgs();
+            for (int i = 0; i < args.length; i++) {
+                Long userId = getUserId(parameterNames[i], args[i]);
+                if (userId != null && endpoint.getUser() != null) {
+                    acquire(rateLimited.value() + ":user:" + userId, endpoint.getUser());
+                }
+                if (args[i] instanceof AccountLockIdInterface && endpoint.getAccount() != null) {
+                    acquire(rateLimited.value() + ":account:"
+                            + ((AccountLockIdInterface) args[i]).getAccountNumber(), endpoint.getAccount());
+                }
+            }
+        }
+        return proceedingJoinPoint.proceed();
+    }
+
+    private static Long getUserId(String parameterName, Object arg) {
+        if (arg instanceof UserIdInterface) {
+            return ((UserIdInterface) arg).getUserId();
+        }
+        if (arg instanceof Long && USER_ID_PARAMETER.equals(parameterName)) {
+            return (Long) arg;
+        }
+        return null;
+    }
+
+    private void acquire(String key, RateLimitProperties.Bucket bucket) {
+        if (!rateLimiter.tryAcquire(key, bucket)) {
+            throw AccountException.rejected(ErrorCode.TOO_MANY_REQUESTS);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.RateLimitProperties;
+
+public interface RateLimiter {
+    /**
+     * key 의 bucket 에서 token 1개를 꺼낼 수 있으면 true
+     */
+    boolean tryAcquire(String key, RateLimitProperties.Bucket bucket);
+}
@@ -0,0 +1,67 @@
+package com.example.bank_account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 최근에 변경을 일으킨 사용자, 거래 기록
+ * staleness 시간 안에는 replica 대신 primary 에서 읽도록 판단하는 데 사용
+ * 트랜잭션 안에서 호출되면 commit 이후에 기록한다
+ * (commit 전에 기록하면 commit 이 늦어질 때 staleness 시간이 먼저 끝날 수 있음)
+ */
+@Component
+public class ReadYourWritesGuard {
+    private final Cache<Long, Boolean> recentWriters;
+    private final Cache<String, Boolean> recentTransactions;
+
+    public ReadYourWritesGuard(
+            @Value("${datasource.replica.max-staleness-millis:1000}") long maxStalenessMillis) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(maxStalenessMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.recentTransactions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(maxStalenessMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public void markWrite(Long userId) {
+        afterCommit(() -> recentWriters.put(userId, Boolean.TRUE));
+    }
+
+    public boolean recentlyWrote(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+
+    /**
+     * 거래 조회는 사용자 아이디를 모르므로 거래 아이디로 기록
+     */
+    public void markTransaction(String transactionId) {
+        afterCommit(() -> recentTransactions.put(transactionId, Boolean.TRUE));
+    }
+
+    public boolean recentlyWroteTransaction(String transactionId) {
+        return recentTransactions.getIfPresent(transactionId) != null;
+    }
+
+    private void afterCommit(Runnable mark) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            mark.run();
+                        }
+                    });
+        } else {
+            mark.run();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.RateLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+
+/**
+ * Redis 의 token bucket (여러 서버가 같은 bucket 을 공유)
+ * 스크립트 안에서 TIME 을 쓰면 이후 쓰기가 막히는 Redis 버전이 있어 서버 시각을 넘긴다
+ */
+@RequiredArgsConstructor
+public class RedisRateLimiter implements RateLimiter {
+    private static final String KEY_PREFIX = "RTLM";
+
+    // KEYS[1] = hash, ARGV = capacity, refill per millisecond, now(ms), ttl(ms) / 결과 = 1(허용), 0(거절)
+    private static final String ACQUIRE_SCRIPT =
+            "local capacity = tonumber(ARGV[1]) " +
+            "local now = tonumber(ARGV[3]) " +
+            "local h = redis.call('HMGET', KEYS[1], 'tokens', 'refilledAt') " +
+            "local tokens = tonumber(h[1]) or capacity " +
+            "local refilledAt = tonumber(h[2]) or now " +
+            "if now > refilledAt then " +
+            "  tokens = math.min(capacity, tokens + (now - refilledAt) * tonumber(ARGV[2])) " +
+            "  refilledAt = now " +
+            "end " +
+            "local allowed = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 allowed = 1 end " +
+            "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'refilledAt', tostring(refilledAt)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[4]) " +
+            "return allowed";
+
+    private final RedissonClient redissonClient;
+
+    @Override
+    public boolean tryAcquire(String key, RateLimitProperties.Bucket bucket) {
+        Long allowed = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT, RScript.ReturnType.INTEGER,
+                Collections.singletonList(KEY_PREFIX + key),
+                String.valueOf(bucket.getCapacity()),
+                String.valueOf(bucket.getRefillPerSecond() / 1000),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(bucket.getMillisToFull() + 1000));
+        return allowed != null && allowed == 1L;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bank_account.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 최근 size 동안의 건수와 금액 (lock 없이 갱신)
+ * size 를 buckets 개의 시간 칸으로 나눈 ring buffer 로, 칸마다 몇 번째 시간 칸인지(epoch)를 함께 두고
+ * 지나간 칸은 다음에 같은 자리를 쓸 때 새 칸으로 바꾼다 (오차는 칸 하나 크기 이내)
+ */
+public class SlidingWindowCounter {
+    private final long bucketNanos;
+    private final int buckets;
+    // 칸은 바꾸지 않고 새로 만들어 CAS 로 교체한다
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public SlidingWindowCounter(Duration size, int buckets) {
+        this.bucketNanos = Math.max(1L, size.toNanos() / buckets);
+        this.buckets = buckets;
+        this.ring = new AtomicReferenceArray<>(buckets);
+    }
+
+    public void add(long nowNanos, long amount) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        while (true) {
+            Bucket current = ring.get(slot);
+            Bucket next;
+            if (current == null || current.epoch < epoch) {
+                next = new Bucket(epoch, 1L, amount);
+            } else if (current.epoch == epoch) {
+                next = new Bucket(epoch, current.count + 1, current.amount + amount);
+            } else {
+                // 이미 더 나중 칸으로 바뀐 자리 (오래 멈춰 있던 thread) - 버린다
+                return;
+            }
+            if (ring.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * addedAtNanos 에 더한 것을 뺀다 - 그 칸이 그대로 있을 때만 (이미 지나간 칸이면 window 밖이라 그대로 둔다)
+     */
+    public void remove(long addedAtNanos, long amount) {
+        long epoch = Math.floorDiv(addedAtNanos, bucketNanos);
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        while (true) {
+            Bucket current = ring.get(slot);
+            if (current == null || current.epoch != epoch) {
+                return;
+            }
+            if (ring.compareAndSet(slot, current,
+                    new Bucket(epoch, current.count - 1, current.amount - amount))) {
+                return;
+            }
+        }
+    }
+
+    public Snapshot snapshot(long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        long count = 0L;
+        long amount = 0L;
+        for (int i = 0; i < buckets; i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.epoch > epoch - buckets && bucket.epoch <= epoch) {
+                count += bucket.count;
+                amount += bucket.amount;
+            }
+        }
+        return new Snapshot(count, amount);
+    }
+
+    @AllArgsConstructor
+    private static class Bucket {
+        private final long epoch;
+        private final long count;
+        private final long amount;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        public static final Snapshot EMPTY = new Snapshot(0L, 0L);
+
+        private final long count;
+        private final long amount;
+    }
+}
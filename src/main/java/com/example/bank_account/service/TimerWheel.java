@@ -0,0 +1,164 @@
+package com.example.bank_account.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * hashed timer wheel
+ * 만료 시각을 tick 단위로 slot 에 나눠 담고, 한 thread 가 tick 마다 slot 하나만 확인한다
+ * 등록/취소는 O(1) 이고 만료는 최대 tick 만큼 늦을 수 있다
+ */
+@Slf4j
+public class TimerWheel<K> {
+    private final long tickNanos;
+    private final int mask;
+    private final List<Queue<Entry<K>>> slots;
+    private final Consumer<K> onExpire;
+    private final String threadName;
+
+    // 등록은 여러 thread 에서 하고 slot 에는 worker 만 넣는다
+    private final Queue<Entry<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Map<K, Entry<K>> entries = new ConcurrentHashMap<>();
+
+    private final long startNanos = System.nanoTime();
+    private long tick;
+    private Thread worker;
+    private volatile boolean running;
+
+    public TimerWheel(String threadName, long tickNanos, int wheelSize, Consumer<K> onExpire) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of 2: " + wheelSize);
+        }
+        this.threadName = threadName;
+        this.tickNanos = tickNanos;
+        this.mask = wheelSize - 1;
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        this.onExpire = onExpire;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        worker.join();
+    }
+
+    /**
+     * 같은 key 로 다시 등록하면 이전 등록은 취소된다
+     */
+    public void schedule(K key, long delay, TimeUnit unit) {
+        Entry<K> entry = new Entry<>(key,
+                System.nanoTime() - startNanos + Math.max(unit.toNanos(delay), 0L));
+        Entry<K> previous = entries.put(key, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(entry);
+    }
+
+    public void cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            transferPending();
+            expire(slots.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * 시각이 이미 지난 것은 현재 slot 에 넣어 이번 tick 에 만료시킨다
+     */
+    private void transferPending() {
+        Entry<K> entry;
+        while ((entry = pending.poll()) != null) {
+            if (entry.cancelled) {
+                continue;
+            }
+            long ticks = entry.deadlineNanos / tickNanos;
+            entry.remainingRounds = (ticks - tick) / slots.size();
+            slots.get((int) (Math.max(ticks, tick) & mask)).add(entry);
+        }
+    }
+
+    private void expire(Queue<Entry<K>> slot) {
+        Iterator<Entry<K>> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Entry<K> entry = iterator.next();
+            if (entry.cancelled) {
+                iterator.remove();
+            } else if (entry.remainingRounds <= 0) {
+                iterator.remove();
+                if (entries.remove(entry.key, entry)) {
+                    fire(entry.key);
+                }
+            } else {
+                entry.remainingRounds--;
+            }
+        }
+    }
+
+    private void fire(K key) {
+        try {
+            onExpire.accept(key);
+        } catch (Exception e) {
+            log.error("Timer task for {} failed.", key, e);
+        }
+    }
+
+    private static class Entry<K> {
+        private final K key;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Entry(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.bank_account.service;
 
 import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.HoldProperties;
+import com.example.bank_account.config.ReplicationRoutingDataSource;
 import com.example.bank_account.domain.Account;
 import com.example.bank_account.domain.AccountStatus;
-import com.example.bank_account.domain.AccountUser;
+import com.example.bank_account.domain.BalanceHold;
+import com.example.bank_account.domain.HoldStatus;
+import com.example.bank_account.domain.OutboxEvent;
 import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.dto.HoldDto;
 import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.jfr.TransactionSaveEvent;
 import com.example.bank_account.repository.AccountRepository;
 import com.example.bank_account.repository.AccountUserRepository;
+import com.example.bank_account.repository.BalanceHoldRepository;
+import com.example.bank_account.repository.OutboxEventRepository;
 import com.example.bank_account.repository.TransactionRepository;
 import com.example.bank_account.type.ErrorCode;
 import com.example.bank_account.type.TransactionResultType;
@@ -15,11 +23,15 @@ import com.example.bank_account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -28,6 +40,14 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
+    private final AccountCacheService accountCacheService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final BalanceMirrorService balanceMirrorService;
+    private final BalanceHoldRepository balanceHoldRepository;
+    private final HoldProperties holdProperties;
+    private final OutboxEventRepository outboxEventRepository;
+    private final DailySpendService dailySpendService;
+    private final KnownKeyFilter knownKeyFilter;
 
     /**
      * 잔액 사용 정책
@@ -35,37 +55,114 @@ public class TransactionService {
      * 사용자 아이디와 계좌 소유주가 다른 경우 실패 응답
      * 계좌가 이미 해지 상태인 경우 실패 응답
      * 거래 금액이 잔액보다 큰 경우, 거래 금액이 너무 작거나 큰 경우 실패 응답
+     * 오늘 사용 합계에 거래 금액을 더하면 하루 한도를 넘는 경우 실패 응답
      */
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
-        AccountUser user = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        Account account = getAccount(userId, accountNumber);
 
-        validateUseBalance(user, account, amount);
+        validateUseBalance(userId, account, amount);
 
         account.useBalance(amount);
+        readYourWritesGuard.markWrite(userId);
+        accountCacheService.evict(userId);
 
         return TransactionDto.fromEntity(saveAndGetTransaction(TransactionType.USE, TransactionResultType.S, account, amount));
     }
 
-    private void validateUseBalance(AccountUser user, Account account, Long amount) {
-        if(!Objects.equals(user.getId(), account.getAccountUser().getId())) {
-            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+    /**
+     * 사용자 행은 읽지 않고 계좌 한 행만 읽는다 (사용자가 없는지는 실패할 때만 확인)
+     */
+    private Account getAccount(Long userId, String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.rejected(accountUserRepository.existsById(userId)
+                        ? ErrorCode.ACCOUNT_NOT_FOUND : ErrorCode.USER_NOT_FOUND));
+    }
+
+    private void validateUseBalance(Long userId, Account account, Long amount) {
+        if(!Objects.equals(userId, account.getAccountUser().getId())) {
+            throw AccountException.rejected(accountUserRepository.existsById(userId)
+                    ? ErrorCode.USER_ACCOUNT_UN_MATCH : ErrorCode.USER_NOT_FOUND);
         }
         if (account.getAccountStatus() == AccountStatus.UNREGISTERED) {
-            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            throw AccountException.rejected(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
-        if (account.getBalance() < amount) {
-            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        if (account.getAvailableBalance() < amount) {
+            throw AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
+        dailySpendService.checkLimit(account, amount);
+    }
+
+    /**
+     * 비동기 잔액 사용 접수
+     * lock 없이 할 수 있는 검증만 하고 거래 아이디를 미리 정해 처리 중(P) 거래로 저장
+     * 실제 차감은 PendingUseProcessor 가 completePendingUses 로 처리한다
+     */
+    @Transactional
+    public TransactionDto submitUseBalance(Long userId, String accountNumber, Long amount) {
+        Account account = getAccount(userId, accountNumber);
+
+        validateUseBalance(userId, account, amount);
+
+        return TransactionDto.fromEntity(
+                saveAndGetTransaction(TransactionType.USE, TransactionResultType.P, account, amount));
+    }
+
+    /**
+     * 같은 계좌의 처리 중(P) 거래를 접수 순서대로 반영 (호출하는 쪽에서 계좌 lock 을 잡는다)
+     * 거래마다 다시 검증해서 실패한 거래만 F 로 남기고, 이미 처리된 거래는 건너뛴다
+     */
+    @Transactional
+    public List<TransactionDto> completePendingUses(String accountNumber, List<String> transactionIds) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+        Map<String, Transaction> transactions = transactionRepository
+                .findByTransactionIdIn(transactionIds).stream()
+                .collect(Collectors.toMap(Transaction::getTransactionId, Function.identity()));
+
+        List<Transaction> completedTransactions = transactionIds.stream()
+                .map(transactions::get)
+                .filter(transaction -> transaction != null
+                        && transaction.getTransactionResultType() == TransactionResultType.P)
+                .map(transaction -> completePendingUse(account, transaction))
+                .collect(Collectors.toList());
+        outboxEventRepository.saveAll(completedTransactions.stream()
+                .map(transaction -> OutboxEvent.of(
+                        transaction, accountNumber, account.getAccountUser().getId()))
+                .collect(Collectors.toList()));
+
+        List<TransactionDto> completed = completedTransactions.stream()
+                .map(TransactionDto::fromEntity)
+                .collect(Collectors.toList());
+
+        if (completed.stream().anyMatch(
+                transaction -> transaction.getTransactionResultType() == TransactionResultType.S)) {
+            readYourWritesGuard.markWrite(account.getAccountUser().getId());
+            accountCacheService.evict(account.getAccountUser().getId());
+        }
+        return completed;
+    }
+
+    private Transaction completePendingUse(Account account, Transaction transaction) {
+        transaction.setTransactedAt(LocalDateTime.now());
+        readYourWritesGuard.markTransaction(transaction.getTransactionId());
+        try {
+            validateUseBalance(account.getAccountUser().getId(), account, transaction.getAmount());
+            account.useBalance(transaction.getAmount());
+            transaction.setTransactionResultType(TransactionResultType.S);
+            dailySpendService.record(account, account.getAccountNumber(),
+                    TransactionType.USE, transaction.getAmount(), transaction.getTransactedAt());
+        } catch (AccountException e) {
+            transaction.setTransactionResultType(TransactionResultType.F);
+        }
+        transaction.setBalanceSnapShot(account.getBalance());
+        return transaction;
     }
 
     @Transactional
     public void saveFailedUseTransaction(String accountNumber, Long amount) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
 
         saveAndGetTransaction(TransactionType.USE, TransactionResultType.F, account, amount);
     }
@@ -74,68 +171,251 @@ public class TransactionService {
             TransactionType transactionType,
             TransactionResultType transactionResultType,
             Account account, Long amount) {
-        return transactionRepository.save(
+        return saveAndGetTransaction(transactionType, transactionResultType,
+                account, amount, account.getBalance());
+    }
+
+    private Transaction saveAndGetTransaction(
+            TransactionType transactionType,
+            TransactionResultType transactionResultType,
+            Account account, Long amount, Long balanceSnapShot) {
+        return saveAndGetTransaction(transactionType, transactionResultType,
+                account, amount, balanceSnapShot, null);
+    }
+
+    private Transaction saveAndGetTransaction(
+            TransactionType transactionType,
+            TransactionResultType transactionResultType,
+            Account account, Long amount, Long balanceSnapShot, String cancelledTransactionId) {
+        TransactionSaveEvent event = new TransactionSaveEvent();
+        event.begin();
+        Transaction transaction = transactionRepository.save(
                 Transaction.builder()
                         .transactionType(transactionType)
                         .transactionResultType(transactionResultType)
                         .account(account)
                         .amount(amount)
-                        .balanceSnapShot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                        .balanceSnapShot(balanceSnapShot)
+                        .transactionId(Transaction.newTransactionId())
                         .transactedAt(LocalDateTime.now())
+                        .cancelledTransactionId(cancelledTransactionId)
                         .build()
         );
+        knownKeyFilter.addTransaction(transaction.getTransactionId());
+        readYourWritesGuard.markTransaction(transaction.getTransactionId());
+        // 같은 DB transaction 에서 outbox 를 남겨 거래가 commit 된 경우에만 event log 로 나간다
+        outboxEventRepository.save(OutboxEvent.of(
+                transaction, account.getAccountNumber(), account.getAccountUser().getId()));
+        // 취소는 원래 사용 거래의 날짜에 반영해야 하므로 cancelBalance 에서 따로 반영
+        if (transactionType == TransactionType.USE && transactionResultType == TransactionResultType.S) {
+            dailySpendService.record(account, account.getAccountNumber(),
+                    transactionType, amount, transaction.getTransactedAt());
+        }
+        event.finish(transaction);
+        return transaction;
     }
     /**
      * 잔액 사용 취소 정책
      * 거래 아이디에 해당하는 거래가 없는 경우 실패 응답
      * 거래 금액과 취소 금액이 다른 경우 (부분 취소 불가능) 실패 응답
      * 1년이 넘은 거래는 사용 취소 불가능
+     * 성공한 사용 거래가 아닌 경우 (취소, 실패, 처리 중 거래) 실패 응답
+     * 이미 취소된 거래는 실패 응답 (취소 거래에 원래 거래 아이디를 남기고 원래 거래는 취소 상태로 바꾼다)
      * 해당 계좌에서 거래가 진행 중일 때, 다른 거래 요청이 있는 경우 해당 거래가 동시에 잘못 처리되는 것을 방지
      */
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        Transaction cancelled = validateAndMarkCancelled(transactionId, accountNumber, amount);
+        Account account = cancelled.getAccount();
+
+        account.cancelBalance(amount);
+        readYourWritesGuard.markWrite(account.getAccountUser().getId());
+        accountCacheService.evict(account.getAccountUser().getId());
+        dailySpendService.record(account, accountNumber,
+                TransactionType.CANCEL, amount, cancelled.getTransactedAt());
+
+        return TransactionDto.fromEntity(saveAndGetTransaction(TransactionType.CANCEL,
+                TransactionResultType.S, account, amount, account.getBalance(), transactionId));
+    }
+
+    /**
+     * 잔액 mirror 사용 시 취소 - 원래 거래를 취소 상태로 바꾸는 것까지만 commit 한다
+     * Redis 잔액은 commit 이후에 되돌리고, 실패하면 unmarkCancelled 로 다시 취소할 수 있게 한다
+     * @return 취소한 계좌
+     */
+    @Transactional
+    public Account markCancelled(String transactionId, String accountNumber, Long amount) {
+        return validateAndMarkCancelled(transactionId, accountNumber, amount).getAccount();
+    }
+
+    @Transactional
+    public void unmarkCancelled(String transactionId) {
+        transactionRepository.unmarkCancelled(transactionId);
+        readYourWritesGuard.markTransaction(transactionId);
+    }
 
+    private Transaction validateAndMarkCancelled(String transactionId, String accountNumber, Long amount) {
         Transaction transaction = transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.TRANSACTION_NOT_FOUND));
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateCancelBalance(transaction, account, amount);
 
-        account.cancelBalance(amount);
-
-        return TransactionDto.fromEntity(
-                saveAndGetTransaction(TransactionType.CANCEL, TransactionResultType.S, account, amount));
+        if (transactionRepository.markCancelled(transaction.getId(), LocalDateTime.now()) == 0) {
+            throw AccountException.rejected(ErrorCode.TRANSACTION_ALREADY_CANCELLED);
+        }
+        readYourWritesGuard.markTransaction(transactionId);
+        return transaction;
     }
 
     private void validateCancelBalance(Transaction transaction, Account account, Long amount) {
         if(!Objects.equals(transaction.getAccount().getId(), account.getId())) {
-            throw new AccountException(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+            throw AccountException.rejected(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+        }
+        if (transaction.getTransactionType() != TransactionType.USE
+                || transaction.getTransactionResultType() != TransactionResultType.S) {
+            throw AccountException.rejected(ErrorCode.TRANSACTION_NOT_CANCELLABLE);
+        }
+        if (transaction.getCancelledAt() != null) {
+            throw AccountException.rejected(ErrorCode.TRANSACTION_ALREADY_CANCELLED);
         }
         if(!transaction.getAmount().equals(amount)) {
-            throw new AccountException(ErrorCode.CANCEL_MUST_FULLY);
+            throw AccountException.rejected(ErrorCode.CANCEL_MUST_FULLY);
         }
         if(transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
-            throw new AccountException(ErrorCode.TOO_OLD_TO_CANCEL);
+            throw AccountException.rejected(ErrorCode.TOO_OLD_TO_CANCEL);
         }
     }
     @Transactional
     public void saveFailedCancelTransaction(String accountNumber, Long amount) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
 
         saveAndGetTransaction(TransactionType.CANCEL, TransactionResultType.F, account, amount);
     }
 
+    /**
+     * 잔액 승인 (2단계 사용의 1단계)
+     * 잔액 사용과 같은 검증 후 가용 잔액에서 금액을 잡아두기만 하고
+     * 확정(capture) 또는 취소(void) 전까지 만료 시각이 지나면 풀린다
+     */
+    @Transactional
+    public HoldDto authorizeBalance(Long userId, String accountNumber, Long amount) {
+        if (balanceMirrorService.isEnabled()) {
+            throw AccountException.rejected(ErrorCode.HOLD_NOT_SUPPORTED);
+        }
+        Account account = getAccount(userId, accountNumber);
+
+        validateUseBalance(userId, account, amount);
+
+        if (accountRepository.hold(account.getId(), amount) == 0) {
+            throw AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return HoldDto.fromEntity(balanceHoldRepository.save(BalanceHold.builder()
+                .account(account)
+                .holdId(Transaction.newTransactionId())
+                .amount(amount)
+                .status(HoldStatus.HELD)
+                .heldAt(now)
+                .expiresAt(now.plus(holdProperties.getTtl()))
+                .build()));
+    }
+
+    /**
+     * 승인 확정
+     * 승인 금액 이하만 확정할 수 있고 남은 금액은 풀어준다
+     * 이미 확정, 취소, 만료된 승인은 실패 응답
+     */
+    @Transactional
+    public TransactionDto captureBalance(String holdId, String accountNumber, Long amount) {
+        BalanceHold hold = balanceHoldRepository.findByHoldId(holdId)
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.HOLD_NOT_FOUND));
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        validateHold(hold, account);
+        if (amount > hold.getAmount()) {
+            throw AccountException.rejected(ErrorCode.CAPTURE_EXCEED_HOLD);
+        }
+
+        finishHold(hold, HoldStatus.CAPTURED, amount);
+        readYourWritesGuard.markWrite(account.getAccountUser().getId());
+        accountCacheService.evict(account.getAccountUser().getId());
+
+        return TransactionDto.fromEntity(saveAndGetTransaction(TransactionType.USE,
+                TransactionResultType.S, account, amount, account.getBalance() - amount));
+    }
+
+    /**
+     * 승인 취소 - 잔액은 그대로 두고 잡아둔 금액만 풀어준다
+     */
+    @Transactional
+    public HoldDto voidBalance(String holdId, String accountNumber) {
+        BalanceHold hold = balanceHoldRepository.findByHoldId(holdId)
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.HOLD_NOT_FOUND));
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        validateHold(hold, account);
+        finishHold(hold, HoldStatus.VOIDED, 0L);
+
+        return HoldDto.fromEntity(hold, HoldStatus.VOIDED);
+    }
+
+    /**
+     * 만료 시각이 지난 승인을 풀어준다 (이미 확정/취소된 승인은 무시)
+     */
+    @Transactional
+    public void expireHold(String holdId) {
+        balanceHoldRepository.findByHoldId(holdId)
+                .filter(hold -> hold.getStatus() == HoldStatus.HELD)
+                .ifPresent(hold -> {
+                    if (balanceHoldRepository.changeStatus(
+                            hold.getId(), HoldStatus.HELD, HoldStatus.EXPIRED) == 1) {
+                        accountRepository.settleHold(hold.getAccount().getId(), hold.getAmount(), 0L);
+                    }
+                });
+    }
+
+    private void validateHold(BalanceHold hold, Account account) {
+        if (!Objects.equals(hold.getAccount().getId(), account.getId())) {
+            throw AccountException.rejected(ErrorCode.HOLD_ACCOUNT_UN_MATCH);
+        }
+        if (hold.getStatus() != HoldStatus.HELD) {
+            throw AccountException.rejected(ErrorCode.HOLD_ALREADY_FINISHED);
+        }
+    }
+
+    /**
+     * 상태 변경에 성공한 쪽만 승인 금액을 풀고 captured 만큼 잔액에서 차감
+     */
+    private void finishHold(BalanceHold hold, HoldStatus status, Long captured) {
+        if (balanceHoldRepository.changeStatus(hold.getId(), HoldStatus.HELD, status) == 0) {
+            throw AccountException.rejected(ErrorCode.HOLD_ALREADY_FINISHED);
+        }
+        accountRepository.settleHold(hold.getAccount().getId(), hold.getAmount(), captured);
+    }
+
     /**
      * 잔액 사용 확인 정책
-     * 해당 거래 아이디의 거래가 없는 경우 실패 응답
+     * 해당 거래 아이디의 거래가 없는 경우 실패 응답 (Bloom filter 에 없으면 DB 조회 없이)
+     * replica 에서 읽되, 방금 저장하거나 바꾼 거래는 primary 에서 읽는다
      */
+    @Transactional(readOnly = true)
     public TransactionDto queryTransaction(String transactionId) {
+        if (knownKeyFilter.isUnknownTransaction(transactionId)) {
+            throw AccountException.rejected(ErrorCode.TRANSACTION_NOT_FOUND);
+        }
 
-        return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+        Optional<TransactionDto> transaction =
+                readYourWritesGuard.recentlyWroteTransaction(transactionId)
+                        ? ReplicationRoutingDataSource.onPrimary(
+                                () -> transactionRepository.findDtoByTransactionId(transactionId))
+                        : transactionRepository.findDtoByTransactionId(transactionId);
+        return transaction
+                .orElseThrow(() -> AccountException.rejected(ErrorCode.TRANSACTION_NOT_FOUND));
     }
 }
@@ -0,0 +1,47 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 서비스의 @Transactional 메소드 실행 시간 (commit/rollback 포함)
+ * 트랜잭션 advice 바깥에서 측정하도록 가장 먼저 실행
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TransactionTimingAspect {
+    static final String METRIC = "service.transaction";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(com.example.bank_account.service..*)"
+            + " && @annotation(org.springframework.transaction.annotation.Transactional)")
+    public Object aroundTransaction(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return proceedingJoinPoint.proceed();
+        } catch (AccountException e) {
+            outcome = e.getErrorCode().name();
+            throw e;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(METRIC,
+                    "class", proceedingJoinPoint.getSignature().getDeclaringType().getSimpleName(),
+                    "method", proceedingJoinPoint.getSignature().getName(),
+                    "outcome", outcome));
+        }
+    }
+}
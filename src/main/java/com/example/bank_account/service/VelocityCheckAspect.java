@@ -0,0 +1,45 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.aop.AccountLockIdInterface;
+import com.example.bank_account.aop.AmountInterface;
+import com.example.bank_account.aop.UserIdInterface;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 거래 전 최근 거래 건수/금액에 미리 더해서 확인하고, 거래가 실패하면 뺀다
+ * lock 을 기다리기 전에 거절하도록 LockAopAspect 바깥에서 실행
+ */
+@Aspect
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class VelocityCheckAspect {
+    private final VelocityChecker velocityChecker;
+
+    @Around("@annotation(com.example.bank_account.aop.VelocityChecked) && args(request)")
+    public Object aroundMethod(
+            ProceedingJoinPoint proceedingJoinPoint,
+            AmountInterface request
+    ) throws Throwable {
+        if (!velocityChecker.isEnabled()) {
+            return proceedingJoinPoint.proceed();
+        }
+        Long userId = request instanceof UserIdInterface
+                ? ((UserIdInterface) request).getUserId() : null;
+        String accountNumber = request instanceof AccountLockIdInterface
+                ? ((AccountLockIdInterface) request).getAccountNumber() : null;
+
+        long reservedAt = velocityChecker.reserve(userId, accountNumber, request.getAmount());
+        try {
+            return proceedingJoinPoint.proceed();
+        } catch (Throwable e) {
+            velocityChecker.release(userId, accountNumber, request.getAmount(), reservedAt);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.VelocityProperties;
+import com.example.bank_account.type.ErrorCode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 계좌/사용자별 최근 거래 건수와 금액 확인 (서버 메모리, lock 없음)
+ * reserve 로 이번 거래를 먼저 더한 뒤 한도를 넘는지 보고, 거래가 실패하면 release 로 뺀다
+ * (먼저 더하므로 동시에 들어온 거래도 서로를 보고, 한도를 넘기지 않는다)
+ * key 수는 maximum-keys 로 제한하고, 가장 긴 window 동안 거래가 없던 key 는 지운다
+ */
+@Slf4j
+@Component
+public class VelocityChecker {
+    static final String ACCOUNT = "account";
+    static final String USER = "user";
+    private static final String DELIMITER = ":";
+
+    private final VelocityProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, SlidingWindowCounter[]> counters;
+
+    public VelocityChecker(VelocityProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 이번 거래를 더하고 한도를 넘으면 다시 빼고 거절
+     * @return release 할 때 넘길 시각
+     */
+    public long reserve(Long userId, String accountNumber, long amount) {
+        long now = System.nanoTime();
+        if (accountNumber != null) {
+            reserve(ACCOUNT, accountNumber, properties.getAccount(), amount, now);
+        }
+        if (userId != null) {
+            try {
+                reserve(USER, String.valueOf(userId), properties.getUser(), amount, now);
+            } catch (AccountException e) {
+                if (accountNumber != null) {
+                    release(ACCOUNT, accountNumber, amount, now);
+                }
+                throw e;
+            }
+        }
+        return now;
+    }
+
+    /**
+     * 실패한 거래를 뺀다
+     */
+    public void release(Long userId, String accountNumber, long amount, long reservedAt) {
+        if (accountNumber != null) {
+            release(ACCOUNT, accountNumber, amount, reservedAt);
+        }
+        if (userId != null) {
+            release(USER, String.valueOf(userId), amount, reservedAt);
+        }
+    }
+
+    private void reserve(String scope, String id, List<VelocityProperties.Window> windows,
+                         long amount, long now) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        SlidingWindowCounter[] windowCounters = counters.get(scope + DELIMITER + id, key -> {
+            SlidingWindowCounter[] created = new SlidingWindowCounter[windows.size()];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new SlidingWindowCounter(windows.get(i).getSize(), windows.get(i).getBuckets());
+            }
+            return created;
+        });
+        for (SlidingWindowCounter counter : windowCounters) {
+            counter.add(now, amount);
+        }
+        for (int i = 0; i < windows.size(); i++) {
+            VelocityProperties.Window window = windows.get(i);
+            SlidingWindowCounter.Snapshot snapshot = windowCounters[i].snapshot(now);
+            if (!exceeds(window, snapshot.getCount(), snapshot.getAmount())) {
+                continue;
+            }
+            if (window.getAction() == VelocityProperties.Action.REJECT) {
+                for (SlidingWindowCounter counter : windowCounters) {
+                    counter.remove(now, amount);
+                }
+                meterRegistry.counter("velocity.rejected", "scope", scope, "window", window.getName())
+                        .increment();
+                throw AccountException.rejected(ErrorCode.VELOCITY_EXCEEDED);
+            }
+            meterRegistry.counter("velocity.flagged", "scope", scope, "window", window.getName())
+                    .increment();
+            log.warn("Velocity flagged {} {} in {} (count: {}, amount: {})", scope, id,
+                    window.getName(), snapshot.getCount(), snapshot.getAmount());
+        }
+    }
+
+    private void release(String scope, String id, long amount, long reservedAt) {
+        SlidingWindowCounter[] windowCounters = counters.getIfPresent(scope + DELIMITER + id);
+        if (windowCounters == null) {
+            return;
+        }
+        for (SlidingWindowCounter counter : windowCounters) {
+            counter.remove(reservedAt, amount);
+        }
+    }
+
+    private static boolean exceeds(VelocityProperties.Window window, long count, long amount) {
+        return (window.getMaxCount() > 0 && count > window.getMaxCount())
+                || (window.getMaxAmount() > 0 && amount > window.getMaxAmount());
+    }
+}
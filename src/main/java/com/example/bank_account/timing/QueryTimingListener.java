@@ -0,0 +1,34 @@
+package com.example.bank_account.timing;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * JDBC statement 실행 시간 기록
+ * hibernate.session.events.auto 로 등록되어 session 마다 생성된다
+ */
+public class QueryTimingListener extends BaseSessionEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTiming.record(RequestTiming.Phase.DB, statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTiming.record(RequestTiming.Phase.DB, batchStart);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bank_account.timing;
+
+import java.util.Locale;
+
+/**
+ * 요청 하나의 구간별 소요 시간 (Server-Timing 헤더, 느린 요청 로그)
+ * 구간은 서로 겹칠 수 있다 (lock-hold 안에 db, commit 이 포함되는 식)
+ * 요청 스레드 밖(write-behind 등)에서는 기록하지 않는다
+ */
+public final class RequestTiming {
+    public enum Phase {
+        LOCK_WAIT("lock-wait"),
+        LOCK_HOLD("lock-hold"),
+        VALIDATION("validation"),
+        DB("db"),
+        COMMIT("commit"),
+        DELAY("delay");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[PHASES.length];
+
+    private RequestTiming() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new RequestTiming());
+    }
+
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public static RequestTiming end() {
+        RequestTiming timing = CURRENT.get();
+        CURRENT.remove();
+        return timing;
+    }
+
+    /**
+     * startNanos 부터 지금까지를 phase 에 더하고 지금 시각을 반환
+     */
+    public static long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.phaseNanos[phase.ordinal()] += now - startNanos;
+        }
+        return now;
+    }
+
+    public long getTotalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * ex) lock-wait;dur=0.41, db;dur=2.10, total;dur=3.05
+     */
+    public String toHeaderValue() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : PHASES) {
+            if (phaseNanos[phase.ordinal()] > 0) {
+                appendMillis(builder, phase.metricName, ";dur=", phaseNanos[phase.ordinal()]);
+                builder.append(", ");
+            }
+        }
+        appendMillis(builder, "total", ";dur=", getTotalNanos());
+        return builder.toString();
+    }
+
+    /**
+     * ex) lock-wait=0.41 db=2.10 total=3.05
+     */
+    public String toLogFields() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : PHASES) {
+            if (phaseNanos[phase.ordinal()] > 0) {
+                appendMillis(builder, phase.metricName, "=", phaseNanos[phase.ordinal()]);
+                builder.append(' ');
+            }
+        }
+        appendMillis(builder, "total", "=", getTotalNanos());
+        return builder.toString();
+    }
+
+    private static void appendMillis(StringBuilder builder, String name, String separator, long nanos) {
+        builder.append(name).append(separator)
+                .append(String.format(Locale.ROOT, "%.2f", nanos / NANOS_PER_MILLI));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bank_account.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 응답 body 를 쓰기 직전에 Server-Timing 헤더를 추가 (body 를 쓰고 나면 헤더를 바꿀 수 없음)
+ */
+@RestControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            response.getHeaders().add(SERVER_TIMING_HEADER, timing.toHeaderValue());
+        }
+        return body;
+    }
+}
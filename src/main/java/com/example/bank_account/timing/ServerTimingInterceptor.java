@@ -0,0 +1,38 @@
+package com.example.bank_account.timing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 RequestTiming 을 시작하고, 끝나면 느린 요청을 구간별로 로그에 남긴다
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ServerTimingInterceptor implements HandlerInterceptor {
+    // 음수면 로그를 남기지 않음
+    private final long logThresholdMillis;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTiming.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        RequestTiming timing = RequestTiming.end();
+        if (timing == null || logThresholdMillis < 0
+                || timing.getTotalNanos() < TimeUnit.MILLISECONDS.toNanos(logThresholdMillis)) {
+            return;
+        }
+        log.info("server-timing method={} uri={} status={} {}",
+                request.getMethod(), request.getRequestURI(), response.getStatus(),
+                timing.toLogFields());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bank_account.timing;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * commit 시간 기록 (commit 시점의 flush 포함)
+ */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        long start = System.nanoTime();
+        try {
+            super.doCommit(status);
+        } finally {
+            RequestTiming.record(RequestTiming.Phase.COMMIT, start);
+        }
+    }
+}
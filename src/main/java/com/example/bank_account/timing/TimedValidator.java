@@ -0,0 +1,36 @@
+package com.example.bank_account.timing;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validator;
+
+/**
+ * @Valid 요청 검증 시간 기록
+ */
+public class TimedValidator extends SpringValidatorAdapter {
+
+    public TimedValidator(Validator targetValidator) {
+        super(targetValidator);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        long start = System.nanoTime();
+        try {
+            super.validate(target, errors);
+        } finally {
+            RequestTiming.record(RequestTiming.Phase.VALIDATION, start);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        long start = System.nanoTime();
+        try {
+            super.validate(target, errors, validationHints);
+        } finally {
+            RequestTiming.record(RequestTiming.Phase.VALIDATION, start);
+        }
+    }
+}
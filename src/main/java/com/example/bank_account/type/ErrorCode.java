@@ -15,11 +15,26 @@ public enum ErrorCode {
     AMOUNT_EXCEED_BALANCE("거래 금액이 계좌 잔액보다 큽니다."),
     USER_ACCOUNT_UN_MATCH("사용자와 계좌의 소유주가 다릅니다."),
     TRANSACTION_ACCOUNT_UN_MATCH("이 거래는 해당 계좌에서 발생한 거래가 아닙니다."),
+    TRANSACTION_ALREADY_CANCELLED("이미 취소된 거래입니다."),
+    TRANSACTION_NOT_CANCELLABLE("성공한 사용 거래만 취소할 수 있습니다."),
+    TRANSACTION_NOT_FLUSHED("아직 반영 중인 거래입니다. 잠시 후 다시 시도해 주세요."),
     CANCEL_MUST_FULLY("부분 취소는 허용되지 않습니다."),
     TOO_OLD_TO_CANCEL("1년이 지난 거래는 취소가 불가능합니다."),
     ACCOUNT_ALREADY_UNREGISTERED("계좌가 이미 해지되었습니다."),
     BALANCE_NOT_EMPTY("잔액이 있는 계좌는 해지할 수 없습니다."),
-    MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개 입니다.");
+    MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개 입니다."),
+    TOO_MANY_REQUESTS("요청이 너무 많습니다. 잠시 후 다시 시도해 주세요."),
+    SERVICE_OVERLOADED("처리 중인 요청이 많습니다. 잠시 후 다시 시도해 주세요."),
+    HOLD_NOT_FOUND("해당 승인 건이 없습니다."),
+    HOLD_ACCOUNT_UN_MATCH("이 승인은 해당 계좌에서 발생한 승인이 아닙니다."),
+    HOLD_ALREADY_FINISHED("이미 확정, 취소 또는 만료된 승인입니다."),
+    CAPTURE_EXCEED_HOLD("확정 금액이 승인 금액보다 큽니다."),
+    HOLD_NOT_SUPPORTED("잔액 mirror 사용 중에는 승인 거래를 지원하지 않습니다."),
+    ACCOUNT_OWNER_UNAVAILABLE("계좌 담당 서버에 연결할 수 없습니다. 잠시 후 다시 시도해 주세요."),
+    ACCOUNT_REBALANCING("계좌 담당 서버가 바뀌는 중입니다. 잠시 후 다시 시도해 주세요."),
+    BALANCE_BEFORE_REGISTRATION("계좌 개설 이전 시각의 잔액은 조회할 수 없습니다."),
+    DAILY_LIMIT_EXCEEDED("하루 사용 한도를 초과했습니다."),
+    VELOCITY_EXCEEDED("짧은 시간 동안 거래가 너무 많습니다. 잠시 후 다시 시도해 주세요.");
     private final String description;
 
 }
@@ -0,0 +1,5 @@
+package com.example.bank_account.type;
+
+public enum RequestType {
+    READ, WRITE
+}
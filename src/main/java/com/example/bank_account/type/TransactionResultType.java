@@ -1,5 +1,5 @@
 package com.example.bank_account.type;
 
 public enum TransactionResultType {
-    S, F // 성공, 실패
+    S, F, P // 성공, 실패, 처리 중 (비동기 요청)
 }
@@ -1,6 +1,6 @@
-insert into account_user(id, name, created_at, updated_at)
-values (1, 'Kevin', now(), now());
-insert into account_user(id, name, created_at, updated_at)
-values (2, 'Grace', now(), now());
-insert into account_user(id, name, created_at, updated_at)
-values (3, 'Alex', now(), now());
\ No newline at end of file
+insert into account_user(id, name, account_count, created_at, updated_at)
+values (1, 'Kevin', 0, now(), now());
+insert into account_user(id, name, account_count, created_at, updated_at)
+values (2, 'Grace', 0, now(), now());
+insert into account_user(id, name, account_count, created_at, updated_at)
+values (3, 'Alex', 0, now(), now());
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.bank_account.Exception;
+
+import com.example.bank_account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountExceptionTest {
+
+    @Test
+    void rejectedIsSharedAndStackless() {
+    // given
+    // when
+        AccountException first = AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        AccountException second = AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE);
+    // then
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, first.getErrorCode());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE.getDescription(), first.getErrorMessage());
+        first.addSuppressed(new IllegalStateException());
+        assertEquals(0, second.getSuppressed().length);
+    }
+
+    @Test
+    void constructorKeepsStackTrace() {
+    // given
+    // when
+        AccountException exception = new AccountException(ErrorCode.ACCOUNT_NOT_FOUND);
+    // then
+        assertTrue(exception.getStackTrace().length > 0);
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND.getDescription(), exception.getErrorMessage());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bank_account.Exception;
+
+import com.example.bank_account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorLogLimiterTest {
+
+    @Test
+    void logOncePerIntervalWithSuppressedCount() throws InterruptedException {
+    // given
+        ErrorLogLimiter errorLogLimiter = new ErrorLogLimiter(100);
+    // when
+    // then
+        assertEquals(0, errorLogLimiter.tryAcquire(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        assertEquals(ErrorLogLimiter.SKIP, errorLogLimiter.tryAcquire(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        assertEquals(ErrorLogLimiter.SKIP, errorLogLimiter.tryAcquire(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        // 다른 ErrorCode 는 따로 제한
+        assertEquals(0, errorLogLimiter.tryAcquire(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+
+        Thread.sleep(150);
+        assertEquals(2, errorLogLimiter.tryAcquire(ErrorCode.AMOUNT_EXCEED_BALANCE));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.bank_account.cluster;
+
+import com.example.bank_account.config.ClusterProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterMembershipTest {
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RMap<String, String> nodes;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final Map<String, String> registered = new HashMap<>();
+    private ClusterMembership clusterMembership;
+
+    @BeforeEach
+    void setUp() {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setNodeId("node-1");
+        properties.setAdvertiseUrl("http://localhost:8081");
+        properties.setRebalanceGrace(Duration.ofSeconds(15));
+        properties.setNodeTimeout(Duration.ofSeconds(5));
+        given(redissonClient.<String, String>getMap(ClusterMembership.NODES_KEY)).willReturn(nodes);
+        given(nodes.readAllMap()).willAnswer(invocation -> new HashMap<>(registered));
+        clusterMembership = new ClusterMembership(properties, redissonClient, eventPublisher, now::get);
+    }
+
+    @Test
+    void waitGraceBeforeOwningAccounts() {
+    // given
+        registered.put("node-1", "http://localhost:8081 " + now.get());
+    // when
+        clusterMembership.refresh();
+    // then
+        assertTrue(clusterMembership.isLocal("1000000000"));
+        assertFalse(clusterMembership.isSettled("1000000000"));
+        verify(nodes).fastPut("node-1", "http://localhost:8081 " + now.get());
+
+        heartbeatFor(15_000L);
+        clusterMembership.refresh();
+        assertTrue(clusterMembership.isSettled("1000000000"));
+        verify(eventPublisher, times(1)).publishEvent(
+                argThat((OwnershipSettledEvent event) -> event.getNodeIds().equals(Set.of("node-1"))));
+    }
+
+    @Test
+    void keepAccountsOwnedBeforeChange() {
+    // given
+        registered.put("node-1", "http://localhost:8081 " + now.get());
+        clusterMembership.refresh();
+        heartbeatFor(15_000L);
+    // when
+        registered.put("node-2", "http://localhost:8082 " + now.get());
+        clusterMembership.refresh();
+    // then
+        String kept = null;
+        String moved = null;
+        for (long i = 1000000000L; kept == null || moved == null; i++) {
+            String accountNumber = String.valueOf(i);
+            if (clusterMembership.isLocal(accountNumber)) {
+                kept = accountNumber;
+            } else {
+                moved = accountNumber;
+            }
+        }
+        // 계속 맡는 계좌는 바로 처리, 넘어간 계좌는 새 담당 서버로
+        assertTrue(clusterMembership.isSettled(kept));
+        assertEquals("node-2", clusterMembership.ownerOf(moved));
+        assertEquals("http://localhost:8082", clusterMembership.urlOf("node-2"));
+    }
+
+    @Test
+    void removeNodeWithoutHeartbeat() {
+    // given
+        registered.put("node-1", "http://localhost:8081 " + now.get());
+        registered.put("node-2", "http://localhost:8082 " + (now.get() - 6_000L));
+    // when
+        clusterMembership.refresh();
+    // then
+        verify(nodes).remove("node-2", "http://localhost:8082 " + (now.get() - 6_000L));
+        assertEquals("node-1", clusterMembership.ownerOf("1000000000"));
+        assertNull(clusterMembership.urlOf("node-2"));
+        verify(eventPublisher, never()).publishEvent(any(OwnershipSettledEvent.class));
+    }
+
+    @Test
+    void stopServingWhenHeartbeatFails() {
+    // given
+        registered.put("node-1", "http://localhost:8081 " + now.get());
+        clusterMembership.refresh();
+        heartbeatFor(15_000L);
+        assertTrue(clusterMembership.isSettled("1000000000"));
+    // when
+        now.addAndGet(6_000L);
+    // then
+        // 자기 heartbeat 가 node-timeout 넘게 없으면 다른 서버가 계좌를 맡았을 수 있다
+        assertTrue(clusterMembership.isLocal("1000000000"));
+        assertFalse(clusterMembership.isSettled("1000000000"));
+
+        // 다시 성공하면 grace 를 기다린 뒤에 처리
+        registered.put("node-1", "http://localhost:8081 " + now.get());
+        clusterMembership.refresh();
+        assertFalse(clusterMembership.isSettled("1000000000"));
+        heartbeatFor(15_000L);
+        assertTrue(clusterMembership.isSettled("1000000000"));
+    }
+
+    /**
+     * heartbeat-interval 마다 refresh 되는 것처럼 1초씩 시간을 보낸다
+     */
+    private void heartbeatFor(long millis) {
+        for (long elapsed = 0; elapsed < millis; elapsed += 1_000L) {
+            now.addAndGet(1_000L);
+            registered.put("node-1", "http://localhost:8081 " + now.get());
+            clusterMembership.refresh();
+        }
+    }
+}
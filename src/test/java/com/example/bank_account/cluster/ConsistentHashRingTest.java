@@ -0,0 +1,65 @@
+package com.example.bank_account.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static final int ACCOUNTS = 30000;
+
+    @Test
+    void spreadAccountsEvenly() {
+    // given
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("node-1", "node-2", "node-3"), 128);
+    // when
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            counts.merge(ring.ownerOf(accountNumber(i)), 1, Integer::sum);
+        }
+    // then
+        assertEquals(3, counts.size());
+        counts.values().forEach(count ->
+                assertTrue(Math.abs(count - ACCOUNTS / 3) < ACCOUNTS / 3 * 0.2, counts.toString()));
+    }
+
+    @Test
+    void moveOnlyAccountsOfAddedNode() {
+    // given
+        ConsistentHashRing before = ConsistentHashRing.of(List.of("node-1", "node-2", "node-3"), 128);
+        ConsistentHashRing after = ConsistentHashRing.of(List.of("node-1", "node-2", "node-3", "node-4"), 128);
+    // when
+        int moved = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String previousOwner = before.ownerOf(accountNumber(i));
+            String owner = after.ownerOf(accountNumber(i));
+            if (!previousOwner.equals(owner)) {
+                // 옮겨가는 계좌는 모두 새 서버로
+                assertEquals("node-4", owner);
+                moved++;
+            }
+        }
+    // then
+        assertTrue(Math.abs(moved - ACCOUNTS / 4) < ACCOUNTS / 4 * 0.2, String.valueOf(moved));
+    }
+
+    @Test
+    void sameRingRegardlessOfOrder() {
+    // given
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("node-1", "node-2"), 16);
+        ConsistentHashRing reversed = ConsistentHashRing.of(List.of("node-2", "node-1"), 16);
+    // when
+    // then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.ownerOf(accountNumber(i)), reversed.ownerOf(accountNumber(i)));
+        }
+        assertNull(ConsistentHashRing.EMPTY.ownerOf(accountNumber(0)));
+    }
+
+    private static String accountNumber(int i) {
+        return String.valueOf(1000000000L + i);
+    }
+}
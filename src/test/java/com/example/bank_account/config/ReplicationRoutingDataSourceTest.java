@@ -0,0 +1,50 @@
+package com.example.bank_account.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationRoutingDataSourceTest {
+    private final ReplicationRoutingDataSource routingDataSource
+            = new ReplicationRoutingDataSource();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writeGoesToPrimary() {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        // when
+        // then
+        assertEquals(ReplicationRoutingDataSource.PRIMARY,
+                routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyGoesToReplica() {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        // when
+        // then
+        assertEquals(ReplicationRoutingDataSource.REPLICA,
+                routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyOnPrimaryWhenForced() {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        // when
+        Object lookupKey = ReplicationRoutingDataSource.onPrimary(
+                routingDataSource::determineCurrentLookupKey);
+        // then
+        assertEquals(ReplicationRoutingDataSource.PRIMARY, lookupKey);
+        assertEquals(ReplicationRoutingDataSource.REPLICA,
+                routingDataSource.determineCurrentLookupKey());
+    }
+}
@@ -5,36 +5,57 @@ import com.example.bank_account.domain.Account;
 import com.example.bank_account.domain.AccountStatus;
 import com.example.bank_account.dto.AccountDto;
 import com.example.bank_account.dto.CreateAccount;
+import com.example.bank_account.dto.DailySpendDto;
 import com.example.bank_account.dto.DeleteAccount;
+import com.example.bank_account.dto.QueryAccounts;
+import com.example.bank_account.dto.QueryBalanceResponse;
 import com.example.bank_account.service.AccountService;
+import com.example.bank_account.service.BalanceHistoryService;
+import com.example.bank_account.service.BalanceStreamBroadcaster;
+import com.example.bank_account.service.DailySpendService;
 import com.example.bank_account.type.ErrorCode;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import(SimpleMeterRegistry.class)
 @WebMvcTest(AccountController.class)
 class AccountControllerTest {
     @MockBean
     private AccountService accountService;
+    @MockBean
+    private BalanceStreamBroadcaster balanceStreamBroadcaster;
+    @MockBean
+    private BalanceHistoryService balanceHistoryService;
+    @MockBean
+    private DailySpendService dailySpendService;
     @Autowired
     private MockMvc mockMvc;
     @Autowired
@@ -85,6 +106,29 @@ class AccountControllerTest {
                 .andDo(print());
 
     }
+    @Test
+    void successGetAccountsByUserIds() throws Exception {
+    // given
+        given(accountService.getAccountsByUserIds(any()))
+                .willReturn(Map.of(1L, List.of(AccountDto.builder()
+                        .userId(1L)
+                        .accountNumber("1234567890")
+                        .balance(1000L).build())));
+    // when
+    // then
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new QueryAccounts.Request(List.of(1L, 2L, 1L))
+                        )))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].userId").value(1))
+                .andExpect(jsonPath("$.users[0].accounts[0].accountNumber").value("1234567890"))
+                .andExpect(jsonPath("$.notFoundUserIds[0]").value(2));
+    }
+
     @Test
     void successGetAccountsByUserId() throws Exception {
     // given
@@ -142,4 +186,60 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.errorMessage").value("계좌가 없습니다."))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+    @Test
+    void successStreamBalance() throws Exception {
+        // given
+        given(balanceStreamBroadcaster.subscribe(2L, null, 5L))
+                .willReturn(new SseEmitter());
+        // when
+        // then
+        mockMvc.perform(get("/account/stream?user_id=2")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted());
+        verify(balanceStreamBroadcaster).subscribe(2L, null, 5L);
+    }
+    @Test
+    void successGetBalanceAt() throws Exception {
+        // given
+        LocalDateTime at = LocalDateTime.of(2022, 9, 1, 12, 0);
+        given(balanceHistoryService.getBalanceAt("1000000000", at))
+                .willReturn(QueryBalanceResponse.builder()
+                        .accountNumber("1000000000")
+                        .at(at)
+                        .balance(9000L)
+                        .transactedAt(at.minusHours(1))
+                        .build());
+        // when
+        // then
+        mockMvc.perform(get("/account/1000000000/balance?at=2022-09-01T12:00:00"))
+                .andDo(print())
+                .andExpect(jsonPath("$.accountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.balance").value(9000))
+                .andExpect(status().isOk());
+    }
+    @Test
+    void successGetDailySpend() throws Exception {
+        // given
+        LocalDate date = LocalDate.of(2022, 9, 1);
+        given(dailySpendService.getDailySpend("1000000000", date))
+                .willReturn(DailySpendDto.builder()
+                        .accountNumber("1000000000")
+                        .spendDate(date)
+                        .useAmount(3000L)
+                        .useCount(2L)
+                        .cancelAmount(1000L)
+                        .cancelCount(1L)
+                        .netAmount(2000L)
+                        .netCount(1L)
+                        .build());
+        // when
+        // then
+        mockMvc.perform(get("/account/1000000000/daily-spend?date=2022-09-01"))
+                .andDo(print())
+                .andExpect(jsonPath("$.spendDate").value("2022-09-01"))
+                .andExpect(jsonPath("$.netAmount").value(2000))
+                .andExpect(jsonPath("$.useCount").value(2))
+                .andExpect(status().isOk());
+    }
+}
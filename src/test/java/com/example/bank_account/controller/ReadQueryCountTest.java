@@ -0,0 +1,131 @@
+package com.example.bank_account.controller;
+
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.dto.AccountDto;
+import com.example.bank_account.dto.AccountInfo;
+import com.example.bank_account.dto.QueryAccounts;
+import com.example.bank_account.dto.QueryTransactionResponse;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.service.AccountService;
+import com.example.bank_account.service.OutboxRelay;
+import com.example.bank_account.service.TransactionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 조회 API 가 실행하는 SQL 수를 검사한다 (N+1 회귀 방지)
+ */
+@SpringBootTest
+class ReadQueryCountTest {
+    @Autowired
+    private AccountController accountController;
+    @Autowired
+    private TransactionController transactionController;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // background relay 의 outbox 조회가 통계에 섞이지 않도록
+        outboxRelay.stop();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRelay.start();
+    }
+
+    @Test
+    @DisplayName("계좌 확인 - 계좌 수와 상관없이 2번의 쿼리, 이후 캐시")
+    void getAccountsByUserId() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            accountService.createAccount(3L, 1000L);
+        }
+        statistics.clear();
+        // when
+        List<AccountInfo> accountInfos = accountController.getAccountsByUserId(3L);
+        // then
+        assertTrue(accountInfos.size() >= 3);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // 두 번째 조회는 캐시에서 응답
+        statistics.clear();
+        accountController.getAccountsByUserId(3L);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("여러 사용자 계좌 확인 - 사용자 수와 상관없이 2번의 쿼리")
+    void getAccountsByUserIds() {
+        // given
+        accountService.createAccount(1L, 1000L);
+        accountService.createAccount(2L, 1000L);
+        statistics.clear();
+        // when
+        QueryAccounts.Response response = accountController.getAccountsByUserIds(
+                new QueryAccounts.Request(List.of(1L, 2L, 999L)));
+        // then
+        assertEquals(2, response.getUsers().size());
+        assertEquals(List.of(999L), response.getNotFoundUserIds());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("거래 확인 - 1번의 쿼리")
+    void queryTransaction() {
+        // given
+        AccountDto accountDto = accountService.createAccount(2L, 1000L);
+        TransactionDto transactionDto = transactionService.useBalance(
+                2L, accountDto.getAccountNumber(), 100L);
+        statistics.clear();
+        // when
+        QueryTransactionResponse response = transactionController
+                .queryTransaction(transactionDto.getTransactionId());
+        // then
+        assertEquals(accountDto.getAccountNumber(), response.getAccountNumber());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("계좌 단건 확인 - 1번의 쿼리")
+    void getAccount() {
+        // given
+        AccountDto accountDto = accountService.createAccount(1L, 1000L);
+        Long id = accountRepository.findByAccountNumber(accountDto.getAccountNumber())
+                .get().getId();
+        statistics.clear();
+        // when
+        Account account = accountController.getAccount(id);
+        // then
+        assertEquals(1L, account.getAccountUser().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,14 +1,25 @@
 package com.example.bank_account.controller;
 
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.domain.Account;
 import com.example.bank_account.dto.*;
+import com.example.bank_account.domain.HoldStatus;
+import com.example.bank_account.service.BalanceMirrorService;
+import com.example.bank_account.service.HoldExpiryScheduler;
+import com.example.bank_account.service.PendingUseProcessor;
 import com.example.bank_account.service.TransactionService;
+import com.example.bank_account.type.ErrorCode;
 import com.example.bank_account.type.TransactionResultType;
 import com.example.bank_account.type.TransactionType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -17,21 +28,35 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import(SimpleMeterRegistry.class)
 @WebMvcTest(TransactionController.class)
 class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private BalanceMirrorService balanceMirrorService;
+
+    @MockBean
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @MockBean
+    private PendingUseProcessor pendingUseProcessor;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -66,6 +91,33 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.amount").value(12345));
     }
     @Test
+    void successSubmitUseBalance () throws Exception {
+        // given
+        given(transactionService.submitUseBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(TransactionDto
+                        .builder()
+                        .accountNumber("1000000000")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(3000L)
+                        .transactionId("transactionId")
+                        .transactionResultType(TransactionResultType.P)
+                        .build());
+        // when
+        // then
+        mockMvc.perform(post("/transaction/use")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, "1000000000", 3000L)
+                        )))
+                .andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/transaction/transactionId"))
+                .andExpect(jsonPath("$.transactionResult").value("P"))
+                .andExpect(jsonPath("$.transactionId").value("transactionId"));
+        verify(pendingUseProcessor).enqueue("1000000000", "transactionId");
+    }
+    @Test
     void successCancelBalance () throws Exception {
         // given
         given(transactionService.cancelBalance(anyString(), anyString(), anyLong()))
@@ -93,6 +145,82 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.amount").value(54321));
     }
     @Test
+    @DisplayName("잔액 mirror 사용 시 Redis 잔액을 되돌리지 못하면 취소 상태도 되돌린다")
+    void cancelMirroredBalance_restoreCancelled() throws Exception {
+        // given
+        Account account = Account.builder().id(7L).accountNumber("1000000000").build();
+        given(balanceMirrorService.isEnabled())
+                .willReturn(true);
+        given(transactionService.markCancelled(anyString(), anyString(), anyLong()))
+                .willReturn(account);
+        given(balanceMirrorService.cancelBalance(account, 3000L, "transactionId"))
+                .willThrow(AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND));
+        // when
+        // then
+        mockMvc.perform(post("/transaction/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CancelBalance.Request("transactionId", "1000000000", 3000L)
+                        )))
+                .andDo(print())
+                .andExpect(jsonPath("$.errorCode").value("ACCOUNT_NOT_FOUND"));
+        InOrder inOrder = inOrder(balanceMirrorService, transactionService);
+        inOrder.verify(balanceMirrorService).awaitFlushed("transactionId");
+        inOrder.verify(transactionService).markCancelled("transactionId", "1000000000", 3000L);
+        inOrder.verify(balanceMirrorService).cancelBalance(account, 3000L, "transactionId");
+        inOrder.verify(transactionService).unmarkCancelled("transactionId");
+    }
+    @Test
+    void successAuthorizeBalance() throws Exception {
+        // given
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+        given(transactionService.authorizeBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(HoldDto.builder()
+                        .accountNumber("1000000000")
+                        .holdId("holdId")
+                        .amount(3000L)
+                        .status(HoldStatus.HELD)
+                        .heldAt(LocalDateTime.now())
+                        .expiresAt(expiresAt)
+                        .build());
+        // when
+        // then
+        mockMvc.perform(post("/transaction/authorize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new AuthorizeBalance.Request(1L, "1000000000", 3000L)
+                        )))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.holdId").value("holdId"))
+                .andExpect(jsonPath("$.amount").value(3000));
+        verify(holdExpiryScheduler).schedule("holdId", expiresAt);
+    }
+    @Test
+    void successVoidBalance() throws Exception {
+        // given
+        given(transactionService.voidBalance(anyString(), anyString()))
+                .willReturn(HoldDto.builder()
+                        .accountNumber("1000000000")
+                        .holdId("holdId")
+                        .amount(3000L)
+                        .status(HoldStatus.VOIDED)
+                        .build());
+        // when
+        // then
+        mockMvc.perform(post("/transaction/void")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new VoidBalance.Request("holdId", "1000000000")
+                        )))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdStatus").value("VOIDED"))
+                .andExpect(jsonPath("$.amount").value(3000));
+        verify(holdExpiryScheduler).cancel("holdId");
+    }
+    @Test
     void successQueryTransaction() throws Exception {
         // given
         given(transactionService.queryTransaction(anyString()))
@@ -113,6 +241,7 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.transactionType").value("USE"))
                 .andExpect(jsonPath("$.transactionResult").value("S"))
                 .andExpect(jsonPath("$.transactionId").value("transactionIdForCancel"))
-                .andExpect(jsonPath("$.amount").value(54321));
+                .andExpect(jsonPath("$.amount").value(54321))
+                .andExpect(header().string("Server-Timing", startsWith("total;dur=")));
     }
 }
\ No newline at end of file
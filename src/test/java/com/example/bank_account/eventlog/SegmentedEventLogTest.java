@@ -0,0 +1,137 @@
+package com.example.bank_account.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedEventLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readAcrossSegments() throws IOException {
+    // given
+        try (SegmentedEventLog eventLog = new SegmentedEventLog(directory, 100, Duration.ofDays(1))) {
+    // when
+            long first = eventLog.append(payloads(0, 10));
+            long next = eventLog.append(payloads(10, 20));
+    // then
+            assertEquals(0L, first);
+            assertEquals(10L, next);
+            assertEquals(20L, eventLog.getNextOffset());
+            // 기록 하나가 26 byte 라 segment 마다 3개
+            assertEquals(7, segmentCount());
+            List<LogRecord> records = eventLog.read(5, 100);
+            assertEquals(15, records.size());
+            assertEquals(5L, records.get(0).getOffset());
+            assertEquals("event-0005", text(records.get(0)));
+            assertEquals("event-0019", text(records.get(14)));
+            assertEquals(3, eventLog.read(17, 3).size());
+            assertTrue(eventLog.read(20, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void truncateTornRecordOnReopen() throws IOException {
+    // given
+        try (SegmentedEventLog eventLog = new SegmentedEventLog(directory, 1024, Duration.ofDays(1))) {
+            eventLog.append(payloads(0, 3));
+        }
+        Path segment = directory.resolve(String.format("%020d.log", 0));
+        long validSize = Files.size(segment);
+        // 기록 도중 죽은 것처럼 header 일부만 남김
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 10, 1, 2}));
+        }
+    // when
+        try (SegmentedEventLog eventLog = new SegmentedEventLog(directory, 1024, Duration.ofDays(1))) {
+    // then
+            assertEquals(3L, eventLog.getNextOffset());
+            assertEquals(validSize, Files.size(segment));
+            assertEquals(3L, eventLog.append(payloads(3, 4)));
+            assertEquals(List.of("event-0000", "event-0001", "event-0002", "event-0003"),
+                    eventLog.read(0, 10).stream().map(SegmentedEventLogTest::text).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void keepOffsetWhenFlushFails() throws IOException {
+    // given
+        SegmentedEventLog eventLog = new SegmentedEventLog(directory, 1024, Duration.ofDays(1));
+        eventLog.append(payloads(0, 3));
+        // 디스크에 쓰지 못하는 상황
+        eventLog.close();
+    // when
+        assertThrows(IOException.class, () -> eventLog.append(payloads(3, 5)));
+    // then
+        // 반영되지 못한 기록에는 offset 을 주지 않는다
+        assertEquals(3L, eventLog.getNextOffset());
+        try (SegmentedEventLog reopened = new SegmentedEventLog(directory, 1024, Duration.ofDays(1))) {
+            assertEquals(3L, reopened.append(payloads(3, 4)));
+            assertEquals(4, reopened.read(0, 10).size());
+        }
+    }
+
+    @Test
+    void commitConsumerOffset() throws IOException {
+    // given
+        try (SegmentedEventLog eventLog = new SegmentedEventLog(directory, 1024, Duration.ofDays(1))) {
+            eventLog.append(payloads(0, 5));
+    // when
+            long before = eventLog.committedOffset("notification");
+            eventLog.commitOffset("notification", 3);
+    // then
+            assertEquals(0L, before);
+            assertEquals(3L, eventLog.committedOffset("notification"));
+            assertEquals(0L, eventLog.committedOffset("analytics"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> eventLog.commitOffset("../notification", 1));
+        }
+        try (SegmentedEventLog eventLog = new SegmentedEventLog(directory, 1024, Duration.ofDays(1))) {
+            assertEquals(3L, eventLog.committedOffset("notification"));
+        }
+    }
+
+    @Test
+    void deleteExpiredSegmentsOnRoll() throws IOException {
+    // given
+        try (SegmentedEventLog eventLog = new SegmentedEventLog(directory, 100, Duration.ZERO)) {
+    // when
+            eventLog.append(payloads(0, 10));
+    // then
+            assertEquals(1, segmentCount());
+            // 지워진 offset 을 읽으면 남아있는 처음부터
+            assertEquals(9L, eventLog.read(0, 10).get(0).getOffset());
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+
+    private static List<byte[]> payloads(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> String.format("event-%04d", i).getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+
+    private static String text(LogRecord record) {
+        return new String(record.getPayload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bank_account.jfr;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.type.ErrorCode;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingTest {
+
+    @Test
+    void recordEventsWithShippedSettings(@TempDir Path directory) throws Exception {
+    // given
+        Account account = Account.builder()
+                .accountNumber("1000000000")
+                .balance(10000L)
+                .build();
+        Path file = directory.resolve("test.jfr");
+    // when
+        try (Recording recording = new Recording(FlightRecording.settings())) {
+            recording.start();
+            account.useBalance(1000L);
+            new AccountException(ErrorCode.ACCOUNT_NOT_FOUND);
+            recording.stop();
+            recording.dump(file);
+        }
+    // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.example.bank_account"))
+                .collect(Collectors.toList());
+        RecordedEvent balanceChange = events.stream()
+                .filter(event -> event.getEventType().getName().endsWith("BalanceChange"))
+                .findFirst().orElseThrow();
+        assertEquals("USE", balanceChange.getString("transactionType"));
+        assertEquals(10000L, balanceChange.getLong("balanceBefore"));
+        assertEquals(9000L, balanceChange.getLong("balanceAfter"));
+        RecordedEvent exception = events.stream()
+                .filter(event -> event.getEventType().getName().endsWith("AccountException"))
+                .findFirst().orElseThrow();
+        assertEquals("ACCOUNT_NOT_FOUND", exception.getString("errorCode"));
+        assertNotNull(exception.getStackTrace());
+    }
+}
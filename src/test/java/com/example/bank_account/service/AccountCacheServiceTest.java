@@ -0,0 +1,84 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.dto.AccountDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCacheServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RTopic rTopic;
+
+    private AccountCacheService accountCacheService;
+
+    @BeforeEach
+    void setUp() {
+        given(redissonClient.getTopic(anyString()))
+                .willReturn(rTopic);
+        accountCacheService = new AccountCacheService(redissonClient, 100, 60, 0);
+        accountCacheService.subscribe();
+    }
+
+    @Test
+    void cacheHit() {
+        // given
+        AtomicInteger loadCount = new AtomicInteger();
+        // when
+        accountCacheService.getAccounts(1L, true, () -> load(loadCount));
+        List<AccountDto> accounts = accountCacheService.getAccounts(1L, true, () -> load(loadCount));
+        // then
+        assertEquals(1, loadCount.get());
+        assertEquals("1000000000", accounts.get(0).getAccountNumber());
+    }
+
+    @Test
+    void evictAndPublish() {
+        // given
+        AtomicInteger loadCount = new AtomicInteger();
+        accountCacheService.getAccounts(1L, true, () -> load(loadCount));
+        // when
+        accountCacheService.evict(1L);
+        accountCacheService.getAccounts(1L, true, () -> load(loadCount));
+        // then
+        assertEquals(2, loadCount.get());
+        verify(rTopic, times(1)).publishAsync(endsWith(":1"));
+    }
+
+    @Test
+    void replicaEntryExpiresAfterMaxStaleness() {
+        // given
+        AtomicInteger loadCount = new AtomicInteger();
+        // when
+        accountCacheService.getAccounts(1L, false, () -> load(loadCount));
+        accountCacheService.getAccounts(1L, false, () -> load(loadCount));
+        // then
+        assertEquals(2, loadCount.get());
+    }
+
+    private static List<AccountDto> load(AtomicInteger loadCount) {
+        loadCount.incrementAndGet();
+        return Collections.singletonList(AccountDto.builder()
+                .userId(1L)
+                .accountNumber("1000000000")
+                .balance(1000L)
+                .build());
+    }
+}
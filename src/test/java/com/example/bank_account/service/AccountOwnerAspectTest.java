@@ -0,0 +1,53 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.dto.CancelBalance;
+import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountOwnerAspectTest {
+    @Mock
+    private AccountOwnerCache accountOwnerCache;
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+    @InjectMocks
+    private AccountOwnerAspect accountOwnerAspect;
+
+    @Test
+    void rejectBeforeProceed() throws Throwable {
+    // given
+        doThrow(AccountException.rejected(ErrorCode.USER_ACCOUNT_UN_MATCH))
+                .when(accountOwnerCache).checkOwner(12L, "1000000012");
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountOwnerAspect.aroundMethod(proceedingJoinPoint,
+                        new UseBalance.Request(12L, "1000000012", 1000L)));
+    // then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+
+    @Test
+    void skipRequestWithoutUserId() throws Throwable {
+    // given
+        given(proceedingJoinPoint.proceed()).willReturn("result");
+    // when
+        Object result = accountOwnerAspect.aroundMethod(proceedingJoinPoint,
+                new CancelBalance.Request("transactionId", "1000000012", 1000L));
+    // then
+        assertEquals("result", result);
+        verify(accountOwnerCache, never()).checkOwner(any(), any());
+    }
+}
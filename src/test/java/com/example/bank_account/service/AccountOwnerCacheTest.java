@@ -0,0 +1,105 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.domain.AccountStatus;
+import com.example.bank_account.dto.AccountOwner;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.AccountUserRepository;
+import com.example.bank_account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountOwnerCacheTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountUserRepository accountUserRepository;
+    @Mock
+    private RedissonClient redissonClient;
+
+    private AccountOwnerCache accountOwnerCache;
+
+    @BeforeEach
+    void setUp() {
+        accountOwnerCache = new AccountOwnerCache(accountRepository, accountUserRepository,
+                redissonClient, 100);
+    }
+
+    @Test
+    void loadOnceAndCheckOwner() {
+    // given
+        given(accountRepository.findOwnerByAccountNumber("1000000012"))
+                .willReturn(Optional.of(new AccountOwner(12L, 1L, AccountStatus.IN_USE)));
+    // when
+        accountOwnerCache.checkOwner(12L, "1000000012");
+        accountOwnerCache.checkOwner(12L, "1000000012");
+    // then
+        verify(accountRepository, times(1)).findOwnerByAccountNumber("1000000012");
+    }
+
+    @Test
+    void rejectOtherUser() {
+    // given
+        given(accountRepository.findOwnerByAccountNumber("1000000012"))
+                .willReturn(Optional.of(new AccountOwner(12L, 1L, AccountStatus.IN_USE)));
+        given(accountUserRepository.existsById(13L)).willReturn(true);
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountOwnerCache.checkOwner(13L, "1000000012"));
+    // then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+    }
+
+    @Test
+    void reloadAfterEvict() {
+    // given
+        given(accountRepository.findOwnerByAccountNumber("1000000012"))
+                .willReturn(Optional.of(new AccountOwner(12L, 1L, AccountStatus.IN_USE)))
+                .willReturn(Optional.of(new AccountOwner(12L, 1L, AccountStatus.UNREGISTERED)));
+        accountOwnerCache.checkOwner(12L, "1000000012");
+    // when
+        accountOwnerCache.evict("1000000012");
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountOwnerCache.checkOwner(12L, "1000000012"));
+    // then
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+    }
+
+    @Test
+    void notCacheMissingAccount() {
+    // given
+        given(accountRepository.findOwnerByAccountNumber("1000000012"))
+                .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(12L)).willReturn(true);
+    // when
+        assertThrows(AccountException.class, () -> accountOwnerCache.checkOwner(12L, "1000000012"));
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountOwnerCache.checkOwner(12L, "1000000012"));
+    // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        verify(accountRepository, times(2)).findOwnerByAccountNumber("1000000012");
+    }
+
+    @Test
+    void keyOnlyForNumericAccountNumber() {
+    // given
+    // when
+    // then
+        assertEquals(1000000012L, AccountOwnerCache.toKey("1000000012"));
+        assertEquals(-1L, AccountOwnerCache.toKey("0000000012"));
+        assertEquals(-1L, AccountOwnerCache.toKey("10000000ab"));
+        assertEquals(-1L, AccountOwnerCache.toKey(""));
+    }
+}
@@ -20,7 +20,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -36,6 +39,21 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private AccountCacheService accountCacheService;
+
+    @Mock
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @Mock
+    private BalanceMirrorService balanceMirrorService;
+
+    @Mock
+    private KnownKeyFilter knownKeyFilter;
+
+    @Mock
+    private AccountOwnerCache accountOwnerCache;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -47,6 +65,8 @@ class AccountServiceTest {
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
+        given(accountUserRepository.increaseAccountCount(anyLong(), anyInt()))
+                .willReturn(1);
         given(accountRepository.findFirstByOrderByIdDesc())
                 .willReturn(Optional.of(Account.builder()
                                 .accountUser(user)
@@ -75,6 +95,8 @@ class AccountServiceTest {
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
+        given(accountUserRepository.increaseAccountCount(anyLong(), anyInt()))
+                .willReturn(1);
         given(accountRepository.findFirstByOrderByIdDesc())
                 .willReturn(Optional.empty());
         given(accountRepository.save(any()))
@@ -115,8 +137,8 @@ class AccountServiceTest {
                 .id(15L).name("Kevin").build();
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.countByAccountUser(any()))
-                .willReturn(10);
+        given(accountUserRepository.increaseAccountCount(anyLong(), anyInt()))
+                .willReturn(0);
     // when
         AccountException exception = assertThrows(AccountException.class,
                 ()-> accountService.createAccount(1L, 1000L));
@@ -129,8 +151,6 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L).name("Kevin").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(user)
@@ -140,10 +160,13 @@ class AccountServiceTest {
         ArgumentCaptor<Account> captor = ArgumentCaptor.forClass(Account.class);
 
         // when
-        AccountDto accountDto = accountService.deleteAccount(1L, "1234567890");
+        AccountDto accountDto = accountService.deleteAccount(12L, "1234567890");
 
         // then
         verify(accountRepository, times(1)).save(captor.capture());
+        verify(accountUserRepository, times(1)).decreaseAccountCount(12L);
+        verify(accountCacheService, times(1)).evict(12L);
+        verify(accountOwnerCache, times(1)).evict("1234567890");
         assertEquals(12L, accountDto.getUserId());
         assertEquals("1000000012", captor.getValue().getAccountNumber());
         assertEquals(AccountStatus.UNREGISTERED, captor.getValue().getAccountStatus());
@@ -154,8 +177,8 @@ class AccountServiceTest {
     void deleteAccount_UserNotFound () {
         // given
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(false);
 
         // when
         AccountException exception = assertThrows(AccountException.class,
@@ -171,14 +194,14 @@ class AccountServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L).name("Kevin").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
 
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> accountService.deleteAccount(1L, "1234567890"));
+                () -> accountService.deleteAccount(12L, "1234567890"));
 
         // then
         assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
@@ -193,8 +216,8 @@ class AccountServiceTest {
         AccountUser Grace = AccountUser.builder()
                 .id(13L).name("Grace").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(Kevin));
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(Grace)
@@ -202,7 +225,7 @@ class AccountServiceTest {
                         .accountNumber("1000000012").build()));
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> accountService.deleteAccount(1L, "1234567890"));
+                () -> accountService.deleteAccount(12L, "1234567890"));
 
         // then
         assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
@@ -214,8 +237,6 @@ class AccountServiceTest {
         AccountUser Kevin = AccountUser.builder()
                 .id(12L).name("Kevin").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(Kevin));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(Kevin)
@@ -223,7 +244,7 @@ class AccountServiceTest {
                         .accountNumber("1000000012").build()));
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> accountService.deleteAccount(1L, "1234567890"));
+                () -> accountService.deleteAccount(12L, "1234567890"));
 
         // then
         assertEquals(ErrorCode.BALANCE_NOT_EMPTY, exception.getErrorCode());
@@ -235,8 +256,6 @@ class AccountServiceTest {
         AccountUser Kevin = AccountUser.builder()
                 .id(12L).name("Kevin").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(Kevin));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(Kevin)
@@ -245,38 +264,72 @@ class AccountServiceTest {
                         .accountNumber("1000000012").build()));
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> accountService.deleteAccount(1L, "1234567890"));
+                () -> accountService.deleteAccount(12L, "1234567890"));
 
         // then
         assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
     }
     @Test
-    void successGetAccountsByUserId() {
+    @DisplayName("여러 사용자 계좌 확인 - 캐시에 없는 사용자만 chunk 단위 IN 조회")
+    void getAccountsByUserIdsInChunks() {
         // given
-        AccountUser Kevin = AccountUser.builder()
-                .id(12L).name("Kevin").build();
+        // 캐시에 있는 1번을 빼면 chunk 두 개
+        List<Long> userIds = new ArrayList<>();
+        for (long userId = 1; userId <= AccountService.BATCH_CHUNK_SIZE + 2; userId++) {
+            userIds.add(userId);
+        }
+        List<AccountDto> cached = List.of(AccountDto.builder()
+                .userId(1L).accountNumber("1000000000").balance(1000L).build());
+        given(accountCacheService.getIfPresent(anyLong()))
+                .willAnswer(invocation -> invocation.<Long>getArgument(0) == 1L ? cached : null);
+        given(accountUserRepository.findExistingIds(any()))
+                .willAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                        .filter(userId -> userId != 3L)
+                        .collect(Collectors.toList()));
+        given(accountRepository.findDtosByAccountUserIdIn(any()))
+                .willAnswer(invocation -> invocation.<List<Long>>getArgument(0).contains(2L)
+                        ? List.of(AccountDto.builder().userId(2L).accountNumber("1000000001").build(),
+                                AccountDto.builder().userId(2L).accountNumber("1000000002").build())
+                        : List.of());
+        // when
+        Map<Long, List<AccountDto>> accountsByUser = accountService.getAccountsByUserIds(userIds);
+        // then
+        verify(accountRepository, times(2)).findDtosByAccountUserIdIn(any());
+        verify(accountUserRepository, times(2)).findExistingIds(any());
+        assertEquals(AccountService.BATCH_CHUNK_SIZE + 1, accountsByUser.size());
+        assertSame(cached, accountsByUser.get(1L));
+        assertEquals(2, accountsByUser.get(2L).size());
+        assertFalse(accountsByUser.containsKey(3L));
+        assertTrue(accountsByUser.get(4L).isEmpty());
+    }
 
-        List<Account> accounts = Arrays.asList(
-                Account.builder()
-                        .accountUser(Kevin)
+    @Test
+    void successGetAccountsByUserId() {
+        // given
+        List<AccountDto> accounts = Arrays.asList(
+                AccountDto.builder()
+                        .userId(12L)
                         .accountNumber("1111111111")
                         .balance(1000L)
                         .build(),
-                Account.builder()
-                        .accountUser(Kevin)
+                AccountDto.builder()
+                        .userId(12L)
                         .accountNumber("2222222222")
                         .balance(2000L)
                         .build(),
-                Account.builder()
-                        .accountUser(Kevin)
+                AccountDto.builder()
+                        .userId(12L)
                         .accountNumber("3333333333")
                         .balance(3000L)
                         .build()
         );
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(Kevin));
-        given(accountRepository.findByAccountUser(any()))
+        given(accountCacheService.getAccounts(anyLong(), anyBoolean(), any()))
+                .willAnswer(invocation -> invocation
+                        .<Supplier<List<AccountDto>>>getArgument(2).get());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
+        given(accountRepository.findDtosByAccountUserId(anyLong()))
                 .willReturn(accounts);
         // when
         List<AccountDto> accountDtos = accountService.getAccountByUserId(1L);
@@ -293,8 +346,11 @@ class AccountServiceTest {
     @Test
     void failToGetAccounts() { // 사용자 id가 없을 때
         // given
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(accountCacheService.getAccounts(anyLong(), anyBoolean(), any()))
+                .willAnswer(invocation -> invocation
+                        .<Supplier<List<AccountDto>>>getArgument(2).get());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(false);
         // when
         AccountException exception = assertThrows(AccountException.class,
                 () -> accountService.getAccountByUserId(1L));
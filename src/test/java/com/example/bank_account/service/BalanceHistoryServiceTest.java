@@ -0,0 +1,158 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.dto.QueryBalanceResponse;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.TransactionRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceHistoryServiceTest {
+    private static final LocalDateTime REGISTERED_AT = LocalDateTime.of(2022, 9, 1, 0, 0);
+
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private BalanceHistoryService balanceHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        balanceHistoryService = new BalanceHistoryService(accountRepository, transactionRepository, 100, 2, false);
+        given(accountRepository.findByAccountNumber("1000000000"))
+                .willReturn(Optional.of(Account.builder()
+                        .id(1L)
+                        .accountNumber("1000000000")
+                        .balance(7000L)
+                        .registeredAt(REGISTERED_AT)
+                        .build()));
+    }
+
+    @Test
+    void rememberClosedInterval() {
+    // given
+        LocalDateTime first = REGISTERED_AT.plusHours(1);
+        LocalDateTime second = REGISTERED_AT.plusHours(2);
+        given(transactionRepository.findDtosTransactedAtOrBefore(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of(transaction(TransactionType.USE, 1000L, 9000L, first)));
+        given(transactionRepository.findDtosTransactedAfter(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of(transaction(TransactionType.USE, 2000L, 7000L, second)));
+    // when
+        QueryBalanceResponse response = balanceHistoryService.getBalanceAt("1000000000", first.plusMinutes(10));
+        QueryBalanceResponse cached = balanceHistoryService.getBalanceAt("1000000000", first.plusMinutes(50));
+    // then
+        assertEquals(9000L, response.getBalance());
+        assertEquals(first, response.getTransactedAt());
+        assertEquals(9000L, cached.getBalance());
+        assertEquals(first.plusMinutes(50), cached.getAt());
+        verify(accountRepository, times(1)).findByAccountNumber("1000000000");
+        verify(transactionRepository, times(1)).findDtosTransactedAtOrBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void notRememberOpenInterval() {
+    // given
+        LocalDateTime last = REGISTERED_AT.plusHours(1);
+        given(transactionRepository.findDtosTransactedAtOrBefore(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of(transaction(TransactionType.CANCEL, 1000L, 10000L, last)));
+        given(transactionRepository.findDtosTransactedAfter(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of());
+    // when
+        balanceHistoryService.getBalanceAt("1000000000", last.plusMinutes(10));
+        QueryBalanceResponse response = balanceHistoryService.getBalanceAt("1000000000", last.plusMinutes(20));
+    // then
+        assertEquals(10000L, response.getBalance());
+        verify(transactionRepository, times(2)).findDtosTransactedAtOrBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void notRememberWhileBalanceMirrored() {
+    // given
+        // 잔액 mirror 사용 중에는 반영 전 거래가 이미 본 구간 사이에 나중에 저장될 수 있다
+        balanceHistoryService = new BalanceHistoryService(accountRepository, transactionRepository, 100, 2, true);
+        LocalDateTime first = REGISTERED_AT.plusHours(1);
+        LocalDateTime second = REGISTERED_AT.plusHours(2);
+        given(transactionRepository.findDtosTransactedAtOrBefore(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of(transaction(TransactionType.USE, 1000L, 9000L, first)));
+        given(transactionRepository.findDtosTransactedAfter(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of(transaction(TransactionType.USE, 2000L, 7000L, second)));
+    // when
+        balanceHistoryService.getBalanceAt("1000000000", first.plusMinutes(10));
+        balanceHistoryService.getBalanceAt("1000000000", first.plusMinutes(50));
+    // then
+        verify(transactionRepository, times(2)).findDtosTransactedAtOrBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void balanceBeforeFirstTransaction() {
+    // given
+        given(transactionRepository.findDtosTransactedAtOrBefore(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of());
+        given(transactionRepository.findDtosTransactedAfter(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of(transaction(TransactionType.USE, 1000L, 9000L, REGISTERED_AT.plusHours(1))));
+    // when
+        QueryBalanceResponse response = balanceHistoryService.getBalanceAt("1000000000", REGISTERED_AT.plusMinutes(1));
+    // then
+        assertEquals(10000L, response.getBalance());
+        assertNull(response.getTransactedAt());
+    }
+
+    @Test
+    void balanceWithoutTransaction() {
+    // given
+        given(transactionRepository.findDtosTransactedAtOrBefore(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of());
+        given(transactionRepository.findDtosTransactedAfter(eq(1L), eq(TransactionResultType.S), any(), any()))
+                .willReturn(List.of());
+        given(accountRepository.findById(1L))
+                .willReturn(Optional.of(Account.builder().id(1L).balance(7000L).build()));
+    // when
+        QueryBalanceResponse response = balanceHistoryService.getBalanceAt("1000000000", REGISTERED_AT.plusDays(1));
+    // then
+        assertEquals(7000L, response.getBalance());
+    }
+
+    @Test
+    void failBeforeRegistration() {
+    // given
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> balanceHistoryService.getBalanceAt("1000000000", REGISTERED_AT.minusSeconds(1)));
+    // then
+        assertEquals(ErrorCode.BALANCE_BEFORE_REGISTRATION, exception.getErrorCode());
+    }
+
+    private static TransactionDto transaction(TransactionType type, Long amount, Long balanceSnapShot,
+                                              LocalDateTime transactedAt) {
+        return TransactionDto.builder()
+                .accountNumber("1000000000")
+                .transactionType(type)
+                .transactionResultType(TransactionResultType.S)
+                .amount(amount)
+                .balanceSnapShot(balanceSnapShot)
+                .transactionId("transactionId")
+                .transactedAt(transactedAt)
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.DailySpendProperties;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.AccountStatus;
+import com.example.bank_account.domain.AccountUser;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceMirrorServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RScript rScript;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private BalanceWriteBehind balanceWriteBehind;
+
+    private BalanceMirrorService balanceMirrorService;
+
+    @BeforeEach
+    void setUp() {
+        balanceMirrorService = new BalanceMirrorService(redissonClient,
+                accountRepository, balanceWriteBehind, new DailySpendProperties(), true, 60);
+    }
+
+    @Test
+    @DisplayName("하루 한도가 있으면 잔액 mirror 를 켤 수 없음")
+    void refuseDailyLimit() {
+        // given
+        DailySpendProperties dailySpendProperties = new DailySpendProperties();
+        dailySpendProperties.setLimit(10000L);
+        // when
+        // then
+        assertThrows(IllegalStateException.class, () -> new BalanceMirrorService(redissonClient,
+                accountRepository, balanceWriteBehind, dailySpendProperties, true, 60));
+    }
+
+    @Test
+    void successUseBalance() {
+        // given
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.MULTI), anyList(), any()))
+                .willReturn(Arrays.asList(9000L, "7"));
+        ArgumentCaptor<List<Object>> captor = ArgumentCaptor.forClass(List.class);
+        // when
+        TransactionDto transactionDto = balanceMirrorService.useBalance(
+                12L, "1000000012", 1000L);
+        // then
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.MULTI), captor.capture(), any());
+        verify(balanceWriteBehind, times(1)).enqueued(transactionDto.getTransactionId());
+        assertEquals(Arrays.asList("ACBL1000000012",
+                        BalanceWriteBehind.QUEUE_KEY, BalanceWriteBehind.QUEUED_IDS_KEY),
+                captor.getValue());
+        assertEquals(TransactionType.USE, transactionDto.getTransactionType());
+        assertEquals(TransactionResultType.S, transactionDto.getTransactionResultType());
+        assertEquals(9000L, transactionDto.getBalanceSnapShot());
+    }
+
+    @Test
+    @DisplayName("거래 금액이 잔액보다 큰 경우 - Redis 잔액 사용 실패")
+    void useBalance_exceedBalance() {
+        // given
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.MULTI), anyList(), any()))
+                .willReturn(Collections.singletonList(BalanceMirrorService.EXCEED_BALANCE));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> balanceMirrorService.useBalance(12L, "1000000012", 1000L));
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(balanceWriteBehind, times(0)).enqueued(anyString());
+    }
+
+    @Test
+    @DisplayName("Redis 에 없는 계좌는 DB 에서 읽어 적재 후 재시도")
+    void useBalance_loadFromDb() {
+        // given
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.MULTI), anyList(), any()))
+                .willReturn(Collections.singletonList(BalanceMirrorService.NOT_MIRRORED),
+                        Arrays.asList(9000L, "7"));
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.INTEGER), anyList(), any()))
+                .willReturn(1L);
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .id(7L)
+                        .accountUser(AccountUser.builder().id(12L).build())
+                        .accountStatus(AccountStatus.IN_USE)
+                        .balance(10000L)
+                        .accountNumber("1000000012").build()));
+        // when
+        TransactionDto transactionDto = balanceMirrorService.useBalance(
+                12L, "1000000012", 1000L);
+        // then
+        assertEquals(9000L, transactionDto.getBalanceSnapShot());
+        verify(balanceWriteBehind, times(1)).enqueued(transactionDto.getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Redis 와 DB 모두 없는 계좌 - Redis 잔액 사용 실패")
+    void useBalance_accountNotFound() {
+        // given
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.MULTI), anyList(), any()))
+                .willReturn(Collections.singletonList(BalanceMirrorService.NOT_MIRRORED));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.empty());
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> balanceMirrorService.useBalance(12L, "1000000012", 1000L));
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        verify(balanceWriteBehind, times(0)).enqueued(anyString());
+    }
+
+    @Test
+    @DisplayName("Redis 잔액이 남은 계좌는 해지 불가")
+    void unregister_balanceNotEmpty() {
+        // given
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.INTEGER), anyList(), any()))
+                .willReturn(BalanceMirrorService.BALANCE_NOT_EMPTY);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> balanceMirrorService.unregister("1000000012"));
+        // then
+        assertEquals(ErrorCode.BALANCE_NOT_EMPTY, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("해지가 DB 에서 rollback 되면 Redis 상태도 되돌린다")
+    void unregister_rollback() {
+        // given
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.INTEGER), anyList(), any()))
+                .willReturn(0L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            balanceMirrorService.unregister("1000000012");
+            // when
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // then
+        verify(rScript, times(2)).eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.INTEGER), anyList(), any());
+    }
+}
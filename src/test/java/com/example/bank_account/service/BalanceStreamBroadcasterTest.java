@@ -0,0 +1,219 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.BalanceStreamProperties;
+import com.example.bank_account.dto.TransactionEvent;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceStreamBroadcasterTest {
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RTopic topic;
+    @Mock
+    private RAtomicLong sequence;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private BalanceStreamBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        BalanceStreamProperties properties = new BalanceStreamProperties();
+        properties.setBufferSize(4);
+        properties.setReplaySize(3);
+        properties.setHeartbeatInterval(Duration.ofHours(1));
+        given(redissonClient.getTopic(BalanceStreamBroadcaster.TOPIC, StringCodec.INSTANCE)).willReturn(topic);
+        broadcaster = new BalanceStreamBroadcaster(
+                redissonClient, objectMapper, properties, new SimpleMeterRegistry());
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void sendMatchingEventsOnly() throws Exception {
+    // given
+        RecordingEmitter accountEmitter = new RecordingEmitter();
+        RecordingEmitter userEmitter = new RecordingEmitter();
+        broadcaster.subscribe(null, "1000000000", null, accountEmitter);
+        broadcaster.subscribe(2L, null, null, userEmitter);
+    // when
+        broadcaster.onMessage(batch(1L,
+                event("1000000000", 1L, TransactionResultType.S),
+                event("1000000001", 2L, TransactionResultType.F)));
+    // then
+        assertEquals("balance:1", accountEmitter.next());
+        assertEquals("transaction:1", accountEmitter.next());
+        assertEquals("transaction:2", userEmitter.next());
+        assertNull(accountEmitter.poll());
+        assertNull(userEmitter.poll());
+    }
+
+    @Test
+    void resumeFromLastEventId() throws Exception {
+    // given
+        broadcaster.onMessage(batch(1L,
+                event("1000000000", 1L, TransactionResultType.F),
+                event("1000000000", 1L, TransactionResultType.F),
+                event("1000000000", 1L, TransactionResultType.F),
+                event("1000000000", 1L, TransactionResultType.F)));
+        RecordingEmitter resumed = new RecordingEmitter();
+        RecordingEmitter tooOld = new RecordingEmitter();
+    // when
+        broadcaster.subscribe(null, "1000000000", 2L, resumed);
+        broadcaster.subscribe(null, "1000000000", 0L, tooOld);
+    // then
+        assertEquals("transaction:3", resumed.next());
+        assertEquals("transaction:4", resumed.next());
+        // 기억하는 최근 3개(2~4) 보다 앞이면 다시 조회하도록
+        assertEquals("reset:4", tooOld.next());
+        assertNull(tooOld.poll());
+    }
+
+    @Test
+    void resetWhenMessageIsMissed() throws Exception {
+    // given
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(null, "1000000000", null, emitter);
+        broadcaster.onMessage(batch(1L, event("1000000000", 1L, TransactionResultType.F)));
+    // when
+        broadcaster.onMessage(batch(3L, event("1000000000", 1L, TransactionResultType.F)));
+        broadcaster.onMessage(batch(3L, event("1000000000", 1L, TransactionResultType.F)));
+    // then
+        assertEquals("transaction:1", emitter.next());
+        assertEquals("reset:2", emitter.next());
+        assertEquals("transaction:3", emitter.next());
+        assertNull(emitter.poll());
+    }
+
+    @Test
+    void evictSlowSubscriber() throws Exception {
+    // given
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        broadcaster.subscribe(null, "1000000000", null, slow);
+        broadcaster.subscribe(null, "1000000000", null, fast);
+    // when
+        for (long id = 1; id <= 6; id++) {
+            broadcaster.onMessage(batch(id, event("1000000000", 1L, TransactionResultType.F)));
+            // 빠른 구독자는 매번 받아가므로 buffer 가 차지 않는다
+            assertEquals("transaction:" + id, fast.next());
+        }
+    // then
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, broadcaster.getSubscriberCount());
+        release.countDown();
+    }
+
+    @Test
+    void publishBatchWithEventIds() throws Exception {
+    // given
+        given(redissonClient.getAtomicLong(BalanceStreamBroadcaster.SEQUENCE_KEY)).willReturn(sequence);
+        given(sequence.addAndGet(2L)).willReturn(12L);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    // when
+        broadcaster.publish(List.of(
+                event("1000000000", 1L, TransactionResultType.S),
+                event("1000000000", 1L, TransactionResultType.S)));
+    // then
+        verify(topic).publish(captor.capture());
+        BalanceStreamBroadcaster.StreamedBatch batch =
+                objectMapper.readValue(captor.getValue(), BalanceStreamBroadcaster.StreamedBatch.class);
+        assertEquals(11L, batch.getFirstEventId());
+        assertEquals(2, batch.getEvents().size());
+    }
+
+    private String batch(long firstEventId, TransactionEvent... events) throws Exception {
+        return objectMapper.writeValueAsString(
+                new BalanceStreamBroadcaster.StreamedBatch(firstEventId, List.of(events)));
+    }
+
+    private static TransactionEvent event(String accountNumber, Long userId, TransactionResultType resultType) {
+        return TransactionEvent.builder()
+                .transactionId("transactionId")
+                .accountNumber(accountNumber)
+                .userId(userId)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(resultType)
+                .amount(1000L)
+                .balanceSnapShot(9000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 보낸 event 를 "이름:id" 로 기록 (release 가 있으면 풀릴 때까지 보내기를 멈춘다)
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String text = builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            sent.add(text.replaceAll("(?s)event:(\\w+)\\nid:(\\d+)\\n.*", "$1:$2"));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            return sent.poll(5, TimeUnit.SECONDS);
+        }
+
+        String poll() throws InterruptedException {
+            return sent.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+}
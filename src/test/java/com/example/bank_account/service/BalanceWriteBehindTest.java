@@ -0,0 +1,165 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.OutboxEventRepository;
+import com.example.bank_account.repository.TransactionRepository;
+import com.example.bank_account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceWriteBehindTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private AccountCacheService accountCacheService;
+    @Mock
+    private DailySpendService dailySpendService;
+    @Mock
+    private KnownKeyFilter knownKeyFilter;
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RScript rScript;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BalanceWriteBehind balanceWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        balanceWriteBehind = new BalanceWriteBehind(accountRepository, transactionRepository,
+                outboxEventRepository, accountCacheService, dailySpendService, knownKeyFilter,
+                redissonClient, transactionManager, meterRegistry, 100, 0, 5, "node-1");
+    }
+
+    @Test
+    @DisplayName("Lua 스크립트가 붙인 accountId, 잔액까지 읽는다")
+    void decodeEntry() {
+        // given
+        BalanceWriteBehind.PendingTransaction pending = BalanceWriteBehind.PendingTransaction.builder()
+                .transactionId("t1")
+                .transactedAt(LocalDateTime.of(2022, 9, 1, 10, 0, 30))
+                .userId(12L)
+                .accountNumber("1000000012")
+                .transactionType(TransactionType.CANCEL)
+                .amount(1000L)
+                .cancelledTransactionId("t0")
+                .build();
+        // when
+        BalanceWriteBehind.PendingTransaction decoded =
+                BalanceWriteBehind.PendingTransaction.decode(pending.encodePrefix() + "|7|10000");
+        // then
+        assertEquals("t1", decoded.getTransactionId());
+        assertEquals(pending.getTransactedAt(), decoded.getTransactedAt());
+        assertEquals(12L, decoded.getUserId());
+        assertEquals("1000000012", decoded.getAccountNumber());
+        assertEquals(TransactionType.CANCEL, decoded.getTransactionType());
+        assertEquals(1000L, decoded.getDelta());
+        assertEquals("t0", decoded.getCancelledTransactionId());
+        assertEquals(7L, decoded.getAccountId());
+        assertEquals(10000L, decoded.getBalanceSnapShot());
+    }
+
+    @Test
+    @DisplayName("이미 DB 에 반영된 거래는 다시 반영하지 않고 Redis 에서만 정리")
+    void flush_skipSavedTransaction() {
+        // given
+        String saved = "t1|2022-09-01T10:00|12|1000000012|USE|1000||7|9000";
+        String unsaved = "t2|2022-09-01T10:01|12|1000000012|USE|500||7|8500";
+        given(transactionRepository.findExistingTransactionIds(anyCollection()))
+                .willReturn(List.of("t1"));
+        given(accountRepository.getReferenceById(7L))
+                .willReturn(Account.builder().id(7L).build());
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        // when
+        balanceWriteBehind.flush(Arrays.asList(saved, unsaved));
+        // then
+        verify(accountRepository, times(1)).changeBalance(7L, -500L);
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("t2", captor.getValue().get(0).getTransactionId());
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.INTEGER),
+                eq(Arrays.asList("ACBL_WRITE_BEHIND:processing:node-1",
+                        BalanceWriteBehind.QUEUED_IDS_KEY, "ACBL1000000012", "ACBL1000000012")),
+                eq(saved), eq(unsaved));
+        verify(accountCacheService, times(2)).evict(12L);
+    }
+
+    @Test
+    @DisplayName("취소는 원래 사용 거래의 날짜 합계에 반영")
+    void flush_recordCancelOnOriginalDate() {
+        // given
+        LocalDateTime usedAt = LocalDateTime.of(2022, 8, 31, 23, 59);
+        String cancel = "t2|2022-09-01T00:01|12|1000000012|CANCEL|1000|t1|7|10000";
+        given(transactionRepository.findByTransactionIdIn(List.of("t1")))
+                .willReturn(List.of(Transaction.builder()
+                        .transactionId("t1")
+                        .transactedAt(usedAt)
+                        .build()));
+        Account account = Account.builder().id(7L).build();
+        given(accountRepository.getReferenceById(7L))
+                .willReturn(account);
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        // when
+        balanceWriteBehind.flush(List.of(cancel));
+        // then
+        verify(dailySpendService, times(1)).record(account, "1000000012",
+                TransactionType.CANCEL, 1000L, usedAt);
+    }
+
+    @Test
+    @DisplayName("한 건씩 반영할 때 혼자서도 실패하는 건은 dead-letter list 로 옮긴다")
+    void flushEach_deadLetter() {
+        // given
+        String broken = "t1|not-a-date|12|1000000012|USE|1000||7|9000";
+        String valid = "t2|2022-09-01T10:01|12|1000000012|USE|500||7|8500";
+        given(accountRepository.getReferenceById(7L))
+                .willReturn(Account.builder().id(7L).build());
+        given(redissonClient.getScript(any()))
+                .willReturn(rScript);
+        List<String> entries = new ArrayList<>(Arrays.asList(broken, valid));
+        // when
+        balanceWriteBehind.flushEach(entries);
+        // then
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                eq(RScript.ReturnType.INTEGER),
+                eq(Arrays.asList("ACBL_WRITE_BEHIND:processing:node-1",
+                        BalanceWriteBehind.DEAD_LETTER_KEY)),
+                eq(broken));
+        verify(accountRepository, times(1)).changeBalance(7L, -500L);
+        assertTrue(entries.isEmpty());
+        assertEquals(1.0, meterRegistry.counter("balance.write-behind.dead-letter").count());
+    }
+}
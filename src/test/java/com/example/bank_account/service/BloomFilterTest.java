@@ -0,0 +1,78 @@
+package com.example.bank_account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    @Test
+    void noFalseNegative() {
+    // given
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+    // when
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put(String.valueOf(1_000_000_000L + i));
+        }
+    // then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain(String.valueOf(1_000_000_000L + i)));
+        }
+        assertEquals(10_000, bloomFilter.getInsertions());
+    }
+
+    @Test
+    void falsePositiveRateNearExpected() {
+    // given
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put(String.valueOf(1_000_000_000L + i));
+        }
+    // when
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloomFilter.mightContain(String.valueOf(2_000_000_000L + i))) {
+                falsePositives++;
+            }
+        }
+    // then
+        // 기대 1% (실제 약 1.08%)
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void falsePositiveRateForTransactionIds() {
+    // given
+        Random random = new Random(42);
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put(transactionId(random));
+        }
+    // when
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloomFilter.mightContain(transactionId(random))) {
+                falsePositives++;
+            }
+        }
+    // then
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+    // given
+        BloomFilter bloomFilter = new BloomFilter(100, 0.01);
+    // when
+    // then
+        assertFalse(bloomFilter.mightContain("1000000000"));
+        assertFalse(bloomFilter.mightContain(""));
+    }
+
+    // Transaction.newTransactionId 와 같은 모양 (seed 를 고정해 매번 같은 값)
+    private static String transactionId(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString().replace("-", "");
+    }
+}
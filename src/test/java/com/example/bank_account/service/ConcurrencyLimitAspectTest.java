@@ -0,0 +1,103 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.aop.ConcurrencyLimited;
+import com.example.bank_account.config.ConcurrencyLimitProperties;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.RequestType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitAspectTest {
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+    @Mock
+    private ConcurrencyLimited concurrencyLimited;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimitAspect concurrencyLimitAspect;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.getWrite().setInitialLimit(1);
+        properties.getWrite().setMinLimit(1);
+        concurrencyLimitAspect = new ConcurrencyLimitAspect(properties, meterRegistry);
+    }
+
+    @Test
+    void rejectWhileLimitIsInUse() throws Throwable {
+    // given
+        given(concurrencyLimited.value()).willReturn(RequestType.WRITE);
+        ConcurrencyLimitAspect aspect = concurrencyLimitAspect;
+        given(proceedingJoinPoint.proceed()).willAnswer(invocation ->
+                // 처리 중에 같은 종류의 요청이 들어오면 거절
+                assertThrows(AccountException.class,
+                        () -> aspect.aroundMethod(proceedingJoinPoint, concurrencyLimited)));
+    // when
+        AccountException exception = (AccountException)
+                concurrencyLimitAspect.aroundMethod(proceedingJoinPoint, concurrencyLimited);
+    // then
+        assertEquals(ErrorCode.SERVICE_OVERLOADED, exception.getErrorCode());
+        assertEquals(0.0, meterRegistry.get("concurrency.in.flight")
+                .tag("type", "WRITE").gauge().value());
+    }
+
+    @Test
+    void readAndWriteHaveSeparateLimits() throws Throwable {
+    // given
+        given(concurrencyLimited.value()).willReturn(RequestType.WRITE, RequestType.READ);
+        given(proceedingJoinPoint.proceed()).willReturn("inner", "outer");
+        ConcurrencyLimitAspect aspect = concurrencyLimitAspect;
+        ProceedingJoinPoint outer = mock(ProceedingJoinPoint.class);
+        given(outer.proceed()).willAnswer(invocation ->
+                aspect.aroundMethod(proceedingJoinPoint, concurrencyLimited));
+    // when
+        Object result = concurrencyLimitAspect.aroundMethod(outer, concurrencyLimited);
+    // then
+        assertEquals("inner", result);
+    }
+
+    @Test
+    void releaseOnBusinessRejection() throws Throwable {
+    // given
+        given(concurrencyLimited.value()).willReturn(RequestType.WRITE);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(AccountException.rejected(ErrorCode.ACCOUNT_NOT_FOUND))
+                .willReturn("result");
+    // when
+        assertThrows(AccountException.class,
+                () -> concurrencyLimitAspect.aroundMethod(proceedingJoinPoint, concurrencyLimited));
+    // then
+        assertEquals("result",
+                concurrencyLimitAspect.aroundMethod(proceedingJoinPoint, concurrencyLimited));
+        assertEquals(1.0, meterRegistry.get("concurrency.limit")
+                .tag("type", "WRITE").gauge().value());
+    }
+
+    @Test
+    void skipWhenDisabled() throws Throwable {
+    // given
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(false);
+        ConcurrencyLimitAspect aspect = new ConcurrencyLimitAspect(properties, new SimpleMeterRegistry());
+        given(proceedingJoinPoint.proceed()).willReturn("result");
+    // when
+        Object result = aspect.aroundMethod(proceedingJoinPoint, concurrencyLimited);
+    // then
+        assertEquals("result", result);
+        verify(concurrencyLimited, never()).value();
+    }
+}
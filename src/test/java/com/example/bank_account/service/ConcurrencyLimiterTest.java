@@ -0,0 +1,87 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void rejectOverLimit() {
+    // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit(2, 1, 10));
+    // when
+    // then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(RTT, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void increaseLimitWhileLatencyIsSteady() {
+    // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit(10, 1, 50));
+    // when
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(RTT, limiter.getLimit(), false);
+        }
+    // then
+        assertEquals(50, limiter.getLimit());
+    }
+
+    @Test
+    void keepLimitWhenMostlyIdle() {
+    // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit(10, 1, 50));
+    // when
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(RTT, 1, false);
+        }
+    // then
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void decreaseLimitWhenLatencyGrows() {
+    // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit(40, 5, 50));
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(RTT, 1, false);
+        }
+    // when
+        for (int i = 0; i < 30; i++) {
+            limiter.onSample(RTT * 10, 40, false);
+        }
+    // then
+        assertTrue(limiter.getLimit() < 40);
+    }
+
+    @Test
+    void backoffOnDropAndKeepMinimum() {
+    // given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit(20, 5, 50));
+    // when
+        limiter.onSample(RTT, 1, true);
+    // then
+        assertEquals(18, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(RTT, 1, true);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    private static ConcurrencyLimitProperties.Limit limit(int initial, int min, int max) {
+        ConcurrencyLimitProperties.Limit limit = new ConcurrencyLimitProperties.Limit();
+        limit.setInitialLimit(initial);
+        limit.setMinLimit(min);
+        limit.setMaxLimit(max);
+        return limit;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.DailySpendProperties;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.DailySpend;
+import com.example.bank_account.dto.DailySpendDto;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.DailySpendRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DailySpendServiceTest {
+    @Mock
+    private DailySpendRepository dailySpendRepository;
+    @Mock
+    private AccountRepository accountRepository;
+
+    private final Account account = Account.builder().id(1L).accountNumber("1000000000").build();
+    private DailySpendService dailySpendService;
+
+    @BeforeEach
+    void setUp() {
+        DailySpendProperties properties = new DailySpendProperties();
+        properties.setLimit(10000L);
+        dailySpendService = new DailySpendService(dailySpendRepository, accountRepository, properties);
+    }
+
+    @Test
+    void checkLimitFromRollup() {
+    // given
+        given(dailySpendRepository.findByAccountIdAndSpendDate(1L, LocalDate.now()))
+                .willReturn(Optional.of(DailySpend.builder()
+                        .useAmount(9000L).useCount(2L)
+                        .cancelAmount(1000L).cancelCount(1L)
+                        .build()));
+    // when
+        dailySpendService.checkLimit(account, 2000L);
+        AccountException exception = assertThrows(AccountException.class,
+                () -> dailySpendService.checkLimit(account, 2001L));
+    // then
+        assertEquals(ErrorCode.DAILY_LIMIT_EXCEEDED, exception.getErrorCode());
+    }
+
+    @Test
+    void checkLimitWithOpenHolds() {
+    // given
+        Account held = Account.builder().id(1L).accountNumber("1000000000").build();
+        given(dailySpendRepository.findByAccountIdAndSpendDate(1L, LocalDate.now()))
+                .willReturn(Optional.empty());
+    // when
+        // 첫 번째 승인 - 아직 합계도, 잡아둔 금액도 없음
+        dailySpendService.checkLimit(held, 6000L);
+        held.setHeldBalance(6000L);
+        // 두 번째 승인 - 합계는 아직 0 이지만 첫 승인을 확정하면 한도를 넘는다
+        AccountException exception = assertThrows(AccountException.class,
+                () -> dailySpendService.checkLimit(held, 6000L));
+    // then
+        assertEquals(ErrorCode.DAILY_LIMIT_EXCEEDED, exception.getErrorCode());
+    }
+
+    @Test
+    void recordNewDay() {
+    // given
+        LocalDateTime transactedAt = LocalDateTime.of(2022, 9, 1, 12, 0);
+        given(dailySpendRepository.findByAccountIdAndSpendDate(1L, transactedAt.toLocalDate()))
+                .willReturn(Optional.empty());
+        given(dailySpendRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<DailySpend> captor = ArgumentCaptor.forClass(DailySpend.class);
+    // when
+        dailySpendService.record(account, "1000000000", TransactionType.USE, 3000L, transactedAt);
+    // then
+        verify(dailySpendRepository).save(captor.capture());
+        assertEquals(transactedAt.toLocalDate(), captor.getValue().getSpendDate());
+        assertEquals(3000L, captor.getValue().getUseAmount());
+        assertEquals(1L, captor.getValue().getUseCount());
+        assertEquals(3000L, captor.getValue().getNetAmount());
+    }
+
+    @Test
+    void recordCancelOnExistingDay() {
+    // given
+        LocalDateTime transactedAt = LocalDateTime.of(2022, 9, 1, 12, 0);
+        DailySpend dailySpend = DailySpend.builder()
+                .account(account).spendDate(transactedAt.toLocalDate())
+                .useAmount(3000L).useCount(1L)
+                .build();
+        given(dailySpendRepository.findByAccountIdAndSpendDate(1L, transactedAt.toLocalDate()))
+                .willReturn(Optional.of(dailySpend));
+    // when
+        dailySpendService.record(account, "1000000000", TransactionType.CANCEL, 1000L, transactedAt);
+    // then
+        assertEquals(1000L, dailySpend.getCancelAmount());
+        assertEquals(1L, dailySpend.getCancelCount());
+        assertEquals(2000L, dailySpend.getNetAmount());
+        assertEquals(0L, dailySpend.getNetCount());
+    }
+
+    @Test
+    void getDailySpendFromMemory() {
+    // given
+        LocalDate spendDate = LocalDate.of(2022, 9, 1);
+        given(accountRepository.findByAccountNumber("1000000000")).willReturn(Optional.of(account));
+        given(dailySpendRepository.findByAccountIdAndSpendDate(1L, spendDate))
+                .willReturn(Optional.empty());
+    // when
+        DailySpendDto first = dailySpendService.getDailySpend("1000000000", spendDate);
+        DailySpendDto second = dailySpendService.getDailySpend("1000000000", spendDate);
+    // then
+        assertEquals(0L, first.getNetAmount());
+        assertSame(first, second);
+        verify(dailySpendRepository, times(1)).findByAccountIdAndSpendDate(1L, spendDate);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.config.HoldProperties;
+import com.example.bank_account.domain.Account;
+import com.example.bank_account.domain.BalanceHold;
+import com.example.bank_account.domain.HoldStatus;
+import com.example.bank_account.repository.BalanceHoldRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpirySchedulerTest {
+    @Mock
+    private TransactionService transactionService;
+    @Mock
+    private BalanceHoldRepository balanceHoldRepository;
+    @Mock
+    private ClusterMembership clusterMembership;
+
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        HoldProperties holdProperties = new HoldProperties();
+        holdProperties.setTick(Duration.ofMillis(10));
+        holdExpiryScheduler = new HoldExpiryScheduler(
+                transactionService, balanceHoldRepository, holdProperties, clusterMembership);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        holdExpiryScheduler.stop();
+    }
+
+    @Test
+    @DisplayName("담당이 바뀌면 새로 맡은 계좌의 승인만 다시 등록")
+    void onOwnershipSettled() {
+        // given
+        given(balanceHoldRepository.findByStatus(HoldStatus.HELD))
+                .willReturn(Collections.emptyList());
+        given(balanceHoldRepository.findWithAccountByStatus(HoldStatus.HELD))
+                .willReturn(Arrays.asList(hold("owned", "1000000001"), hold("other", "1000000002")));
+        given(clusterMembership.isLocal("1000000001")).willReturn(true);
+        given(clusterMembership.isLocal("1000000002")).willReturn(false);
+        holdExpiryScheduler.start();
+        // when
+        holdExpiryScheduler.onOwnershipSettled();
+        // then
+        verify(transactionService, timeout(1000)).expireHold("owned");
+        verify(transactionService, after(200).never()).expireHold("other");
+    }
+
+    private static BalanceHold hold(String holdId, String accountNumber) {
+        return BalanceHold.builder()
+                .holdId(holdId)
+                .account(Account.builder().accountNumber(accountNumber).build())
+                .status(HoldStatus.HELD)
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.dto.CancelBalance;
+import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class KnownKeyAspectTest {
+    @Mock
+    private KnownKeyFilter knownKeyFilter;
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KnownKeyAspect knownKeyAspect;
+
+    @BeforeEach
+    void setUp() {
+        knownKeyAspect = new KnownKeyAspect(knownKeyFilter, meterRegistry);
+    }
+
+    @Test
+    void proceedKnownAccount() throws Throwable {
+    // given
+        given(knownKeyFilter.isUnknownAccount("1000000012")).willReturn(false);
+        given(proceedingJoinPoint.proceed()).willReturn("result");
+    // when
+        Object result = knownKeyAspect.aroundMethod(proceedingJoinPoint,
+                new UseBalance.Request(12L, "1000000012", 1000L));
+    // then
+        assertEquals("result", result);
+    }
+
+    @Test
+    void rejectUnknownAccount() throws Throwable {
+    // given
+        given(knownKeyFilter.isUnknownAccount("1000000012")).willReturn(true);
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> knownKeyAspect.aroundMethod(proceedingJoinPoint,
+                        new UseBalance.Request(12L, "1000000012", 1000L)));
+    // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        assertEquals(1.0, meterRegistry.counter("known.keys.rejected", "key", "account").count());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+
+    @Test
+    void rejectUnknownTransaction() throws Throwable {
+    // given
+        given(knownKeyFilter.isUnknownAccount("1000000012")).willReturn(false);
+        given(knownKeyFilter.isUnknownTransaction("transactionId")).willReturn(true);
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> knownKeyAspect.aroundMethod(proceedingJoinPoint,
+                        new CancelBalance.Request("transactionId", "1000000012", 1000L)));
+    // then
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.KnownKeyProperties;
+import com.example.bank_account.repository.AccountRepository;
+import com.example.bank_account.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class KnownKeyFilterTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RMap<Object, Object> queuedIds;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KnownKeyFilter knownKeyFilter;
+
+    @BeforeEach
+    void setUp() {
+        KnownKeyProperties properties = new KnownKeyProperties();
+        properties.setExpectedAccounts(1000L);
+        properties.setExpectedTransactions(1000L);
+        properties.setBroadcast(false);
+        knownKeyFilter = new KnownKeyFilter(accountRepository, transactionRepository,
+                redissonClient, transactionManager, properties, meterRegistry);
+    }
+
+    @Test
+    void passEverythingBeforeRebuild() {
+    // given
+    // when
+    // then
+        assertFalse(knownKeyFilter.isUnknownAccount("1000000000"));
+        assertFalse(knownKeyFilter.isUnknownTransaction("transactionId"));
+    }
+
+    @Test
+    void rejectUnknownKeyAfterRebuild() {
+    // given
+        given(accountRepository.streamAllAccountNumbers()).willReturn(Stream.of("1000000000"));
+        given(transactionRepository.streamAllTransactionIds()).willReturn(Stream.of("transactionId"));
+    // when
+        knownKeyFilter.rebuild();
+        given(redissonClient.getMap(BalanceWriteBehind.QUEUED_IDS_KEY, StringCodec.INSTANCE))
+                .willReturn(queuedIds);
+    // then
+        assertFalse(knownKeyFilter.isUnknownAccount("1000000000"));
+        assertTrue(knownKeyFilter.isUnknownAccount("1000000001"));
+        assertFalse(knownKeyFilter.isUnknownTransaction("transactionId"));
+        assertTrue(knownKeyFilter.isUnknownTransaction("otherTransactionId"));
+    }
+
+    @Test
+    void addCreatedAndReceivedKeys() {
+    // given
+        given(accountRepository.streamAllAccountNumbers()).willReturn(Stream.empty());
+        given(transactionRepository.streamAllTransactionIds()).willReturn(Stream.empty());
+        knownKeyFilter.rebuild();
+    // when
+        knownKeyFilter.addAccount("1000000000");
+        knownKeyFilter.addTransaction("transactionId");
+        knownKeyFilter.onMessage(KnownKeyFilter.ACCOUNT_PREFIX + "1000000001");
+        knownKeyFilter.onMessage(KnownKeyFilter.TRANSACTION_PREFIX + "otherTransactionId");
+    // then
+        assertFalse(knownKeyFilter.isUnknownAccount("1000000000"));
+        assertFalse(knownKeyFilter.isUnknownAccount("1000000001"));
+        assertFalse(knownKeyFilter.isUnknownTransaction("transactionId"));
+        assertFalse(knownKeyFilter.isUnknownTransaction("otherTransactionId"));
+        assertTrue(knownKeyFilter.isUnknownAccount("1000000002"));
+    }
+
+    @Test
+    void confirmMissingKeyInDb() {
+    // given
+        given(accountRepository.streamAllAccountNumbers()).willReturn(Stream.empty());
+        given(transactionRepository.streamAllTransactionIds()).willReturn(Stream.empty());
+        knownKeyFilter.rebuild();
+        // 다른 서버에서 만든 key 를 pub/sub 으로 받지 못한 경우
+        given(accountRepository.existsByAccountNumber("1000000000")).willReturn(true);
+        given(redissonClient.getMap(BalanceWriteBehind.QUEUED_IDS_KEY, StringCodec.INSTANCE))
+                .willReturn(queuedIds);
+        given(queuedIds.containsKey("transactionId")).willReturn(true);
+    // when
+        boolean unknownAccount = knownKeyFilter.isUnknownAccount("1000000000");
+        boolean unknownTransaction = knownKeyFilter.isUnknownTransaction("transactionId");
+    // then
+        assertFalse(unknownAccount);
+        assertFalse(unknownTransaction);
+        assertEquals(1.0, meterRegistry.counter("known.keys.missed", "key", "account").count());
+        // 확인한 key 는 filter 에 넣어 다음부터는 DB 를 보지 않는다
+        assertFalse(knownKeyFilter.isUnknownAccount("1000000000"));
+        verify(accountRepository, times(1)).existsByAccountNumber(anyString());
+    }
+}
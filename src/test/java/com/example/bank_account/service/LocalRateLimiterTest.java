@@ -0,0 +1,55 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimiterTest {
+
+    @Test
+    void rejectWhenBucketIsEmpty() {
+    // given
+        LocalRateLimiter rateLimiter = new LocalRateLimiter(100, Duration.ofMinutes(1));
+        RateLimitProperties.Bucket bucket = bucket(3, 0.001);
+    // when
+    // then
+        assertTrue(rateLimiter.tryAcquire("user:1", bucket));
+        assertTrue(rateLimiter.tryAcquire("user:1", bucket));
+        assertTrue(rateLimiter.tryAcquire("user:1", bucket));
+        assertFalse(rateLimiter.tryAcquire("user:1", bucket));
+        // 다른 key 는 따로
+        assertTrue(rateLimiter.tryAcquire("user:2", bucket));
+    }
+
+    @Test
+    void refillByElapsedTime() {
+    // given
+        RateLimitProperties.Bucket bucket = bucket(2, 10);
+        long now = 0;
+        LocalRateLimiter.TokenBucket tokenBucket = new LocalRateLimiter.TokenBucket(2, now);
+        assertTrue(tokenBucket.tryAcquire(bucket, now));
+        assertTrue(tokenBucket.tryAcquire(bucket, now));
+        assertFalse(tokenBucket.tryAcquire(bucket, now));
+    // when
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+    // then
+        assertTrue(tokenBucket.tryAcquire(bucket, now));
+        assertFalse(tokenBucket.tryAcquire(bucket, now));
+        // capacity 이상 쌓이지 않음
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertTrue(tokenBucket.tryAcquire(bucket, now));
+        assertTrue(tokenBucket.tryAcquire(bucket, now));
+        assertFalse(tokenBucket.tryAcquire(bucket, now));
+    }
+
+    private static RateLimitProperties.Bucket bucket(long capacity, double refillPerSecond) {
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(capacity);
+        bucket.setRefillPerSecond(refillPerSecond);
+        return bucket;
+    }
+}
@@ -23,6 +23,8 @@ class LockAopAspectTest {
     @Mock
     private LockService lockService;
     @Mock
+    private BalanceMirrorService balanceMirrorService;
+    @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
     @InjectMocks
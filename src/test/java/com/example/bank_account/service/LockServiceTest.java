@@ -1,19 +1,25 @@
 package com.example.bank_account.service;
 
 import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.cluster.ClusterMembership;
 import com.example.bank_account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
@@ -21,6 +27,10 @@ class LockServiceTest {
     private RedissonClient redissonClient;
     @Mock
     private RLock rLock;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private ClusterMembership clusterMembership;
     @InjectMocks
     private LockService lockService;
 
@@ -34,6 +44,8 @@ class LockServiceTest {
     // when
     // then
         assertDoesNotThrow(() -> lockService.lock("1234567890"));
+        assertEquals(1, meterRegistry.get(LockService.LOCK_WAIT_METRIC)
+                .tag("outcome", "acquired").timer().count());
     }
     @Test
     void failGetLock() throws InterruptedException {
@@ -47,5 +59,40 @@ class LockServiceTest {
                 () -> lockService.lock("1234567890"));
     // then
         assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertEquals(1, meterRegistry.get(LockService.LOCK_WAIT_METRIC)
+                .tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void recordHoldTimeOnUnlock() throws InterruptedException {
+    // given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(true);
+        lockService.lock("1234567890");
+    // when
+        lockService.unlock("1234567890");
+    // then
+        assertEquals(1, meterRegistry.get(LockService.LOCK_HOLD_METRIC)
+                .tag("outcome", "released").timer().count());
+    }
+    @Test
+    void localLockInClusterMode() {
+    // given
+        given(clusterMembership.isEnabled()).willReturn(true);
+    // when
+        lockService.lock("1234567890");
+    // then
+        // 다른 thread 는 1초 기다린 뒤 실패
+        AccountException exception = CompletableFuture.supplyAsync(() -> assertThrows(
+                AccountException.class, () -> lockService.lock("1234567890"))).join();
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        lockService.unlock("1234567890");
+        assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> {
+            lockService.lock("1234567890");
+            lockService.unlock("1234567890");
+        }).join());
+        verifyNoInteractions(redissonClient);
     }
-}
\ No newline at end of file
+}
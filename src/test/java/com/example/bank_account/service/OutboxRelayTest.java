@@ -0,0 +1,137 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.config.OutboxProperties;
+import com.example.bank_account.domain.OutboxEvent;
+import com.example.bank_account.dto.TransactionEvent;
+import com.example.bank_account.eventlog.LogRecord;
+import com.example.bank_account.eventlog.SegmentedEventLog;
+import com.example.bank_account.repository.OutboxEventRepository;
+import com.example.bank_account.type.TransactionResultType;
+import com.example.bank_account.type.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private ClusterMembership clusterMembership;
+    @Mock
+    private BalanceStreamBroadcaster balanceStreamBroadcaster;
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SegmentedEventLog eventLog;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLog = new SegmentedEventLog(directory, 1024 * 1024, Duration.ofDays(1));
+        outboxRelay = new OutboxRelay(outboxEventRepository, eventLog, objectMapper,
+                clusterMembership, balanceStreamBroadcaster, new OutboxProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        eventLog.close();
+    }
+
+    @Test
+    void appendThenDeleteOutbox() throws IOException {
+    // given
+        given(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .willReturn(List.of(outboxEvent(1L, "t1"), outboxEvent(2L, "t2")));
+    // when
+        int relayed = outboxRelay.relayOnce();
+    // then
+        assertEquals(2, relayed);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(balanceStreamBroadcaster).publish(anyList());
+        List<LogRecord> records = eventLog.read(0, 10);
+        assertEquals(2, records.size());
+        TransactionEvent event = objectMapper.readValue(records.get(1).getPayload(), TransactionEvent.class);
+        assertEquals("t2", event.getTransactionId());
+        assertEquals("1000000012", event.getAccountNumber());
+        assertEquals(TransactionResultType.S, event.getTransactionResultType());
+    }
+
+    @Test
+    void keepOutboxWhenAppendFails() throws IOException {
+    // given
+        given(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .willReturn(List.of(outboxEvent(1L, "t1")));
+        eventLog.close();
+    // when
+        assertThrows(IOException.class, () -> outboxRelay.relayOnce());
+    // then
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(balanceStreamBroadcaster, never()).publish(anyList());
+    }
+
+    @Test
+    void nothingToRelay() throws IOException {
+    // given
+        given(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .willReturn(Collections.emptyList());
+    // when
+        int relayed = outboxRelay.relayOnce();
+    // then
+        assertEquals(0, relayed);
+        assertEquals(0L, eventLog.getNextOffset());
+    }
+
+    @Test
+    void relayOnFixedNodeOnly() {
+    // given
+        OutboxProperties properties = new OutboxProperties();
+        properties.setRelayNodeId("node-8081");
+        OutboxRelay fixedRelay = new OutboxRelay(outboxEventRepository, eventLog, objectMapper,
+                clusterMembership, balanceStreamBroadcaster, properties);
+        given(clusterMembership.isEnabled()).willReturn(true);
+        given(clusterMembership.getNodeId()).willReturn("node-8081", "node-8082");
+    // when
+    // then
+        // ring 에서 누가 맡든 정한 서버만 relay (event log 가 한 디렉터리에 이어서 쌓이도록)
+        assertTrue(fixedRelay.isRelayNode());
+        assertFalse(fixedRelay.isRelayNode());
+        verify(clusterMembership, never()).isLocal(OutboxRelay.RELAY_KEY);
+    }
+
+    private static OutboxEvent outboxEvent(Long id, String transactionId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .accountNumber("1000000012")
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(1000L)
+                .balanceSnapShot(9000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.cluster.ClusterMembership;
+import com.example.bank_account.dto.TransactionDto;
+import com.example.bank_account.repository.TransactionRepository;
+import com.example.bank_account.type.ErrorCode;
+import com.example.bank_account.type.TransactionResultType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PendingUseProcessorTest {
+    @Mock
+    private TransactionService transactionService;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private LockService lockService;
+    @Mock
+    private ClusterMembership clusterMembership;
+
+    private PendingUseProcessor pendingUseProcessor;
+
+    @BeforeEach
+    void setUp() {
+        pendingUseProcessor = new PendingUseProcessor(
+                transactionService, transactionRepository, lockService, clusterMembership, 1, 50);
+        lenient().when(clusterMembership.isLocal(anyString())).thenReturn(true);
+        lenient().when(clusterMembership.isSettled(anyString())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pendingUseProcessor.stop();
+    }
+
+    @Test
+    void batchPendingUsesPerAccount() throws InterruptedException {
+    // given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(transactionRepository.findDtosByTransactionResultType(TransactionResultType.P))
+                .willReturn(Collections.emptyList());
+        // 첫 요청을 처리하는 동안 나머지가 쌓이도록
+        willAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return Collections.emptyList();
+        }).given(transactionService).completePendingUses("1000000000", List.of("t1"));
+        pendingUseProcessor.start();
+    // when
+        pendingUseProcessor.enqueue("1000000000", "t1");
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        pendingUseProcessor.enqueue("1000000001", "t2");
+        pendingUseProcessor.enqueue("1000000000", "t3");
+        pendingUseProcessor.enqueue("1000000001", "t4");
+        release.countDown();
+    // then
+        verify(transactionService, timeout(5000))
+                .completePendingUses("1000000001", List.of("t2", "t4"));
+        verify(transactionService, timeout(5000))
+                .completePendingUses("1000000000", List.of("t3"));
+        InOrder inOrder = inOrder(lockService, transactionService);
+        inOrder.verify(lockService).lock("1000000000");
+        inOrder.verify(transactionService).completePendingUses("1000000000", List.of("t1"));
+        inOrder.verify(lockService).unlock("1000000000");
+    }
+
+    @Test
+    void retryWhenLockIsBusy() {
+    // given
+        given(transactionRepository.findDtosByTransactionResultType(TransactionResultType.P))
+                .willReturn(List.of(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactionId("recovered")
+                        .build()));
+        willThrow(AccountException.rejected(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .willDoNothing()
+                .given(lockService).lock(anyString());
+    // when
+        pendingUseProcessor.start();
+    // then
+        verify(transactionService, timeout(5000))
+                .completePendingUses(eq("1000000000"), eq(List.of("recovered")));
+        verify(transactionService, timeout(5000).times(1))
+                .completePendingUses(anyString(), anyList());
+    }
+
+    @Test
+    void processOnlyOwnedAccounts() {
+    // given
+        given(transactionRepository.findDtosByTransactionResultType(TransactionResultType.P))
+                .willReturn(Collections.emptyList())
+                .willReturn(List.of(
+                        TransactionDto.builder().accountNumber("1000000000").transactionId("t1").build(),
+                        TransactionDto.builder().accountNumber("1000000001").transactionId("t2").build()));
+        given(clusterMembership.isLocal("1000000001")).willReturn(false);
+        given(clusterMembership.isSettled("1000000002")).willReturn(false);
+        pendingUseProcessor.start();
+    // when
+        pendingUseProcessor.enqueue("1000000002", "t3");
+        pendingUseProcessor.onOwnershipSettled();
+    // then
+        verify(transactionService, timeout(5000))
+                .completePendingUses("1000000000", List.of("t1"));
+        verify(transactionService, never()).completePendingUses(eq("1000000001"), anyList());
+        verify(transactionService, never()).completePendingUses(eq("1000000002"), anyList());
+    }
+}
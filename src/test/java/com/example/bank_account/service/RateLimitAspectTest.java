@@ -0,0 +1,80 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.aop.RateLimited;
+import com.example.bank_account.config.RateLimitProperties;
+import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitAspectTest {
+    @Mock
+    private RateLimiter rateLimiter;
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+    @Mock
+    private MethodSignature methodSignature;
+    @Mock
+    private RateLimited rateLimited;
+
+    private RateLimitProperties properties;
+    private RateLimitAspect rateLimitAspect;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(1);
+        bucket.setRefillPerSecond(1);
+        RateLimitProperties.Endpoint endpoint = new RateLimitProperties.Endpoint();
+        endpoint.setUser(bucket);
+        endpoint.setAccount(bucket);
+        properties = new RateLimitProperties();
+        properties.getEndpoints().put("transaction-use", endpoint);
+        rateLimitAspect = new RateLimitAspect(rateLimiter, properties);
+
+        given(rateLimited.value()).willReturn("transaction-use");
+        given(proceedingJoinPoint.getSignature()).willReturn(methodSignature);
+        given(methodSignature.getParameterNames()).willReturn(new String[]{"request"});
+        given(proceedingJoinPoint.getArgs()).willReturn(new Object[]{
+                new UseBalance.Request(12L, "1000000012", 1000L)});
+    }
+
+    @Test
+    void acquireUserAndAccountBucket() throws Throwable {
+    // given
+        given(rateLimiter.tryAcquire(any(), any())).willReturn(true);
+        given(proceedingJoinPoint.proceed()).willReturn("result");
+    // when
+        Object result = rateLimitAspect.aroundMethod(proceedingJoinPoint, rateLimited);
+    // then
+        assertEquals("result", result);
+        verify(rateLimiter).tryAcquire(eq("transaction-use:user:12"), any());
+        verify(rateLimiter).tryAcquire(eq("transaction-use:account:1000000012"), any());
+    }
+
+    @Test
+    void rejectBeforeProceed() throws Throwable {
+    // given
+        given(rateLimiter.tryAcquire(eq("transaction-use:user:12"), any())).willReturn(false);
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> rateLimitAspect.aroundMethod(proceedingJoinPoint, rateLimited));
+    // then
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+}
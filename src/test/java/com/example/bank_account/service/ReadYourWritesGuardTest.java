@@ -0,0 +1,63 @@
+package com.example.bank_account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesGuardTest {
+    private final ReadYourWritesGuard readYourWritesGuard = new ReadYourWritesGuard(1000);
+
+    @Test
+    @DisplayName("트랜잭션 밖에서는 바로 기록")
+    void markWrite_withoutTransaction() {
+        // given
+        // when
+        readYourWritesGuard.markWrite(12L);
+        readYourWritesGuard.markTransaction("trxId");
+        // then
+        assertTrue(readYourWritesGuard.recentlyWrote(12L));
+        assertTrue(readYourWritesGuard.recentlyWroteTransaction("trxId"));
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서는 commit 이후에 기록")
+    void markWrite_afterCommit() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            readYourWritesGuard.markWrite(12L);
+            readYourWritesGuard.markTransaction("trxId");
+            assertFalse(readYourWritesGuard.recentlyWrote(12L));
+            assertFalse(readYourWritesGuard.recentlyWroteTransaction("trxId"));
+            // when
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // then
+        assertTrue(readYourWritesGuard.recentlyWrote(12L));
+        assertTrue(readYourWritesGuard.recentlyWroteTransaction("trxId"));
+    }
+
+    @Test
+    @DisplayName("rollback 되면 기록하지 않음")
+    void markWrite_rollback() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            readYourWritesGuard.markWrite(12L);
+            // when
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // then
+        assertFalse(readYourWritesGuard.recentlyWrote(12L));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bank_account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void sumBucketsInWindow() {
+    // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(60), 12);
+    // when
+        counter.add(0L, 1000L);
+        counter.add(10 * SECOND, 2000L);
+        counter.add(30 * SECOND, 3000L);
+    // then
+        SlidingWindowCounter.Snapshot snapshot = counter.snapshot(30 * SECOND);
+        assertEquals(3L, snapshot.getCount());
+        assertEquals(6000L, snapshot.getAmount());
+    }
+
+    @Test
+    void dropExpiredBuckets() {
+    // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(60), 12);
+        counter.add(0L, 1000L);
+        counter.add(30 * SECOND, 2000L);
+    // when
+        // 0초 칸은 window 밖, 같은 자리를 다시 쓰면 새 칸으로 바뀐다
+        counter.add(60 * SECOND, 4000L);
+    // then
+        SlidingWindowCounter.Snapshot snapshot = counter.snapshot(60 * SECOND);
+        assertEquals(2L, snapshot.getCount());
+        assertEquals(6000L, snapshot.getAmount());
+        assertEquals(0L, counter.snapshot(200 * SECOND).getCount());
+    }
+
+    @Test
+    void removeOnlyFromSameBucket() {
+    // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(60), 12);
+        counter.add(0L, 1000L);
+        counter.add(10 * SECOND, 2000L);
+    // when
+        counter.remove(10 * SECOND, 2000L);
+        // 이미 새 칸으로 바뀐 자리는 그대로 둔다
+        counter.add(60 * SECOND, 4000L);
+        counter.remove(0L, 1000L);
+    // then
+        SlidingWindowCounter.Snapshot snapshot = counter.snapshot(60 * SECOND);
+        assertEquals(1L, snapshot.getCount());
+        assertEquals(4000L, snapshot.getAmount());
+    }
+
+    @Test
+    void countConcurrentAdds() throws InterruptedException {
+    // given
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofHours(1), 12);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+    // when
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    counter.add(SECOND, 1L);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    // then
+        SlidingWindowCounter.Snapshot snapshot = counter.snapshot(SECOND);
+        assertEquals(80_000L, snapshot.getCount());
+        assertEquals(80_000L, snapshot.getAmount());
+    }
+}
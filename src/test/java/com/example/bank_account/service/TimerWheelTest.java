@@ -0,0 +1,62 @@
+package com.example.bank_account.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+    private final List<String> expired = new CopyOnWriteArrayList<>();
+    // 10ms * 8 slot - 한 바퀴가 80ms
+    private final TimerWheel<String> timerWheel = new TimerWheel<>("test-wheel",
+            TimeUnit.MILLISECONDS.toNanos(10), 8, expired::add);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        timerWheel.stop();
+    }
+
+    @Test
+    void expireInDeadlineOrder() throws InterruptedException {
+    // given
+        timerWheel.start();
+        timerWheel.schedule("late", 200, TimeUnit.MILLISECONDS);
+        timerWheel.schedule("early", 30, TimeUnit.MILLISECONDS);
+        timerWheel.schedule("past", -10, TimeUnit.MILLISECONDS);
+    // when
+        Thread.sleep(100);
+    // then
+        assertEquals(List.of("past", "early"), expired);
+        assertEquals(1, timerWheel.size());
+        // 한 바퀴보다 먼 시각은 바퀴를 돈 뒤에 만료
+        Thread.sleep(200);
+        assertEquals(List.of("past", "early", "late"), expired);
+        assertEquals(0, timerWheel.size());
+    }
+
+    @Test
+    void cancelAndReschedule() throws InterruptedException {
+    // given
+        timerWheel.start();
+        timerWheel.schedule("cancelled", 30, TimeUnit.MILLISECONDS);
+        timerWheel.schedule("rescheduled", 30, TimeUnit.MILLISECONDS);
+    // when
+        timerWheel.cancel("cancelled");
+        timerWheel.schedule("rescheduled", 150, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+    // then
+        assertTrue(expired.isEmpty());
+        Thread.sleep(150);
+        assertEquals(List.of("rescheduled"), expired);
+    }
+
+    @Test
+    void rejectWheelSizeNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimerWheel<String>("test-wheel", 1000, 10, key -> { }));
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.bank_account.service;
 
 import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.HoldProperties;
 import com.example.bank_account.domain.Account;
 import com.example.bank_account.domain.AccountStatus;
 import com.example.bank_account.domain.AccountUser;
+import com.example.bank_account.domain.BalanceHold;
+import com.example.bank_account.domain.HoldStatus;
+import com.example.bank_account.domain.OutboxEvent;
 import com.example.bank_account.domain.Transaction;
+import com.example.bank_account.dto.HoldDto;
 import com.example.bank_account.dto.TransactionDto;
 import com.example.bank_account.repository.AccountRepository;
 import com.example.bank_account.repository.AccountUserRepository;
+import com.example.bank_account.repository.BalanceHoldRepository;
+import com.example.bank_account.repository.OutboxEventRepository;
 import com.example.bank_account.repository.TransactionRepository;
 import com.example.bank_account.type.ErrorCode;
 import com.example.bank_account.type.TransactionResultType;
@@ -18,14 +25,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -40,6 +52,30 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private AccountCacheService accountCacheService;
+
+    @Mock
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @Mock
+    private BalanceMirrorService balanceMirrorService;
+
+    @Mock
+    private BalanceHoldRepository balanceHoldRepository;
+
+    @Spy
+    private HoldProperties holdProperties = new HoldProperties();
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private DailySpendService dailySpendService;
+
+    @Mock
+    private KnownKeyFilter knownKeyFilter;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -55,8 +91,6 @@ class TransactionServiceTest {
                 .balance(10000L)
                 .accountNumber("1000000012").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
 
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
@@ -73,7 +107,7 @@ class TransactionServiceTest {
 
         ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
     // when
-        TransactionDto transactionDto = transactionService.useBalance(1L, "1000000000", 200L);
+        TransactionDto transactionDto = transactionService.useBalance(12L, "1000000000", 200L);
     // then
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(200L, captor.getValue().getAmount());
@@ -82,6 +116,33 @@ class TransactionServiceTest {
         assertEquals(TransactionType.USE, transactionDto.getTransactionType());
         assertEquals(9000L, transactionDto.getBalanceSnapShot());
         assertEquals(1000L, transactionDto.getAmount());
+        verify(dailySpendService).checkLimit(account, 200L);
+        verify(dailySpendService).record(eq(account), eq("1000000012"),
+                eq(TransactionType.USE), eq(200L), any());
+    }
+
+    @Test
+    @DisplayName("하루 한도 초과 - 잔액 사용 실패")
+    void useBalance_DailyLimitExceeded () {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        doThrow(AccountException.rejected(ErrorCode.DAILY_LIMIT_EXCEEDED))
+                .when(dailySpendService).checkLimit(account, 1000L);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(12L, "1000000012", 1000L));
+        // then
+        assertEquals(ErrorCode.DAILY_LIMIT_EXCEEDED, exception.getErrorCode());
+        assertEquals(10000L, account.getBalance());
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
@@ -89,8 +150,8 @@ class TransactionServiceTest {
     void useBalance_UserNotFound () {
         // given
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(false);
 
         // when
         AccountException exception = assertThrows(AccountException.class,
@@ -106,14 +167,14 @@ class TransactionServiceTest {
         AccountUser user = AccountUser.builder()
                 .id(12L).name("Kevin").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
 
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> transactionService.useBalance(1L, "1000000000", 1000L));
+                () -> transactionService.useBalance(12L, "1000000000", 1000L));
 
         // then
         assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
@@ -128,8 +189,8 @@ class TransactionServiceTest {
         AccountUser Grace = AccountUser.builder()
                 .id(13L).name("Grace").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(Kevin));
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(Grace)
@@ -137,7 +198,7 @@ class TransactionServiceTest {
                         .accountNumber("1000000012").build()));
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+                () -> transactionService.useBalance(12L, "1234567890", 1000L));
         // then
         assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
     }
@@ -148,8 +209,6 @@ class TransactionServiceTest {
         AccountUser Kevin = AccountUser.builder()
                 .id(12L).name("Kevin").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(Kevin));
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(Kevin)
@@ -158,7 +217,7 @@ class TransactionServiceTest {
                         .accountNumber("1000000012").build()));
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+                () -> transactionService.useBalance(12L, "1234567890", 1000L));
 
         // then
         assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
@@ -176,15 +235,13 @@ class TransactionServiceTest {
                 .balance(100L)
                 .accountNumber("1000000012").build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
 
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
 
         // when
         AccountException exception = assertThrows(AccountException.class,
-                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+                () -> transactionService.useBalance(12L, "1234567890", 1000L));
         // then
         verify(transactionRepository, times(0)).save(any());
         assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
@@ -224,6 +281,73 @@ class TransactionServiceTest {
         assertEquals(10000L, captor.getValue().getBalanceSnapShot());
         assertEquals(TransactionResultType.F, captor.getValue().getTransactionResultType());
     }
+
+    @Test
+    void writeOutboxWithTransaction() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willReturn(Transaction.builder()
+                        .account(account)
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.F)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(200L)
+                        .balanceSnapShot(10000L)
+                        .build());
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        // when
+        transactionService.saveFailedUseTransaction("1000000012", 200L);
+        // then
+        verify(outboxEventRepository, times(1)).save(captor.capture());
+        assertEquals("transactionId", captor.getValue().getTransactionId());
+        assertEquals("1000000012", captor.getValue().getAccountNumber());
+        assertEquals(12L, captor.getValue().getUserId());
+        assertEquals(TransactionResultType.F, captor.getValue().getTransactionResultType());
+        assertEquals(10000L, captor.getValue().getBalanceSnapShot());
+    }
+    @Test
+    @DisplayName("잔액 mirror 사용 시 취소 - 취소 상태만 바꾸고 잔액과 거래는 건드리지 않음")
+    void markCancelled() {
+        // given
+        Account account = Account.builder()
+                .accountUser(AccountUser.builder().id(12L).build())
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.S)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(200L)
+                        .build()));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.markCancelled(any(), any()))
+                .willReturn(1);
+        // when
+        Account cancelled = transactionService.markCancelled("transactionId", "1000000012", 200L);
+        // then
+        assertSame(account, cancelled);
+        assertEquals(10000L, account.getBalance());
+        verify(transactionRepository, times(0)).save(any());
+    }
+
     @Test
     void successCancelBalance () {
         // given
@@ -241,7 +365,7 @@ class TransactionServiceTest {
                 .transactionType(TransactionType.USE)
                 .transactionResultType(TransactionResultType.S)
                 .transactionId("transactionId")
-                .transactedAt(LocalDateTime.now())
+                .transactedAt(LocalDateTime.now().minusDays(1))
                 .amount(200L)
                 .balanceSnapShot(9000L)
                 .build();
@@ -251,6 +375,8 @@ class TransactionServiceTest {
 
         given(accountRepository.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
+        given(transactionRepository.markCancelled(any(), any()))
+                .willReturn(1);
         given(transactionRepository.save(any()))
                 .willReturn(Transaction.builder()
                         .account(account)
@@ -269,11 +395,138 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(200L, captor.getValue().getAmount());
         assertEquals(10200L, captor.getValue().getBalanceSnapShot());
+        assertEquals("transactionId", captor.getValue().getCancelledTransactionId());
+        // 취소는 원래 사용 거래의 날짜 합계에서 뺀다
+        verify(dailySpendService).record(account, "1000000000",
+                TransactionType.CANCEL, 200L, transaction.getTransactedAt());
         assertEquals(TransactionResultType.S, transactionDto.getTransactionResultType());
         assertEquals(TransactionType.CANCEL, transactionDto.getTransactionType());
         assertEquals(10000L, transactionDto.getBalanceSnapShot());
         assertEquals(200L, transactionDto.getAmount());
     }
+
+    @Test
+    @DisplayName("이미 취소된 거래 - 잔액 사용 취소 실패")
+    void cancelTransaction_AlreadyCancelled () {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        Transaction transaction = Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .transactionId("transactionId")
+                .transactedAt(LocalDateTime.now())
+                .cancelledAt(LocalDateTime.now())
+                .amount(200L)
+                .balanceSnapShot(9000L)
+                .build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(transaction));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000012", 200L));
+        // then
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_CANCELLED, exception.getErrorCode());
+        assertEquals(10000L, account.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("취소 거래는 취소할 수 없다 - 잔액 사용 취소 실패")
+    void cancelTransaction_CancelTransaction () {
+        assertNotCancellable(TransactionType.CANCEL, TransactionResultType.S);
+    }
+
+    @Test
+    @DisplayName("실패한 사용 거래는 취소할 수 없다 - 잔액 사용 취소 실패")
+    void cancelTransaction_FailedTransaction () {
+        assertNotCancellable(TransactionType.USE, TransactionResultType.F);
+    }
+
+    @Test
+    @DisplayName("처리 중인 사용 거래는 취소할 수 없다 - 잔액 사용 취소 실패")
+    void cancelTransaction_PendingTransaction () {
+        assertNotCancellable(TransactionType.USE, TransactionResultType.P);
+    }
+
+    private void assertNotCancellable(TransactionType transactionType,
+                                      TransactionResultType transactionResultType) {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .transactionType(transactionType)
+                        .transactionResultType(transactionResultType)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(200L)
+                        .balanceSnapShot(10000L)
+                        .build()));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000012", 200L));
+        // then
+        assertEquals(ErrorCode.TRANSACTION_NOT_CANCELLABLE, exception.getErrorCode());
+        assertEquals(10000L, account.getBalance());
+        verify(transactionRepository, never()).markCancelled(any(), any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("동시에 취소된 거래 - 잔액 사용 취소 실패")
+    void cancelTransaction_CancelledConcurrently () {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        Transaction transaction = Transaction.builder()
+                .id(3L)
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .transactionId("transactionId")
+                .transactedAt(LocalDateTime.now())
+                .amount(200L)
+                .balanceSnapShot(9000L)
+                .build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(transaction));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.markCancelled(eq(3L), any()))
+                .willReturn(0);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000012", 200L));
+        // then
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_CANCELLED, exception.getErrorCode());
+        assertEquals(10000L, account.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
     @Test
     @DisplayName("해당 계좌 없음 - 잔액 사용 취소 실패")
     void cancelTransaction_AccountNotFound () {
@@ -427,27 +680,16 @@ class TransactionServiceTest {
     @Test
     void successQueryTransaction() {
     // given
-        AccountUser user = AccountUser.builder()
-                .id(12L).name("Kevin").build();
-
-        Account account = Account.builder()
-                .id(1L)
-                .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000012").build();
-
-        Transaction transaction = Transaction.builder()
-                .account(account)
-                .transactionType(TransactionType.USE)
-                .transactionResultType(TransactionResultType.S)
-                .transactionId("transactionId")
-                .transactedAt(LocalDateTime.now().minusYears(1).minusDays(1))
-                .amount(200L)
-                .balanceSnapShot(9000L)
-                .build();
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
+        given(transactionRepository.findDtoByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.builder()
+                        .accountNumber("1000000012")
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.S)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now().minusYears(1).minusDays(1))
+                        .amount(200L)
+                        .balanceSnapShot(9000L)
+                        .build()));
     // when
         TransactionDto transactionDto
                 = transactionService.queryTransaction("trxId");
@@ -457,11 +699,32 @@ class TransactionServiceTest {
         assertEquals(200L, transactionDto.getAmount());
         assertEquals("transactionId", transactionDto.getTransactionId());
     }
+    @Test
+    @DisplayName("방금 저장한 거래는 primary 에서 조회")
+    void queryTransaction_recentlyWrote() {
+        // given
+        given(readYourWritesGuard.recentlyWroteTransaction("trxId"))
+                .willReturn(true);
+        given(transactionRepository.findDtoByTransactionId("trxId"))
+                .willReturn(Optional.of(TransactionDto.builder()
+                        .transactionId("trxId")
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.S)
+                        .amount(200L)
+                        .build()));
+        // when
+        TransactionDto transactionDto
+                = transactionService.queryTransaction("trxId");
+        // then
+        assertEquals("trxId", transactionDto.getTransactionId());
+        verify(readYourWritesGuard, times(1)).recentlyWroteTransaction("trxId");
+    }
+
     @Test
     @DisplayName("원 거래 없음 - 거래 조회 실패")
     void queryTransaction_TransactionNotFound () {
         // given
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDtoByTransactionId(anyString()))
                 .willReturn(Optional.empty());
 
         // when
@@ -471,4 +734,294 @@ class TransactionServiceTest {
         // then
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void successAuthorizeBalance() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .heldBalance(3000L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountRepository.hold(anyLong(), anyLong()))
+                .willReturn(1);
+        given(balanceHoldRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        // when
+        HoldDto holdDto = transactionService.authorizeBalance(12L, "1000000012", 7000L);
+        // then
+        verify(accountRepository).hold(1L, 7000L);
+        assertEquals("1000000012", holdDto.getAccountNumber());
+        assertEquals(7000L, holdDto.getAmount());
+        assertEquals(HoldStatus.HELD, holdDto.getStatus());
+        assertEquals(Duration.ofMinutes(10),
+                Duration.between(holdDto.getHeldAt(), holdDto.getExpiresAt()));
+        // 잔액은 확정 전까지 그대로
+        assertEquals(10000L, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("가용 잔액 부족 - 잔액 승인 실패")
+    void authorizeBalance_exceedAvailableBalance() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .heldBalance(9900L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.authorizeBalance(12L, "1000000012", 200L));
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(accountRepository, never()).hold(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("조건부 update 실패 - 잔액 승인 실패")
+    void authorizeBalance_holdNotApplied() {
+        // given
+        AccountUser user = AccountUser.builder()
+                .id(12L).name("Kevin").build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountRepository.hold(anyLong(), anyLong()))
+                .willReturn(0);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.authorizeBalance(12L, "1000000012", 200L));
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(balanceHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void successCaptureBalance() {
+        // given
+        Account account = heldAccount();
+        BalanceHold hold = hold(account, HoldStatus.HELD);
+
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceHoldRepository.changeStatus(anyLong(), any(), any()))
+                .willReturn(1);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        // when
+        TransactionDto transactionDto = transactionService.captureBalance("holdId", "1000000012", 800L);
+        // then
+        verify(balanceHoldRepository).changeStatus(7L, HoldStatus.HELD, HoldStatus.CAPTURED);
+        // 승인 금액 1000 을 풀고 800 만 차감
+        verify(accountRepository).settleHold(1L, 1000L, 800L);
+        assertEquals(TransactionType.USE, transactionDto.getTransactionType());
+        assertEquals(TransactionResultType.S, transactionDto.getTransactionResultType());
+        assertEquals(800L, transactionDto.getAmount());
+        assertEquals(9200L, transactionDto.getBalanceSnapShot());
+    }
+
+    @Test
+    @DisplayName("승인 금액 초과 - 승인 확정 실패")
+    void captureBalance_exceedHold() {
+        // given
+        Account account = heldAccount();
+
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold(account, HoldStatus.HELD)));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.captureBalance("holdId", "1000000012", 1001L));
+        // then
+        assertEquals(ErrorCode.CAPTURE_EXCEED_HOLD, exception.getErrorCode());
+        verify(accountRepository, never()).settleHold(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("먼저 만료된 승인 - 승인 확정 실패")
+    void captureBalance_alreadyFinished() {
+        // given
+        Account account = heldAccount();
+
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold(account, HoldStatus.HELD)));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceHoldRepository.changeStatus(anyLong(), any(), any()))
+                .willReturn(0);
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.captureBalance("holdId", "1000000012", 1000L));
+        // then
+        assertEquals(ErrorCode.HOLD_ALREADY_FINISHED, exception.getErrorCode());
+        verify(accountRepository, never()).settleHold(anyLong(), anyLong(), anyLong());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("다른 계좌의 승인 - 승인 취소 실패")
+    void voidBalance_accountUnMatch() {
+        // given
+        Account other = Account.builder()
+                .id(2L)
+                .accountNumber("1000000013").build();
+
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold(heldAccount(), HoldStatus.HELD)));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(other));
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.voidBalance("holdId", "1000000013"));
+        // then
+        assertEquals(ErrorCode.HOLD_ACCOUNT_UN_MATCH, exception.getErrorCode());
+    }
+
+    @Test
+    void successVoidBalance() {
+        // given
+        Account account = heldAccount();
+
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold(account, HoldStatus.HELD)));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceHoldRepository.changeStatus(anyLong(), any(), any()))
+                .willReturn(1);
+        // when
+        HoldDto holdDto = transactionService.voidBalance("holdId", "1000000012");
+        // then
+        verify(accountRepository).settleHold(1L, 1000L, 0L);
+        assertEquals(HoldStatus.VOIDED, holdDto.getStatus());
+    }
+
+    @Test
+    void expireHold_skipFinishedHold() {
+        // given
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold(heldAccount(), HoldStatus.CAPTURED)));
+        // when
+        transactionService.expireHold("holdId");
+        // then
+        verify(balanceHoldRepository, never()).changeStatus(anyLong(), any(), any());
+        verify(accountRepository, never()).settleHold(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void successExpireHold() {
+        // given
+        given(balanceHoldRepository.findByHoldId(anyString()))
+                .willReturn(Optional.of(hold(heldAccount(), HoldStatus.HELD)));
+        given(balanceHoldRepository.changeStatus(anyLong(), any(), any()))
+                .willReturn(1);
+        // when
+        transactionService.expireHold("holdId");
+        // then
+        verify(balanceHoldRepository).changeStatus(7L, HoldStatus.HELD, HoldStatus.EXPIRED);
+        verify(accountRepository).settleHold(1L, 1000L, 0L);
+    }
+
+    @Test
+    void successSubmitUseBalance() {
+        // given
+        Account account = heldAccount();
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        // when
+        TransactionDto transactionDto = transactionService.submitUseBalance(12L, "1000000012", 1000L);
+        // then
+        assertEquals(TransactionResultType.P, transactionDto.getTransactionResultType());
+        assertNotNull(transactionDto.getTransactionId());
+        // 잔액은 worker 가 처리할 때 차감
+        assertEquals(10000L, account.getBalance());
+    }
+
+    @Test
+    void completePendingUsesInOrder() {
+        // given
+        Account account = heldAccount();
+        Transaction first = pendingUse(account, "first", 5000L);
+        Transaction second = pendingUse(account, "second", 5000L);
+        Transaction third = pendingUse(account, "third", 3000L);
+        Transaction done = pendingUse(account, "done", 1000L);
+        done.setTransactionResultType(TransactionResultType.S);
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.findByTransactionIdIn(anyList()))
+                .willReturn(List.of(third, done, second, first));
+        // when
+        List<TransactionDto> completed = transactionService.completePendingUses("1000000012",
+                List.of("first", "second", "third", "done"));
+        // then
+        // 가용 잔액 9000 (승인 1000 제외) 에서 5000 성공, 5000 실패, 3000 성공
+        assertEquals(3, completed.size());
+        assertEquals(TransactionResultType.S, first.getTransactionResultType());
+        assertEquals(5000L, first.getBalanceSnapShot());
+        assertEquals(TransactionResultType.F, second.getTransactionResultType());
+        assertEquals(TransactionResultType.S, third.getTransactionResultType());
+        assertEquals(2000L, third.getBalanceSnapShot());
+        assertEquals(2000L, account.getBalance());
+        verify(accountCacheService).evict(12L);
+    }
+
+    private static Transaction pendingUse(Account account, String transactionId, Long amount) {
+        return Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.P)
+                .transactionId(transactionId)
+                .transactedAt(LocalDateTime.now())
+                .amount(amount)
+                .balanceSnapShot(account.getBalance())
+                .build();
+    }
+
+    private static Account heldAccount() {
+        return Account.builder()
+                .id(1L)
+                .accountUser(AccountUser.builder().id(12L).name("Kevin").build())
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .heldBalance(1000L)
+                .accountNumber("1000000012").build();
+    }
+
+    private static BalanceHold hold(Account account, HoldStatus status) {
+        return BalanceHold.builder()
+                .id(7L)
+                .account(account)
+                .holdId("holdId")
+                .amount(1000L)
+                .status(status)
+                .heldAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(10))
+                .build();
+    }
+}
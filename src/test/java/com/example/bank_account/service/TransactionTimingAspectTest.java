@@ -0,0 +1,67 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionTimingAspectTest {
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+    @Mock
+    private Signature signature;
+
+    @InjectMocks
+    private TransactionTimingAspect transactionTimingAspect;
+
+    @BeforeEach
+    void setUp() {
+        given(proceedingJoinPoint.getSignature()).willReturn(signature);
+        given(signature.getDeclaringType()).willReturn(TransactionService.class);
+        given(signature.getName()).willReturn("useBalance");
+    }
+
+    @Test
+    void recordSuccess() throws Throwable {
+    // given
+        given(proceedingJoinPoint.proceed()).willReturn("result");
+    // when
+        Object result = transactionTimingAspect.aroundTransaction(proceedingJoinPoint);
+    // then
+        assertEquals("result", result);
+        assertEquals(1, meterRegistry.get(TransactionTimingAspect.METRIC)
+                .tag("class", "TransactionService")
+                .tag("method", "useBalance")
+                .tag("outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void recordErrorCode_evenIfThrow() throws Throwable {
+    // given
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+    // when
+        assertThrows(AccountException.class, () ->
+                transactionTimingAspect.aroundTransaction(proceedingJoinPoint));
+    // then
+        assertEquals(1, meterRegistry.get(TransactionTimingAspect.METRIC)
+                .tag("outcome", "AMOUNT_EXCEED_BALANCE")
+                .timer().count());
+    }
+}
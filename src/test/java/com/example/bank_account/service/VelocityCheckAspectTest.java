@@ -0,0 +1,70 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.dto.UseBalance;
+import com.example.bank_account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityCheckAspectTest {
+    @Mock
+    private VelocityChecker velocityChecker;
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+    @InjectMocks
+    private VelocityCheckAspect velocityCheckAspect;
+
+    private final UseBalance.Request request = new UseBalance.Request(12L, "1000000012", 1000L);
+
+    @Test
+    void reserveBeforeProceed() throws Throwable {
+    // given
+        given(velocityChecker.isEnabled()).willReturn(true);
+        given(proceedingJoinPoint.proceed()).willReturn("result");
+    // when
+        Object result = velocityCheckAspect.aroundMethod(proceedingJoinPoint, request);
+    // then
+        assertEquals("result", result);
+        verify(velocityChecker).reserve(12L, "1000000012", 1000L);
+        verify(velocityChecker, never()).release(anyLong(), anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void releaseFailedTransaction() throws Throwable {
+    // given
+        given(velocityChecker.isEnabled()).willReturn(true);
+        given(velocityChecker.reserve(12L, "1000000012", 1000L)).willReturn(42L);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(AccountException.rejected(ErrorCode.AMOUNT_EXCEED_BALANCE));
+    // when
+        assertThrows(AccountException.class,
+                () -> velocityCheckAspect.aroundMethod(proceedingJoinPoint, request));
+    // then
+        verify(velocityChecker).release(12L, "1000000012", 1000L, 42L);
+    }
+
+    @Test
+    void rejectBeforeProceed() throws Throwable {
+    // given
+        given(velocityChecker.isEnabled()).willReturn(true);
+        given(velocityChecker.reserve(12L, "1000000012", 1000L))
+                .willThrow(AccountException.rejected(ErrorCode.VELOCITY_EXCEEDED));
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> velocityCheckAspect.aroundMethod(proceedingJoinPoint, request));
+    // then
+        assertEquals(ErrorCode.VELOCITY_EXCEEDED, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bank_account.service;
+
+import com.example.bank_account.Exception.AccountException;
+import com.example.bank_account.config.VelocityProperties;
+import com.example.bank_account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityCheckerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private VelocityChecker velocityChecker;
+
+    @BeforeEach
+    void setUp() {
+        VelocityProperties properties = new VelocityProperties();
+        properties.getAccount().add(window("1m", 2, 0, VelocityProperties.Action.REJECT));
+        properties.getUser().add(window("1h", 0, 2500, VelocityProperties.Action.FLAG));
+        meterRegistry = new SimpleMeterRegistry();
+        velocityChecker = new VelocityChecker(properties, meterRegistry);
+    }
+
+    @Test
+    void rejectOverAccountCount() {
+    // given
+        velocityChecker.reserve(12L, "1000000012", 1000L);
+        velocityChecker.reserve(12L, "1000000012", 1000L);
+    // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> velocityChecker.reserve(12L, "1000000012", 1000L));
+    // then
+        assertEquals(ErrorCode.VELOCITY_EXCEEDED, exception.getErrorCode());
+        assertEquals(1.0, meterRegistry.counter("velocity.rejected",
+                "scope", "account", "window", "1m").count());
+        // 다른 계좌는 영향 없음
+        velocityChecker.reserve(12L, "1000000013", 100L);
+    }
+
+    @Test
+    void flagOverUserAmount() {
+    // given
+        velocityChecker.reserve(12L, "1000000012", 2000L);
+    // when
+        velocityChecker.reserve(12L, "1000000013", 1000L);
+    // then
+        assertEquals(1.0, meterRegistry.counter("velocity.flagged",
+                "scope", "user", "window", "1h").count());
+    }
+
+    @Test
+    void notCountReleased() {
+    // given
+        for (int i = 0; i < 5; i++) {
+            long reservedAt = velocityChecker.reserve(12L, "1000000012", 100L);
+            velocityChecker.release(12L, "1000000012", 100L, reservedAt);
+        }
+    // when
+    // then
+        velocityChecker.reserve(12L, "1000000012", 100L);
+        velocityChecker.reserve(12L, "1000000012", 100L);
+    }
+
+    @Test
+    void notCountRejected() {
+    // given
+        long reservedAt = velocityChecker.reserve(12L, "1000000012", 100L);
+        velocityChecker.reserve(12L, "1000000012", 100L);
+        assertThrows(AccountException.class,
+                () -> velocityChecker.reserve(12L, "1000000012", 100L));
+    // when
+        velocityChecker.release(12L, "1000000012", 100L, reservedAt);
+    // then
+        // 거절된 거래는 남지 않으므로 하나를 빼면 다시 한 건 가능
+        velocityChecker.reserve(12L, "1000000012", 100L);
+    }
+
+    private static VelocityProperties.Window window(String name, long maxCount, long maxAmount,
+                                                    VelocityProperties.Action action) {
+        VelocityProperties.Window window = new VelocityProperties.Window();
+        window.setName(name);
+        window.setSize(Duration.ofMinutes(name.equals("1m") ? 1 : 60));
+        window.setMaxCount(maxCount);
+        window.setMaxAmount(maxAmount);
+        window.setAction(action);
+        return window;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bank_account.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.end();
+    }
+
+    @Test
+    void headerContainsRecordedPhasesAndTotal() {
+    // given
+        RequestTiming.begin();
+        long start = System.nanoTime();
+    // when
+        RequestTiming.record(RequestTiming.Phase.LOCK_WAIT, start - TimeUnit.MILLISECONDS.toNanos(3));
+        RequestTiming.record(RequestTiming.Phase.DB, start - TimeUnit.MILLISECONDS.toNanos(1));
+        RequestTiming.record(RequestTiming.Phase.DB, start - TimeUnit.MILLISECONDS.toNanos(1));
+    // then
+        String header = RequestTiming.current().toHeaderValue();
+        assertTrue(header.matches("lock-wait;dur=3\\.\\d\\d, db;dur=2\\.\\d\\d, total;dur=\\d+\\.\\d\\d"),
+                header);
+    }
+
+    @Test
+    void ignoreRecordOutsideRequest() {
+    // given
+    // when
+        RequestTiming.record(RequestTiming.Phase.COMMIT, System.nanoTime());
+    // then
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void endClearsCurrent() {
+    // given
+        RequestTiming.begin();
+    // when
+        RequestTiming timing = RequestTiming.end();
+    // then
+        assertNotNull(timing);
+        assertNull(RequestTiming.current());
+    }
+}